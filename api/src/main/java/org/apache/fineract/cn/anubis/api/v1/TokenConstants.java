@@ -29,6 +29,11 @@ public interface TokenConstants {
   String JWT_SIGNATURE_TIMESTAMP_CLAIM = "/fincn.apache.org/s";
   String JWT_ENDPOINT_SET_CLAIM = "/fincn.apache.org/e";
   String JWT_CONTENT_CLAIM = "/fincn.apache.org/c";
+  /**
+   * Token content as a nested, versioned claim, grouped by application and allowed operations.  Used instead of
+   * {@link #JWT_CONTENT_CLAIM} when a token is built with compact token content.
+   */
+  String JWT_COMPACT_CONTENT_CLAIM = "/fincn.apache.org/cc";
   String JWT_SOURCE_APPLICATION_CLAIM = "/fincn.apache.org/a";
 
   String REFRESH_TOKEN_COOKIE_NAME = "org.apache.fincn.refreshToken";
@@ -18,14 +18,19 @@
  */
 package org.apache.fineract.cn.anubis.api.v1.client;
 
+import feign.Response;
 import org.apache.fineract.cn.anubis.api.v1.domain.ApplicationSignatureSet;
 import org.apache.fineract.cn.anubis.api.v1.domain.PermittableEndpoint;
 import org.apache.fineract.cn.anubis.api.v1.domain.Signature;
+import org.apache.fineract.cn.anubis.api.v1.domain.SignatureSetBatch;
+import org.apache.fineract.cn.anubis.api.v1.domain.SignatureSetResult;
 import org.apache.fineract.cn.anubis.api.v1.validation.ValidKeyTimestamp;
 import org.springframework.cloud.netflix.feign.FeignClient;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 
@@ -42,27 +47,74 @@ public interface Anubis {
   )
   List<PermittableEndpoint> getPermittableEndpoints();
 
+  /**
+   * Conditional variant of {@link #getPermittableEndpoints()}.  Answers with 304 Not Modified if eTag still matches.
+   * Use {@link ConditionalAnubis} rather than calling this directly.
+   */
+  @RequestMapping(
+      value = "/permittables",
+      method = RequestMethod.GET,
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.ALL_VALUE
+  )
+  Response getPermittableEndpoints(@RequestHeader(HttpHeaders.IF_NONE_MATCH) String eTag);
+
   @RequestMapping(value = "/signatures", method = RequestMethod.GET,
           consumes = {MediaType.APPLICATION_JSON_VALUE},
           produces = {MediaType.ALL_VALUE})
   List<String> getAllSignatureSets();
 
+  /**
+   * Conditional variant of {@link #getAllSignatureSets()}.
+   */
+  @RequestMapping(value = "/signatures", method = RequestMethod.GET,
+          consumes = {MediaType.APPLICATION_JSON_VALUE},
+          produces = {MediaType.ALL_VALUE})
+  Response getAllSignatureSets(@RequestHeader(HttpHeaders.IF_NONE_MATCH) String eTag);
+
+  @RequestMapping(value = "/signatures/_all", method = RequestMethod.GET,
+          consumes = {MediaType.APPLICATION_JSON_VALUE},
+          produces = {MediaType.ALL_VALUE})
+  List<ApplicationSignatureSet> getAllApplicationSignatureSets();
+
   @RequestMapping(value = "/signatures/{timestamp}", method = RequestMethod.POST,
           consumes = {MediaType.APPLICATION_JSON_VALUE},
           produces = {MediaType.ALL_VALUE})
   ApplicationSignatureSet createSignatureSet(@PathVariable("timestamp") @ValidKeyTimestamp String timestamp,
                                              @RequestBody Signature identityManagerSignature);
 
+  @RequestMapping(value = "/signatures", method = RequestMethod.POST,
+          consumes = {MediaType.APPLICATION_JSON_VALUE},
+          produces = {MediaType.ALL_VALUE})
+  List<SignatureSetResult> createSignatureSets(@RequestBody SignatureSetBatch signatureSetBatch);
+
   @RequestMapping(value = "/signatures/{timestamp}", method = RequestMethod.GET,
           consumes = {MediaType.APPLICATION_JSON_VALUE},
           produces = {MediaType.ALL_VALUE})
   ApplicationSignatureSet getSignatureSet(@PathVariable("timestamp") String timestamp);
 
+  /**
+   * Conditional variant of {@link #getSignatureSet(String)}.
+   */
+  @RequestMapping(value = "/signatures/{timestamp}", method = RequestMethod.GET,
+          consumes = {MediaType.APPLICATION_JSON_VALUE},
+          produces = {MediaType.ALL_VALUE})
+  Response getSignatureSet(@PathVariable("timestamp") String timestamp,
+                           @RequestHeader(HttpHeaders.IF_NONE_MATCH) String eTag);
+
   @RequestMapping(value = "/signatures/_latest", method = RequestMethod.GET,
           consumes = {MediaType.APPLICATION_JSON_VALUE},
           produces = {MediaType.ALL_VALUE})
   ApplicationSignatureSet getLatestSignatureSet();
 
+  /**
+   * Conditional variant of {@link #getLatestSignatureSet()}.
+   */
+  @RequestMapping(value = "/signatures/_latest", method = RequestMethod.GET,
+          consumes = {MediaType.APPLICATION_JSON_VALUE},
+          produces = {MediaType.ALL_VALUE})
+  Response getLatestSignatureSet(@RequestHeader(HttpHeaders.IF_NONE_MATCH) String eTag);
+
   @RequestMapping(value = "/signatures/{timestamp}", method = RequestMethod.DELETE,
           consumes = {MediaType.APPLICATION_JSON_VALUE},
           produces = {MediaType.ALL_VALUE})
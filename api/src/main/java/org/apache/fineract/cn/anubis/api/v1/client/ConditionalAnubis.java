@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.api.v1.client;
+
+import com.google.gson.reflect.TypeToken;
+import feign.Feign;
+import feign.Response;
+import feign.codec.Decoder;
+import feign.codec.ErrorDecoder;
+import feign.gson.GsonDecoder;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.fineract.cn.anubis.api.v1.domain.ApplicationSignatureSet;
+import org.apache.fineract.cn.anubis.api.v1.domain.PermittableEndpoint;
+import org.apache.fineract.cn.api.util.AnnotatedErrorDecoder;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.slf4j.Logger;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Wraps an {@link Anubis} client, and remembers the entity tags and bodies of the responses to the endpoints which
+ * rarely change.  Repeated calls are sent as conditional requests, and if the service answers 304 Not Modified, the
+ * remembered body is returned.  Signature responses are remembered per tenant.
+ */
+@SuppressWarnings("WeakerAccess")
+public class ConditionalAnubis {
+  /**
+   * A strong entity tag which anubis never issues, so that it can be sent when nothing is remembered yet.
+   */
+  private static final String NO_ENTITY_TAG = "\"\"";
+
+  private final Anubis anubis;
+  private final ErrorDecoder errorDecoder;
+  private final Decoder decoder;
+  private final Map<String, TaggedBody> bodies;
+
+  public ConditionalAnubis(final Anubis anubis, final Logger logger) {
+    this.anubis = anubis;
+    this.errorDecoder = new AnnotatedErrorDecoder(logger, Anubis.class);
+    this.decoder = new GsonDecoder();
+    this.bodies = new ConcurrentHashMap<>();
+  }
+
+  public List<PermittableEndpoint> getPermittableEndpoints() {
+    return get("/permittables",
+        anubis::getPermittableEndpoints,
+        configKey("getPermittableEndpoints", String.class),
+        new TypeToken<List<PermittableEndpoint>>(){}.getType());
+  }
+
+  public List<String> getAllSignatureSets() {
+    return get(TenantContextHolder.checkedGetIdentifier() + "/signatures",
+        anubis::getAllSignatureSets,
+        configKey("getAllSignatureSets", String.class),
+        new TypeToken<List<String>>(){}.getType());
+  }
+
+  public ApplicationSignatureSet getSignatureSet(final String timestamp) {
+    return get(TenantContextHolder.checkedGetIdentifier() + "/signatures/" + timestamp,
+        eTag -> anubis.getSignatureSet(timestamp, eTag),
+        configKey("getSignatureSet", String.class, String.class),
+        ApplicationSignatureSet.class);
+  }
+
+  public ApplicationSignatureSet getLatestSignatureSet() {
+    return get(TenantContextHolder.checkedGetIdentifier() + "/signatures/_latest",
+        anubis::getLatestSignatureSet,
+        configKey("getLatestSignatureSet", String.class),
+        ApplicationSignatureSet.class);
+  }
+
+  private interface ConditionalRequest {
+    Response send(String eTag);
+  }
+
+  private static class TaggedBody {
+    final String eTag;
+    final Object body;
+
+    TaggedBody(final String eTag, final Object body) {
+      this.eTag = eTag;
+      this.body = body;
+    }
+  }
+
+  private <T> T get(
+      final String key,
+      final ConditionalRequest request,
+      final String configKey,
+      final Type type) {
+    final TaggedBody remembered = bodies.get(key);
+    try (final Response response = request.send(remembered == null ? NO_ENTITY_TAG : remembered.eTag)) {
+      if (response.status() == HttpStatus.NOT_MODIFIED.value()) {
+        if (remembered == null)
+          throw new IllegalStateException("Response for " + configKey + " was not modified, but nothing was remembered.");
+        //noinspection unchecked
+        return (T) remembered.body;
+      }
+
+      if (response.status() < 200 || response.status() >= 300)
+        throw asRuntimeException(errorDecoder.decode(configKey, response));
+
+      //noinspection unchecked
+      final T body = unmodifiable((T) decoder.decode(response, type));
+      final Optional<String> eTag = getETag(response);
+      if (eTag.isPresent())
+        bodies.put(key, new TaggedBody(eTag.get(), body));
+      else
+        bodies.remove(key);
+      return body;
+    }
+    catch (final IOException e) {
+      throw new IllegalStateException("Could not read response for " + configKey + ".", e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T unmodifiable(final T body) {
+    if (body instanceof List)
+      return (T) Collections.unmodifiableList((List<?>) body);
+    else
+      return body;
+  }
+
+  private static Optional<String> getETag(final Response response) {
+    return response.headers().entrySet().stream()
+        .filter(x -> HttpHeaders.ETAG.equalsIgnoreCase(x.getKey()))
+        .map(Map.Entry::getValue)
+        .flatMap(Collection::stream)
+        .findFirst();
+  }
+
+  private static RuntimeException asRuntimeException(final Exception e) {
+    if (e instanceof RuntimeException)
+      return (RuntimeException) e;
+    else
+      return new IllegalStateException(e);
+  }
+
+  private static String configKey(final String methodName, final Class<?>... parameterTypes) {
+    try {
+      return Feign.configKey(Anubis.class, Anubis.class.getMethod(methodName, parameterTypes));
+    }
+    catch (final NoSuchMethodException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
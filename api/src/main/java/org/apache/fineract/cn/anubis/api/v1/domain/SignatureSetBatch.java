@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.api.v1.domain;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Several signature sets to create for the tenant of the request.  Wrapping the list lets each of them be validated.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class SignatureSetBatch {
+  @Valid
+  @NotNull
+  private List<SignatureSetRequest> signatureSets;
+
+  public SignatureSetBatch() {
+  }
+
+  public SignatureSetBatch(List<SignatureSetRequest> signatureSets) {
+    this.signatureSets = signatureSets;
+  }
+
+  public List<SignatureSetRequest> getSignatureSets() {
+    return signatureSets;
+  }
+
+  public void setSignatureSets(List<SignatureSetRequest> signatureSets) {
+    this.signatureSets = signatureSets;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    SignatureSetBatch that = (SignatureSetBatch) o;
+    return Objects.equals(signatureSets, that.signatureSets);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(signatureSets);
+  }
+
+  @Override
+  public String toString() {
+    return "SignatureSetBatch{" +
+            "signatureSets=" + signatureSets +
+            '}';
+  }
+}
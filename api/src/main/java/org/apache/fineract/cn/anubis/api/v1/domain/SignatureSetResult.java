@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.api.v1.domain;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * The outcome of creating one signature set in a batch.  Exactly one of applicationSignature and errorMessage is set.
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class SignatureSetResult {
+  private String timestamp;
+  @Nullable
+  private Signature applicationSignature;
+  @Nullable
+  private String errorMessage;
+
+  public SignatureSetResult() {
+  }
+
+  public SignatureSetResult(String timestamp,
+                            @Nullable Signature applicationSignature,
+                            @Nullable String errorMessage) {
+    this.timestamp = timestamp;
+    this.applicationSignature = applicationSignature;
+    this.errorMessage = errorMessage;
+  }
+
+  public String getTimestamp() {
+    return timestamp;
+  }
+
+  public void setTimestamp(String timestamp) {
+    this.timestamp = timestamp;
+  }
+
+  @Nullable
+  public Signature getApplicationSignature() {
+    return applicationSignature;
+  }
+
+  public void setApplicationSignature(@Nullable Signature applicationSignature) {
+    this.applicationSignature = applicationSignature;
+  }
+
+  @Nullable
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  public void setErrorMessage(@Nullable String errorMessage) {
+    this.errorMessage = errorMessage;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    SignatureSetResult that = (SignatureSetResult) o;
+    return Objects.equals(timestamp, that.timestamp) &&
+            Objects.equals(applicationSignature, that.applicationSignature) &&
+            Objects.equals(errorMessage, that.errorMessage);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(timestamp, applicationSignature, errorMessage);
+  }
+
+  @Override
+  public String toString() {
+    return "SignatureSetResult{" +
+            "timestamp='" + timestamp + '\'' +
+            ", applicationSignature=" + applicationSignature +
+            ", errorMessage='" + errorMessage + '\'' +
+            '}';
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.api.v1.client;
+
+import feign.Response;
+import org.apache.fineract.cn.anubis.api.v1.domain.PermittableEndpoint;
+import org.apache.fineract.cn.lang.AutoTenantContext;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ConditionalAnubisTest {
+  private static final String ETAG = "\"abc\"";
+
+  @Test
+  public void notModifiedReturnsRememberedBody() {
+    final Anubis anubis = Mockito.mock(Anubis.class);
+    Mockito.when(anubis.getPermittableEndpoints("\"\""))
+        .thenReturn(response(200, "[{\"path\":\"heart-v1/beat\",\"method\":\"GET\",\"groupId\":\"\"}]"));
+    Mockito.when(anubis.getPermittableEndpoints(ETAG)).thenReturn(response(304, null));
+
+    final ConditionalAnubis testSubject = new ConditionalAnubis(anubis, Mockito.mock(Logger.class));
+    final List<PermittableEndpoint> first = testSubject.getPermittableEndpoints();
+    final List<PermittableEndpoint> second = testSubject.getPermittableEndpoints();
+
+    Assert.assertEquals(Collections.singletonList(new PermittableEndpoint("heart-v1/beat", "GET")), first);
+    Assert.assertSame(first, second);
+    Mockito.verify(anubis).getPermittableEndpoints("\"\"");
+    Mockito.verify(anubis).getPermittableEndpoints(ETAG);
+  }
+
+  @Test
+  public void signaturesAreRememberedPerTenant() {
+    final Anubis anubis = Mockito.mock(Anubis.class);
+    Mockito.when(anubis.getAllSignatureSets("\"\"")).thenReturn(response(200, "[\"x\"]"), response(200, "[\"y\"]"));
+
+    final ConditionalAnubis testSubject = new ConditionalAnubis(anubis, Mockito.mock(Logger.class));
+    try (final AutoTenantContext ignored = new AutoTenantContext("a")) {
+      Assert.assertEquals(Collections.singletonList("x"), testSubject.getAllSignatureSets());
+    }
+    try (final AutoTenantContext ignored = new AutoTenantContext("b")) {
+      Assert.assertEquals(Collections.singletonList("y"), testSubject.getAllSignatureSets());
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void notModifiedWithoutRememberedBodyIsAnError() {
+    final Anubis anubis = Mockito.mock(Anubis.class);
+    Mockito.when(anubis.getPermittableEndpoints("\"\"")).thenReturn(response(304, null));
+
+    new ConditionalAnubis(anubis, Mockito.mock(Logger.class)).getPermittableEndpoints();
+  }
+
+  private static Response response(final int status, final String body) {
+    final Map<String, Collection<String>> headers = new HashMap<>();
+    headers.put("ETag", Collections.singletonList(ETAG));
+    final Response.Builder builder = Response.builder().status(status).headers(headers);
+    if (body != null)
+      builder.body(body, StandardCharsets.UTF_8);
+    return builder.build();
+  }
+}
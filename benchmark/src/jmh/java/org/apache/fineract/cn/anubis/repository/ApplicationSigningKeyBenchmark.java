@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.repository;
+
+import org.apache.fineract.cn.lang.security.RsaKeyPairFactory;
+import org.apache.fineract.cn.lang.security.RsaPrivateKeyBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures RS512 signatures with an application private key as it is read back from cassandra, both with its chinese
+ * remainder theorem parameters and, as for keys saved before those were kept, with only its modulus and exponent.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ApplicationSigningKeyBenchmark {
+  private static final byte[] CONTENT = ("eyJhbGciOiJSUzUxMiJ9.eyJzdWIiOiJiZW5jaG1hcmsiLCJpc3MiOiJpZGVudGl0eS12MSJ9")
+      .getBytes(StandardCharsets.US_ASCII);
+
+  private Signature crtSignature;
+  private Signature nonCrtSignature;
+
+  @Setup(Level.Trial)
+  public void setup() throws GeneralSecurityException {
+    final RsaKeyPairFactory.KeyPairHolder keyPair = ApplicationKeyPairPool.createKeyPair();
+
+    crtSignature = Signature.getInstance("SHA512withRSA");
+    crtSignature.initSign(keyPair.privateKey());
+
+    nonCrtSignature = Signature.getInstance("SHA512withRSA");
+    nonCrtSignature.initSign(new RsaPrivateKeyBuilder()
+        .setPrivateKeyMod(keyPair.getPrivateKeyMod())
+        .setPrivateKeyExp(keyPair.getPrivateKeyExp())
+        .build());
+  }
+
+  @Benchmark
+  public byte[] signWithCrtKey() throws GeneralSecurityException {
+    crtSignature.update(CONTENT);
+    return crtSignature.sign();
+  }
+
+  @Benchmark
+  public byte[] signWithoutCrtKey() throws GeneralSecurityException {
+    nonCrtSignature.update(CONTENT);
+    return nonCrtSignature.sign();
+  }
+}
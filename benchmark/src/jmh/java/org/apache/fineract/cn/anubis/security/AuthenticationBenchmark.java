@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.apache.fineract.cn.anubis.api.v1.RoleConstants;
+import org.apache.fineract.cn.anubis.api.v1.TokenConstants;
+import org.apache.fineract.cn.api.util.ApiConstants;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures authentication of tenant, system and guest requests through IsisAuthenticatedAuthenticationProvider,
+ * with and without the authentication cache, and the tenant and system authenticators on their own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AuthenticationBenchmark {
+  @Param({"0", "1000"})
+  public int authenticationCacheSize;
+
+  private IsisAuthenticatedAuthenticationProvider authenticationProvider;
+  private TenantAuthenticator tenantAuthenticator;
+  private SystemAuthenticator systemAuthenticator;
+  private PreAuthenticatedAuthenticationToken tenantPreAuthentication;
+  private PreAuthenticatedAuthenticationToken systemPreAuthentication;
+  private PreAuthenticatedAuthenticationToken guestPreAuthentication;
+  private String tenantToken;
+  private String tenantKeyTimestamp;
+  private Claims tenantClaims;
+  private String systemToken;
+  private String systemKeyTimestamp;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final BenchmarkEnvironment environment = new BenchmarkEnvironment();
+    authenticationProvider = environment.authenticationProvider(authenticationCacheSize);
+    tenantAuthenticator = environment.tenantAuthenticator();
+    systemAuthenticator = environment.systemAuthenticator();
+
+    final String tenantHeader = environment.tenantToken();
+    final String systemHeader = environment.systemToken();
+    tenantPreAuthentication = new PreAuthenticatedAuthenticationToken(BenchmarkEnvironment.USER, tenantHeader);
+    systemPreAuthentication = new PreAuthenticatedAuthenticationToken(ApiConstants.SYSTEM_SU, systemHeader);
+    guestPreAuthentication = new PreAuthenticatedAuthenticationToken(
+        RoleConstants.GUEST_USER_IDENTIFIER, TokenConstants.NO_AUTHENTICATION);
+
+    tenantToken = tenantHeader.substring(TokenConstants.PREFIX.length());
+    tenantKeyTimestamp = environment.tenantKeyTimestamp();
+    tenantClaims = Jwts.parser()
+        .setSigningKey(environment.tenantPublicKey())
+        .parseClaimsJws(tenantToken)
+        .getBody();
+    systemToken = systemHeader.substring(TokenConstants.PREFIX.length());
+    systemKeyTimestamp = environment.systemKeyPair().getTimestamp();
+
+    TenantContextHolder.setIdentifier(BenchmarkEnvironment.TENANT);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    TenantContextHolder.clear();
+  }
+
+  @Benchmark
+  public Authentication authenticateTenantToken() {
+    return authenticationProvider.authenticate(tenantPreAuthentication);
+  }
+
+  @Benchmark
+  public Authentication authenticateSystemToken() {
+    return authenticationProvider.authenticate(systemPreAuthentication);
+  }
+
+  @Benchmark
+  public Authentication authenticateGuest() {
+    return authenticationProvider.authenticate(guestPreAuthentication);
+  }
+
+  /**
+   * The signature has already been verified, so this measures checking the claims and translating the permissions.
+   */
+  @Benchmark
+  public AnubisAuthentication tenantAuthenticator() {
+    return tenantAuthenticator.authenticate(BenchmarkEnvironment.USER, tenantToken, tenantKeyTimestamp, tenantClaims);
+  }
+
+  @Benchmark
+  public AnubisAuthentication systemAuthenticator() {
+    return systemAuthenticator.authenticate(ApiConstants.SYSTEM_SU, systemToken, systemKeyTimestamp);
+  }
+}
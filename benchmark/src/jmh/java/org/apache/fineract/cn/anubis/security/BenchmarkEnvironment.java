@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.apache.fineract.cn.anubis.annotation.AcceptedTokenType;
+import org.apache.fineract.cn.anubis.annotation.Permittable;
+import org.apache.fineract.cn.anubis.api.v1.domain.AllowedOperation;
+import org.apache.fineract.cn.anubis.api.v1.domain.ApplicationSignatureSet;
+import org.apache.fineract.cn.anubis.api.v1.domain.Signature;
+import org.apache.fineract.cn.anubis.config.AnubisProperties;
+import org.apache.fineract.cn.anubis.config.TenantSignatureRepository;
+import org.apache.fineract.cn.anubis.provider.SystemRsaKeyProvider;
+import org.apache.fineract.cn.anubis.provider.TenantRsaKeyProvider;
+import org.apache.fineract.cn.anubis.service.PermittableService;
+import org.apache.fineract.cn.anubis.test.v1.SystemSecurityEnvironment;
+import org.apache.fineract.cn.lang.ApplicationName;
+import org.apache.fineract.cn.lang.AutoTenantContext;
+import org.apache.fineract.cn.lang.security.RsaKeyPairFactory;
+import org.slf4j.Logger;
+import org.slf4j.helpers.NOPLogger;
+import org.springframework.boot.actuate.endpoint.mvc.EndpointHandlerMapping;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.security.PublicKey;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Wires the authentication and authorization beans by hand, with in-memory keys from
+ * {@link SystemSecurityEnvironment}, so that the benchmarks run without Spring Boot or Cassandra.  Keys and tokens
+ * are created for {@link #TENANT}, and the tenant context is cleared afterwards.  Benchmarks which authenticate must
+ * set the tenant context on their own thread.
+ */
+public class BenchmarkEnvironment {
+  public static final String APPLICATION_NAME = "benchmark-v1";
+  public static final String TENANT = "benchmark_tenant";
+  public static final String USER = "benchmark_user";
+
+  @SuppressWarnings("unused")
+  @RestController
+  @RequestMapping("/")
+  public static class BenchmarkRestController {
+    @Permittable(AcceptedTokenType.TENANT)
+    @RequestMapping(value = "/customers", method = RequestMethod.GET)
+    public void getCustomers() { }
+
+    @Permittable(AcceptedTokenType.TENANT)
+    @RequestMapping(value = "/customers", method = RequestMethod.POST)
+    public void createCustomer() { }
+
+    @Permittable(AcceptedTokenType.TENANT)
+    @RequestMapping(value = "/customers/{identifier}", method = {RequestMethod.GET, RequestMethod.PUT})
+    public void customer(@PathVariable("identifier") final String identifier) { }
+
+    @Permittable(value = AcceptedTokenType.TENANT, acceptTokenIntendedForForeignApplication = true)
+    @RequestMapping(value = "/customers/{identifier}/accounts/{accountidentifier}", method = RequestMethod.GET)
+    public void account(@PathVariable("identifier") final String identifier,
+                        @PathVariable("accountidentifier") final String accountIdentifier) { }
+
+    @Permittable(AcceptedTokenType.GUEST)
+    @RequestMapping(value = "/health", method = RequestMethod.GET)
+    public void health() { }
+
+    @Permittable(AcceptedTokenType.SYSTEM)
+    @RequestMapping(value = "/setup", method = RequestMethod.POST)
+    public void setup() { }
+  }
+
+  private final Logger logger = NOPLogger.NOP_LOGGER;
+  private final Gson gson = new GsonBuilder().create();
+  private final ApplicationName applicationName = ApplicationName.fromSpringApplicationName(APPLICATION_NAME);
+  private final RsaKeyPairFactory.KeyPairHolder systemKeyPair = RsaKeyPairFactory.createKeyPair();
+  private final SystemSecurityEnvironment systemSecurityEnvironment = new SystemSecurityEnvironment(
+      systemKeyPair.getTimestamp(), systemKeyPair.publicKey(), systemKeyPair.privateKey());
+  private final PermittableService permittableService;
+  private final SystemAuthenticator systemAuthenticator;
+  private final TenantAuthenticator tenantAuthenticator;
+  private final GuestAuthenticator guestAuthenticator;
+  private final TenantRsaKeyProvider tenantRsaKeyProvider;
+  private final SystemRsaKeyProvider systemRsaKeyProvider;
+
+  public BenchmarkEnvironment() {
+    permittableService = createPermittableService();
+
+    systemRsaKeyProvider = new SystemRsaKeyProvider(
+        systemKeyPair.getTimestamp(),
+        systemKeyPair.getPublicKeyMod().toString(),
+        systemKeyPair.getPublicKeyExp().toString(),
+        logger);
+    systemRsaKeyProvider.init();
+
+    try (final AutoTenantContext ignored = new AutoTenantContext(TENANT)) {
+      tenantRsaKeyProvider = new TenantRsaKeyProvider(new InMemoryTenantSignatureRepository(
+          systemSecurityEnvironment.tenantKeyTimestamp(),
+          new Signature(
+              systemSecurityEnvironment.tenantPublicKey().getModulus(),
+              systemSecurityEnvironment.tenantPublicKey().getPublicExponent())),
+          new AuthenticationCache(new AnubisProperties()),
+          new AnubisProperties());
+    }
+
+    systemAuthenticator = new SystemAuthenticator(systemRsaKeyProvider, permittableService, logger);
+    tenantAuthenticator = new TenantAuthenticator(applicationName, permittableService, gson, new AnubisProperties(), logger);
+    guestAuthenticator = new GuestAuthenticator(permittableService, logger, applicationName);
+  }
+
+  public IsisAuthenticatedAuthenticationProvider authenticationProvider(final int authenticationCacheSize) {
+    final AnubisProperties anubisProperties = new AnubisProperties();
+    anubisProperties.setAuthenticationCacheSize(authenticationCacheSize);
+    return new IsisAuthenticatedAuthenticationProvider(
+        systemRsaKeyProvider,
+        tenantRsaKeyProvider,
+        systemAuthenticator,
+        tenantAuthenticator,
+        guestAuthenticator,
+        new AuthenticationCache(anubisProperties),
+        logger);
+  }
+
+  public String tenantToken() {
+    try (final AutoTenantContext ignored = new AutoTenantContext(TENANT)) {
+      return systemSecurityEnvironment.getPermissionToken(USER, APPLICATION_NAME, "/customers/*", AllowedOperation.READ);
+    }
+  }
+
+  public String systemToken() {
+    try (final AutoTenantContext ignored = new AutoTenantContext(TENANT)) {
+      return systemSecurityEnvironment.systemToken(APPLICATION_NAME);
+    }
+  }
+
+  public String tenantKeyTimestamp() {
+    try (final AutoTenantContext ignored = new AutoTenantContext(TENANT)) {
+      return systemSecurityEnvironment.tenantKeyTimestamp();
+    }
+  }
+
+  public PublicKey tenantPublicKey() {
+    try (final AutoTenantContext ignored = new AutoTenantContext(TENANT)) {
+      return systemSecurityEnvironment.tenantPublicKey();
+    }
+  }
+
+  public RsaKeyPairFactory.KeyPairHolder systemKeyPair() {
+    return systemKeyPair;
+  }
+
+  public Gson gson() {
+    return gson;
+  }
+
+  public Logger logger() {
+    return logger;
+  }
+
+  public ApplicationName applicationName() {
+    return applicationName;
+  }
+
+  public PermittableService permittableService() {
+    return permittableService;
+  }
+
+  SystemAuthenticator systemAuthenticator() {
+    return systemAuthenticator;
+  }
+
+  TenantAuthenticator tenantAuthenticator() {
+    return tenantAuthenticator;
+  }
+
+  private PermittableService createPermittableService() {
+    final StaticApplicationContext applicationContext = new StaticApplicationContext();
+    applicationContext.registerSingleton("benchmarkRestController", BenchmarkRestController.class);
+    applicationContext.refresh();
+
+    final RequestMappingHandlerMapping requestMappingHandlerMapping = new RequestMappingHandlerMapping();
+    requestMappingHandlerMapping.setApplicationContext(applicationContext);
+    requestMappingHandlerMapping.afterPropertiesSet();
+
+    final EndpointHandlerMapping endpointHandlerMapping = new EndpointHandlerMapping(Collections.emptyList());
+
+    return new PermittableService(
+        requestMappingHandlerMapping,
+        endpointHandlerMapping,
+        applicationName,
+        new AnubisProperties(),
+        new ObjectMapper(),
+        logger);
+  }
+
+  private static class InMemoryTenantSignatureRepository implements TenantSignatureRepository {
+    private final String keyTimestamp;
+    private final Signature identityManagerSignature;
+
+    InMemoryTenantSignatureRepository(final String keyTimestamp, final Signature identityManagerSignature) {
+      this.keyTimestamp = keyTimestamp;
+      this.identityManagerSignature = identityManagerSignature;
+    }
+
+    @Override
+    public Optional<Signature> getIdentityManagerSignature(final String timestamp) {
+      return keyTimestamp.equals(timestamp) ? Optional.of(identityManagerSignature) : Optional.empty();
+    }
+
+    @Override
+    public List<String> getAllSignatureSetKeyTimestamps() {
+      return Collections.singletonList(keyTimestamp);
+    }
+
+    @Override
+    public Optional<ApplicationSignatureSet> getSignatureSet(final String timestamp) {
+      return Optional.empty();
+    }
+
+    @Override
+    public Optional<ApplicationSignatureSet> getLatestSignatureSet() {
+      return Optional.empty();
+    }
+
+    @Override
+    public void deleteSignatureSet(final String timestamp) {
+    }
+
+    @Override
+    public Optional<Signature> getApplicationSignature(final String timestamp) {
+      return Optional.empty();
+    }
+
+    @Override
+    public Optional<Signature> getLatestApplicationSignature() {
+      return Optional.empty();
+    }
+
+    @Override
+    public Optional<RsaKeyPairFactory.KeyPairHolder> getLatestApplicationSigningKeyPair() {
+      return Optional.empty();
+    }
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.security;
+
+import com.google.gson.Gson;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+import org.apache.fineract.cn.anubis.api.v1.domain.AccountAccess;
+import org.apache.fineract.cn.anubis.api.v1.domain.AccountAccessTokenContent;
+import org.apache.fineract.cn.anubis.api.v1.domain.AllowedOperation;
+import org.apache.fineract.cn.anubis.api.v1.domain.TokenContent;
+import org.apache.fineract.cn.anubis.api.v1.domain.TokenPermission;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares binding the claims of an already parsed keycloak token to application permissions via
+ * FinKeycloakClaimBinder against the previous path, which deserialized the token permissions into TokenContent and
+ * round tripped the account access claim through gson into AccountAccessTokenContent.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FinKeycloakClaimBinderBenchmark {
+  @Param({"0", "10", "100"})
+  public int accountCount;
+
+  private String applicationName;
+  private Gson gson;
+  private FinKeycloakClaimBinder claimBinder;
+  private Claims claims;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final BenchmarkEnvironment environment = new BenchmarkEnvironment();
+    applicationName = environment.applicationName().toString();
+    gson = new Gson();
+    claimBinder = new FinKeycloakClaimBinder(applicationName);
+
+    final List<TokenPermission> tokenPermissions = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      tokenPermissions.add(new TokenPermission(applicationName + "/customers" + i + "/*",
+          new HashSet<>(Arrays.asList(AllowedOperation.READ, AllowedOperation.CHANGE))));
+      tokenPermissions.add(new TokenPermission("office-v1/offices" + i + "/*", AllowedOperation.ALL));
+    }
+
+    final List<Map<String, Object>> accounts = new ArrayList<>();
+    for (int i = 0; i < accountCount; i++) {
+      final Map<String, Object> account = new HashMap<>();
+      account.put("number", "0815-" + i);
+      account.put("access", Arrays.asList("VIEW", "TRANSFER"));
+      accounts.add(account);
+    }
+
+    claims = new DefaultClaims();
+    claims.put(FinKeycloakClaimBinder.TOKEN_PERMISSIONS_CLAIM, gson.toJson(new TokenContent(tokenPermissions)));
+    if (accountCount > 0)
+      claims.put(FinKeycloakClaimBinder.ACCOUNT_ACCESS_CLAIM, Collections.singletonMap("accounts", accounts));
+  }
+
+  @Benchmark
+  public Set<ApplicationPermission> bindClaims() {
+    return claimBinder.bind(claims);
+  }
+
+  @Benchmark
+  public Set<ApplicationPermission> gsonRoundTrip() {
+    final TokenContent tokenContent
+        = gson.fromJson(claims.get(FinKeycloakClaimBinder.TOKEN_PERMISSIONS_CLAIM, String.class), TokenContent.class);
+    final Set<ApplicationPermission> permissions = tokenContent.getTokenPermissions().stream()
+        .filter(x -> x.getPath().startsWith(applicationName))
+        .flatMap(this::getAppPermissionFromTokenPermission)
+        .collect(Collectors.toSet());
+
+    if (claims.get(FinKeycloakClaimBinder.ACCOUNT_ACCESS_CLAIM) != null) {
+      final Map map = claims.get(FinKeycloakClaimBinder.ACCOUNT_ACCESS_CLAIM, Map.class);
+      final AccountAccessTokenContent accountAccess
+          = gson.fromJson(gson.toJson(map), AccountAccessTokenContent.class);
+      accountAccess.getAccounts().stream()
+          .flatMap(this::getAppPermissionFromAcctPermission)
+          .forEach(permissions::add);
+    }
+    return permissions;
+  }
+
+  private Stream<ApplicationPermission> getAppPermissionFromTokenPermission(final TokenPermission tokenPermission) {
+    final String servletPath = tokenPermission.getPath().substring(applicationName.length());
+    return tokenPermission.getAllowedOperations().stream().map(x -> new ApplicationPermission(servletPath, x, false));
+  }
+
+  private Stream<ApplicationPermission> getAppPermissionFromAcctPermission(final AccountAccess accountAccess) {
+    final String servletPath = FinKeycloakClaimBinder.ACCOUNT_PERMISSION_PREFIX + accountAccess.getNumber();
+    return accountAccess.getAccess().stream().map(x -> new ApplicationPermission(servletPath, x, false));
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.security;
+
+import org.apache.fineract.cn.anubis.api.v1.domain.AllowedOperation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.web.FilterInvocation;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures UrlPermissionChecker.vote for authentications holding an increasing number of permissions.  The request
+ * matches only the last permission created.
+ *
+ * With the default configuration, anubis.authenticationCacheSize is 0, so every request gets a fresh authentication,
+ * but the authenticators hand it a permission set which is shared with earlier requests for the same token content.
+ * That is what voteGrantedWithFreshAuthentication measures.  voteGrantedWithFreshPermissionSet measures a set which
+ * is compiled for a single request, and voteGrantedByLinearScan matching each permission in turn, for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class UrlPermissionCheckerBenchmark {
+  @Param({"1", "10", "100", "1000"})
+  public int permissionCount;
+
+  private UrlPermissionChecker urlPermissionChecker;
+  private Set<ApplicationPermission> permissionList;
+  private ApplicationPermissionSet permissions;
+  private AnubisAuthentication authentication;
+  private FilterInvocation grantedRequest;
+  private FilterInvocation deniedRequest;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final BenchmarkEnvironment environment = new BenchmarkEnvironment();
+    urlPermissionChecker = new UrlPermissionChecker(environment.logger(), environment.applicationName());
+
+    permissionList = new HashSet<>();
+    for (int i = 0; i < permissionCount; i++) {
+      permissionList.add(new ApplicationPermission(
+          "/customers" + i + "/{useridentifier}/accounts/*", AllowedOperation.READ, false));
+    }
+    permissions = ApplicationPermissionSet.of(permissionList);
+    authentication = authentication(permissions);
+
+    grantedRequest = new FilterInvocation(
+        "/customers" + (permissionCount - 1) + "/" + BenchmarkEnvironment.USER + "/accounts/0815/entries", "GET");
+    deniedRequest = new FilterInvocation(
+        "/customers" + (permissionCount - 1) + "/someoneelse/accounts/0815/entries", "GET");
+  }
+
+  private AnubisAuthentication authentication(final Set<ApplicationPermission> permissions) {
+    return new AnubisAuthentication(
+        "token",
+        BenchmarkEnvironment.USER,
+        BenchmarkEnvironment.APPLICATION_NAME,
+        "identity-v1",
+        permissions);
+  }
+
+  @Benchmark
+  public int voteGranted() {
+    return urlPermissionChecker.vote(authentication, grantedRequest, Collections.emptyList());
+  }
+
+  @Benchmark
+  public int voteDenied() {
+    return urlPermissionChecker.vote(authentication, deniedRequest, Collections.emptyList());
+  }
+
+  @Benchmark
+  public int voteGrantedWithFreshAuthentication() {
+    return urlPermissionChecker.vote(authentication(permissions), grantedRequest, Collections.emptyList());
+  }
+
+  @Benchmark
+  public int voteGrantedWithFreshPermissionSet() {
+    return urlPermissionChecker.vote(authentication(permissionList), grantedRequest, Collections.emptyList());
+  }
+
+  @Benchmark
+  public boolean voteGrantedByLinearScan() {
+    final AnubisPrincipal principal = authentication.getPrincipal();
+    final String servletPath = grantedRequest.getRequest().getServletPath();
+    for (final ApplicationPermission permission : permissionList) {
+      if (permission.matches(servletPath, "GET", BenchmarkEnvironment.APPLICATION_NAME, principal))
+        return true;
+    }
+    return false;
+  }
+}
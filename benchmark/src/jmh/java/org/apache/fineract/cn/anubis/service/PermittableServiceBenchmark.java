@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.service;
+
+import org.apache.fineract.cn.anubis.annotation.AcceptedTokenType;
+import org.apache.fineract.cn.anubis.api.v1.domain.PermittableEndpoint;
+import org.apache.fineract.cn.anubis.security.ApplicationPermission;
+import org.apache.fineract.cn.anubis.security.BenchmarkEnvironment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading the permittable endpoints out of the registry, as done for the /permittables endpoint and when the
+ * authenticators are constructed, and rebuilding the registry from the handler mappings on context refresh.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PermittableServiceBenchmark {
+  private PermittableService permittableService;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    permittableService = new BenchmarkEnvironment().permittableService();
+  }
+
+  @Benchmark
+  public Set<PermittableEndpoint> getPermittableEndpoints() {
+    return permittableService.getPermittableEndpoints(Collections.singleton(AcceptedTokenType.TENANT));
+  }
+
+  @Benchmark
+  public Set<ApplicationPermission> getPermittableEndpointsAsPermissions() {
+    return permittableService.getPermittableEndpointsAsPermissions(AcceptedTokenType.SYSTEM);
+  }
+
+  @Benchmark
+  public String getTenantPermittableEndpointsJson() {
+    return permittableService.getTenantPermittableEndpointsJson();
+  }
+
+  @Benchmark
+  public String rebuildRegistry() {
+    permittableService.onApplicationEvent(null);
+    return permittableService.getTenantPermittableEndpointsETag();
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.token;
+
+import com.google.gson.Gson;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.apache.fineract.cn.anubis.api.v1.RoleConstants;
+import org.apache.fineract.cn.anubis.api.v1.TokenConstants;
+import org.apache.fineract.cn.anubis.api.v1.domain.AllowedOperation;
+import org.apache.fineract.cn.anubis.api.v1.domain.TokenContent;
+import org.apache.fineract.cn.anubis.api.v1.domain.TokenPermission;
+import org.apache.fineract.cn.anubis.security.BenchmarkEnvironment;
+import org.apache.fineract.cn.lang.security.RsaKeyPairFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.PublicKey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building and signing tokens with the three token serializers.  Tenant access tokens are built with an
+ * increasing number of permissions, since their content is serialized into the token.  Tenant access tokens are
+ * also parsed and their content decoded, with the content serialized as a string and as a compact nested claim.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TokenSerializerBenchmark {
+  @Param({"1", "100"})
+  public int permissionCount;
+
+  private TenantAccessTokenSerializer tenantAccessTokenSerializer;
+  private TenantRefreshTokenSerializer tenantRefreshTokenSerializer;
+  private SystemAccessTokenSerializer systemAccessTokenSerializer;
+  private TenantAccessTokenSerializer.Specification tenantAccessTokenSpecification;
+  private TenantAccessTokenSerializer.Specification compactTenantAccessTokenSpecification;
+  private TenantRefreshTokenSerializer.Specification tenantRefreshTokenSpecification;
+  private SystemAccessTokenSerializer.Specification systemAccessTokenSpecification;
+  private Gson gson;
+  private PublicKey publicKey;
+  private String tenantAccessToken;
+  private String compactTenantAccessToken;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    final BenchmarkEnvironment environment = new BenchmarkEnvironment();
+    final RsaKeyPairFactory.KeyPairHolder keyPair = environment.systemKeyPair();
+
+    gson = environment.gson();
+    publicKey = keyPair.publicKey();
+    tenantAccessTokenSerializer = new TenantAccessTokenSerializer(gson);
+    tenantRefreshTokenSerializer = new TenantRefreshTokenSerializer();
+    systemAccessTokenSerializer = new SystemAccessTokenSerializer();
+
+    final List<TokenPermission> tokenPermissions = new ArrayList<>();
+    for (int i = 0; i < permissionCount; i++) {
+      tokenPermissions.add(new TokenPermission(
+          BenchmarkEnvironment.APPLICATION_NAME + "/customers" + i + "/*", AllowedOperation.ALL));
+    }
+
+    tenantAccessTokenSpecification = new TenantAccessTokenSerializer.Specification()
+        .setKeyTimestamp(keyPair.getTimestamp())
+        .setPrivateKey(keyPair.privateKey())
+        .setUser(BenchmarkEnvironment.USER)
+        .setSourceApplication("identity-v1")
+        .setTokenContent(new TokenContent(tokenPermissions))
+        .setSecondsToLive(TimeUnit.MINUTES.toSeconds(5));
+
+    compactTenantAccessTokenSpecification = new TenantAccessTokenSerializer.Specification()
+        .setKeyTimestamp(keyPair.getTimestamp())
+        .setPrivateKey(keyPair.privateKey())
+        .setUser(BenchmarkEnvironment.USER)
+        .setSourceApplication("identity-v1")
+        .setTokenContent(new TokenContent(tokenPermissions))
+        .setSecondsToLive(TimeUnit.MINUTES.toSeconds(5))
+        .setCompactTokenContent(true);
+
+    tenantRefreshTokenSpecification = new TenantRefreshTokenSerializer.Specification()
+        .setKeyTimestamp(keyPair.getTimestamp())
+        .setPrivateKey(keyPair.privateKey())
+        .setUser(BenchmarkEnvironment.USER)
+        .setSourceApplication("identity-v1")
+        .setSecondsToLive(TimeUnit.HOURS.toSeconds(1));
+
+    systemAccessTokenSpecification = new SystemAccessTokenSerializer.Specification()
+        .setKeyTimestamp(keyPair.getTimestamp())
+        .setPrivateKey(keyPair.privateKey())
+        .setTenant(BenchmarkEnvironment.TENANT)
+        .setRole(RoleConstants.SYSTEM_ADMIN_ROLE_IDENTIFIER)
+        .setTargetApplicationName(BenchmarkEnvironment.APPLICATION_NAME)
+        .setSecondsToLive(TimeUnit.MINUTES.toSeconds(5));
+
+    tenantAccessToken = tenantAccessTokenSerializer.build(tenantAccessTokenSpecification)
+        .getToken().substring(TokenConstants.PREFIX.length());
+    compactTenantAccessToken = tenantAccessTokenSerializer.build(compactTenantAccessTokenSpecification)
+        .getToken().substring(TokenConstants.PREFIX.length());
+  }
+
+  @Benchmark
+  public TokenSerializationResult buildTenantAccessToken() {
+    return tenantAccessTokenSerializer.build(tenantAccessTokenSpecification);
+  }
+
+  @Benchmark
+  public TokenSerializationResult buildCompactTenantAccessToken() {
+    return tenantAccessTokenSerializer.build(compactTenantAccessTokenSpecification);
+  }
+
+  @Benchmark
+  public List<TokenPermission> parseTenantAccessToken() {
+    final Claims claims = Jwts.parser().setSigningKey(publicKey).parseClaimsJws(tenantAccessToken).getBody();
+    return gson.fromJson(claims.get(TokenConstants.JWT_CONTENT_CLAIM, String.class), TokenContent.class)
+        .getTokenPermissions();
+  }
+
+  @Benchmark
+  public List<TokenPermission> parseCompactTenantAccessToken() {
+    final Claims claims = Jwts.parser().setSigningKey(publicKey).parseClaimsJws(compactTenantAccessToken).getBody();
+    return TokenContentCodec.decodeApplicationContent(TokenContentCodec.getApplicationContent(
+        claims.get(TokenConstants.JWT_COMPACT_CONTENT_CLAIM), BenchmarkEnvironment.APPLICATION_NAME));
+  }
+
+  @Benchmark
+  public TokenSerializationResult buildTenantRefreshToken() {
+    return tenantRefreshTokenSerializer.build(tenantRefreshTokenSpecification);
+  }
+
+  @Benchmark
+  public TokenSerializationResult buildSystemAccessToken() {
+    return systemAccessTokenSerializer.build(systemAccessTokenSpecification);
+  }
+}
@@ -21,12 +21,17 @@ package org.apache.fineract.cn.anubis;
 import org.apache.fineract.cn.anubis.api.v1.client.Anubis;
 import org.apache.fineract.cn.anubis.api.v1.domain.ApplicationSignatureSet;
 import org.apache.fineract.cn.anubis.api.v1.domain.Signature;
+import org.apache.fineract.cn.anubis.api.v1.domain.SignatureSetBatch;
+import org.apache.fineract.cn.anubis.api.v1.domain.SignatureSetRequest;
+import org.apache.fineract.cn.anubis.api.v1.domain.SignatureSetResult;
 import org.apache.fineract.cn.api.context.AutoSeshat;
 import org.apache.fineract.cn.api.util.NotFoundException;
 import org.apache.fineract.cn.lang.security.RsaKeyPairFactory;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -79,11 +84,19 @@ public class TestAnubisKeyRotation extends AbstractSimpleTest {
       final ApplicationSignatureSet signatureSet2 = anubis.getSignatureSet(identityManagerKeyPair2.getTimestamp());
       Assert.assertEquals(identityManagerSignature2, signatureSet2.getIdentityManagerSignature());
 
+      //Get all signature sets at once, and test that they match the ones fetched individually.
+      {
+        final List<ApplicationSignatureSet> allSignatureSets = anubis.getAllApplicationSignatureSets();
+        Assert.assertTrue(allSignatureSets.contains(signatureSet));
+        Assert.assertTrue(allSignatureSets.contains(signatureSet2));
+      }
+
       //Delete one of the signature sets and test that it is no longer listed.
       anubis.deleteSignatureSet(identityManagerKeyPair.getTimestamp());
       {
         final List<String> signatureSets = anubis.getAllSignatureSets();
         Assert.assertFalse(signatureSets.contains(identityManagerKeyPair.getTimestamp()));
+        Assert.assertFalse(anubis.getAllApplicationSignatureSets().contains(signatureSet));
       }
 
       //Getting the newly deleted signature set should fail.
@@ -101,4 +114,52 @@ public class TestAnubisKeyRotation extends AbstractSimpleTest {
       }
     }
   }
+
+  @Test
+  public void testBatchSignatureSetCreation()
+  {
+    final Anubis anubis = tenantApplicationSecurityEnvironment.getAnubis();
+
+    final String systemToken = tenantApplicationSecurityEnvironment.getSystemSecurityEnvironment().systemToken(APP_NAME);
+
+    try (final AutoSeshat ignored1 = new AutoSeshat(systemToken)) {
+      final RsaKeyPairFactory.KeyPairHolder identityManagerKeyPair = RsaKeyPairFactory.createKeyPair();
+      final Signature identityManagerSignature = new Signature(identityManagerKeyPair.getPublicKeyMod(), identityManagerKeyPair.getPublicKeyExp());
+
+      final List<SignatureSetResult> results = anubis.createSignatureSets(new SignatureSetBatch(Collections.singletonList(
+          new SignatureSetRequest(identityManagerKeyPair.getTimestamp(), identityManagerSignature))));
+      Assert.assertEquals(1, results.size());
+
+      //The signature set can be read back like one created individually.
+      Assert.assertNotNull(results.get(0).getApplicationSignature());
+      Assert.assertNull(results.get(0).getErrorMessage());
+      final ApplicationSignatureSet signatureSet = anubis.getSignatureSet(identityManagerKeyPair.getTimestamp());
+      Assert.assertEquals(identityManagerSignature, signatureSet.getIdentityManagerSignature());
+      Assert.assertEquals(results.get(0).getApplicationSignature(), signatureSet.getApplicationSignature());
+
+      //Creating the same signature set again returns the existing application signature.
+      final List<SignatureSetResult> repeatedResults = anubis.createSignatureSets(new SignatureSetBatch(Collections.singletonList(
+          new SignatureSetRequest(identityManagerKeyPair.getTimestamp(), identityManagerSignature))));
+      Assert.assertEquals(results.get(0), repeatedResults.get(0));
+
+      anubis.deleteSignatureSet(identityManagerKeyPair.getTimestamp());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBatchSignatureSetCreationValidatesEachSignatureSet()
+  {
+    final Anubis anubis = tenantApplicationSecurityEnvironment.getAnubis();
+
+    final String systemToken = tenantApplicationSecurityEnvironment.getSystemSecurityEnvironment().systemToken(APP_NAME);
+
+    try (final AutoSeshat ignored1 = new AutoSeshat(systemToken)) {
+      final RsaKeyPairFactory.KeyPairHolder identityManagerKeyPair = RsaKeyPairFactory.createKeyPair();
+      final Signature identityManagerSignature = new Signature(identityManagerKeyPair.getPublicKeyMod(), identityManagerKeyPair.getPublicKeyExp());
+
+      anubis.createSignatureSets(new SignatureSetBatch(Arrays.asList(
+          new SignatureSetRequest(identityManagerKeyPair.getTimestamp(), identityManagerSignature),
+          new SignatureSetRequest("not a timestamp", identityManagerSignature))));
+    }
+  }
 }
@@ -20,6 +20,7 @@ package org.apache.fineract.cn.anubis;
 
 import org.apache.fineract.cn.anubis.api.v1.client.Anubis;
 import org.apache.fineract.cn.anubis.api.v1.client.AnubisApiFactory;
+import org.apache.fineract.cn.anubis.api.v1.client.ConditionalAnubis;
 import org.apache.fineract.cn.anubis.api.v1.domain.PermittableEndpoint;
 import org.junit.Assert;
 import org.junit.Test;
@@ -45,4 +46,13 @@ public class TestPermittableEndpoints extends AbstractNoInitializeTest {
         new PermittableEndpoint("anubis-v1/parameterized/{useridentifier}/with/*/parameters", "GET", "endpointGroupWithParameters"))));
     Assert.assertFalse(permittableEndpoints.contains(new PermittableEndpoint("anubis-v1/systemendpoint", "POST")));
   }
+
+  @Test
+  public void shouldRevalidatePermittableEndpoints() throws Exception {
+    final Anubis anubis = AnubisApiFactory.create(TestPermittableEndpoints.testEnvironment.serverURI(), logger);
+    final ConditionalAnubis conditionalAnubis = new ConditionalAnubis(anubis, logger);
+    final List<PermittableEndpoint> permittableEndpoints = conditionalAnubis.getPermittableEndpoints();
+    Assert.assertEquals(anubis.getPermittableEndpoints(), permittableEndpoints);
+    Assert.assertSame(permittableEndpoints, conditionalAnubis.getPermittableEndpoints());
+  }
 }
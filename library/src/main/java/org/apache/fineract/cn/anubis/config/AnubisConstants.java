@@ -27,4 +27,6 @@ public interface AnubisConstants {
   String PUBLIC_KEY_TIMESTAMP_PROPERTY = "system.publicKey.timestamp";
   String PUBLIC_KEY_MOD_PROPERTY = "system.publicKey.modulus";
   String PUBLIC_KEY_EXP_PROPERTY = "system.publicKey.exponent";
+  String KEYCLOAK_REALM_PUBLIC_KEY_PROPERTY = "fin.keycloak.realm.publicKey";
+  String KEYCLOAK_REALM_JWKS_FILE_PROPERTY = "fin.keycloak.realm.jwksFile";
 }
@@ -25,6 +25,7 @@ import org.apache.fineract.cn.anubis.controller.SignatureRestController;
 import org.apache.fineract.cn.anubis.provider.FinKeycloakRsaKeyProvider;
 import org.apache.fineract.cn.anubis.provider.SystemRsaKeyProvider;
 import org.apache.fineract.cn.anubis.provider.TenantRsaKeyProvider;
+import org.apache.fineract.cn.anubis.repository.ApplicationKeyPairPool;
 import org.apache.fineract.cn.anubis.repository.TenantAuthorizationDataRepository;
 import org.apache.fineract.cn.anubis.security.*;
 import org.apache.fineract.cn.anubis.service.PermittableService;
@@ -57,6 +58,7 @@ class AnubisImportSelector implements ImportSelector {
     classesToImport.add(TenantAuthenticator.class);
     classesToImport.add(SystemAuthenticator.class);
     classesToImport.add(GuestAuthenticator.class);
+    classesToImport.add(AuthenticationCache.class);
 
     classesToImport.add(PermittableRestController.class);
     classesToImport.add(PermittableService.class);
@@ -82,8 +84,10 @@ class AnubisImportSelector implements ImportSelector {
         classesToImport.add(SignatureCreatorRestController.class);
     }
 
-    if (provideSignatureStorage)
+    if (provideSignatureStorage) {
       classesToImport.add(TenantAuthorizationDataRepository.class);
+      classesToImport.add(ApplicationKeyPairPool.class);
+    }
 
     if (generateEmptyInitializeEndpoint)
       classesToImport.add(EmptyInitializeResourcesRestController.class);
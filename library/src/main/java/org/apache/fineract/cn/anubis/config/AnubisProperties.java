@@ -29,6 +29,11 @@ import org.springframework.validation.annotation.Validated;
 @Validated
 public class AnubisProperties {
   private Boolean acceptGuestTokensForSystemEndpoints = false;
+  private Integer authenticationCacheSize = 0;
+  private Integer permissionSetCacheSize = 1000;
+  private Integer applicationKeyPairPoolSize = 0;
+  private Integer publicKeyCacheSize = 1000;
+  private Integer publicKeyCacheExpirySeconds = 30;
 
   public Boolean getAcceptGuestTokensForSystemEndpoints() {
     return acceptGuestTokensForSystemEndpoints;
@@ -37,4 +42,44 @@ public class AnubisProperties {
   public void setAcceptGuestTokensForSystemEndpoints(Boolean acceptGuestTokensForSystemEndpoints) {
     this.acceptGuestTokensForSystemEndpoints = acceptGuestTokensForSystemEndpoints;
   }
+
+  public Integer getAuthenticationCacheSize() {
+    return authenticationCacheSize;
+  }
+
+  public void setAuthenticationCacheSize(Integer authenticationCacheSize) {
+    this.authenticationCacheSize = authenticationCacheSize;
+  }
+
+  public Integer getPermissionSetCacheSize() {
+    return permissionSetCacheSize;
+  }
+
+  public void setPermissionSetCacheSize(Integer permissionSetCacheSize) {
+    this.permissionSetCacheSize = permissionSetCacheSize;
+  }
+
+  public Integer getApplicationKeyPairPoolSize() {
+    return applicationKeyPairPoolSize;
+  }
+
+  public void setApplicationKeyPairPoolSize(Integer applicationKeyPairPoolSize) {
+    this.applicationKeyPairPoolSize = applicationKeyPairPoolSize;
+  }
+
+  public Integer getPublicKeyCacheSize() {
+    return publicKeyCacheSize;
+  }
+
+  public void setPublicKeyCacheSize(Integer publicKeyCacheSize) {
+    this.publicKeyCacheSize = publicKeyCacheSize;
+  }
+
+  public Integer getPublicKeyCacheExpirySeconds() {
+    return publicKeyCacheExpirySeconds;
+  }
+
+  public void setPublicKeyCacheExpirySeconds(Integer publicKeyCacheExpirySeconds) {
+    this.publicKeyCacheExpirySeconds = publicKeyCacheExpirySeconds;
+  }
 }
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.config;
+
+import org.apache.fineract.cn.anubis.api.v1.domain.ApplicationSignatureSet;
+import org.apache.fineract.cn.anubis.api.v1.domain.Signature;
+import org.apache.fineract.cn.lang.security.RsaKeyPairFactory;
+
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Non-blocking companion to {@link TenantSignatureRepository} for the lookups made while authenticating requests.
+ * The tenant is taken from the calling thread when the method is called, so the returned stages may be completed
+ * on any thread.  Failures, including a missing or uninitialized tenant, complete the stage exceptionally rather than
+ * being thrown.
+ */
+public interface AsyncTenantSignatureRepository {
+  /**
+   *
+   * @param timestamp The timestamp of the signature to get.
+   * @return The public keys that the identity service uses for signing tokens.  Completes exceptionally with an
+   * IllegalArgumentException if the tenant context is not set.
+   */
+  CompletionStage<Optional<Signature>> getIdentityManagerSignatureAsync(String timestamp);
+
+  CompletionStage<Optional<Signature>> getApplicationSignatureAsync(String timestamp);
+
+  CompletionStage<Optional<ApplicationSignatureSet>> getLatestSignatureSetAsync();
+
+  CompletionStage<Optional<RsaKeyPairFactory.KeyPairHolder>> getLatestApplicationSigningKeyPairAsync();
+}
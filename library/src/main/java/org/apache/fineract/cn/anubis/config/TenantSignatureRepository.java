@@ -24,6 +24,7 @@ import org.apache.fineract.cn.anubis.api.v1.domain.Signature;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.apache.fineract.cn.lang.security.RsaKeyPairFactory;
 
 public interface TenantSignatureRepository {
@@ -37,6 +38,18 @@ public interface TenantSignatureRepository {
 
   List<String> getAllSignatureSetKeyTimestamps();
 
+  /**
+   * @return All valid signature sets of the tenant.  The default implementation reads them one at a time, so
+   * implementations backed by a store which can return them together should override it.
+   */
+  default List<ApplicationSignatureSet> getAllSignatureSets() {
+    return getAllSignatureSetKeyTimestamps().stream()
+        .map(this::getSignatureSet)
+        .filter(Optional::isPresent)
+        .map(Optional::get)
+        .collect(Collectors.toList());
+  }
+
   Optional<ApplicationSignatureSet> getSignatureSet(String timestamp);
 
   Optional<ApplicationSignatureSet> getLatestSignatureSet();
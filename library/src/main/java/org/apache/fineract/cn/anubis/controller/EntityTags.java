@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.controller;
+
+import org.apache.fineract.cn.anubis.api.v1.domain.ApplicationSignatureSet;
+import org.apache.fineract.cn.anubis.api.v1.domain.Signature;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * Strong entity tags for the signature resources, derived from a digest of the representation returned.  The key
+ * material stored under a timestamp can be replaced, so the timestamp alone does not identify the representation.
+ */
+final class EntityTags {
+  private EntityTags() {
+  }
+
+  static String ofTimestamps(final Collection<String> keyTimestamps) {
+    final MessageDigest digest = sha256();
+    keyTimestamps.stream().sorted().forEachOrdered(x -> update(digest, x));
+    return format(digest);
+  }
+
+  static String ofSignatureSet(final ApplicationSignatureSet signatureSet) {
+    final MessageDigest digest = sha256();
+    update(digest, signatureSet);
+    return format(digest);
+  }
+
+  static String ofSignatureSets(final Collection<ApplicationSignatureSet> signatureSets) {
+    final MessageDigest digest = sha256();
+    signatureSets.stream()
+        .sorted(Comparator.comparing(ApplicationSignatureSet::getTimestamp))
+        .forEachOrdered(x -> update(digest, x));
+    return format(digest);
+  }
+
+  static String ofSignature(final String keyTimestamp, final Signature signature) {
+    final MessageDigest digest = sha256();
+    update(digest, keyTimestamp);
+    update(digest, signature);
+    return format(digest);
+  }
+
+  private static void update(final MessageDigest digest, final ApplicationSignatureSet signatureSet) {
+    update(digest, signatureSet.getTimestamp());
+    update(digest, signatureSet.getIdentityManagerSignature());
+    update(digest, signatureSet.getApplicationSignature());
+  }
+
+  private static void update(final MessageDigest digest, final Signature signature) {
+    if (signature == null) {
+      update(digest, (String) null);
+      return;
+    }
+    update(digest, signature.getPublicKeyMod());
+    update(digest, signature.getPublicKeyExp());
+  }
+
+  private static void update(final MessageDigest digest, final BigInteger value) {
+    update(digest, value == null ? null : value.toString(16));
+  }
+
+  private static void update(final MessageDigest digest, final String value) {
+    if (value != null)
+      digest.update(value.getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+  }
+
+  private static String format(final MessageDigest digest) {
+    return "\"" + Base64.getEncoder().encodeToString(digest.digest()) + "\"";
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    }
+    catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available.", e);
+    }
+  }
+}
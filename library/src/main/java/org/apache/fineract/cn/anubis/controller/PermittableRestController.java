@@ -20,7 +20,6 @@ package org.apache.fineract.cn.anubis.controller;
 
 import org.apache.fineract.cn.anubis.annotation.AcceptedTokenType;
 import org.apache.fineract.cn.anubis.annotation.Permittable;
-import org.apache.fineract.cn.anubis.api.v1.domain.PermittableEndpoint;
 import org.apache.fineract.cn.anubis.service.PermittableService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
@@ -30,8 +29,6 @@ import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.*;
-
 @RestController
 @RequestMapping("/permittables")
 public class PermittableRestController {
@@ -51,10 +48,10 @@ public class PermittableRestController {
   )
   public
   @ResponseBody
-  ResponseEntity<List<PermittableEndpoint>> fetchPermittableEndpoints() {
-    final Set<PermittableEndpoint> permittableEndpoints = service.getPermittableEndpoints(
-        Collections.singletonList(AcceptedTokenType.TENANT));
-
-    return ResponseEntity.ok(new ArrayList<>(permittableEndpoints));
+  ResponseEntity<String> fetchPermittableEndpoints() {
+    return ResponseEntity.ok()
+        .eTag(service.getTenantPermittableEndpointsETag())
+        .contentType(MediaType.APPLICATION_JSON_UTF8)
+        .body(service.getTenantPermittableEndpointsJson());
   }
 }
@@ -18,12 +18,16 @@
  */
 package org.apache.fineract.cn.anubis.controller;
 
+import java.util.List;
 import javax.validation.Valid;
 import org.apache.fineract.cn.anubis.annotation.AcceptedTokenType;
 import org.apache.fineract.cn.anubis.annotation.Permittable;
 import org.apache.fineract.cn.anubis.api.v1.domain.ApplicationSignatureSet;
 import org.apache.fineract.cn.anubis.api.v1.domain.Signature;
+import org.apache.fineract.cn.anubis.api.v1.domain.SignatureSetBatch;
+import org.apache.fineract.cn.anubis.api.v1.domain.SignatureSetResult;
 import org.apache.fineract.cn.anubis.api.v1.validation.ValidKeyTimestamp;
+import org.apache.fineract.cn.anubis.provider.TenantRsaKeyProvider;
 import org.apache.fineract.cn.anubis.repository.TenantAuthorizationDataRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
@@ -43,10 +47,13 @@ import org.springframework.web.bind.annotation.RestController;
 public class SignatureCreatorRestController {
 
   private final TenantAuthorizationDataRepository tenantAuthorizationDataRepository;
+  private final TenantRsaKeyProvider tenantRsaKeyProvider;
 
   @Autowired
-  public SignatureCreatorRestController(final TenantAuthorizationDataRepository tenantAuthorizationDataRepository) {
+  public SignatureCreatorRestController(final TenantAuthorizationDataRepository tenantAuthorizationDataRepository,
+                                        final TenantRsaKeyProvider tenantRsaKeyProvider) {
     this.tenantAuthorizationDataRepository = tenantAuthorizationDataRepository;
+    this.tenantRsaKeyProvider = tenantRsaKeyProvider;
   }
 
   @Permittable(AcceptedTokenType.SYSTEM)
@@ -60,10 +67,35 @@ public class SignatureCreatorRestController {
   ResponseEntity<ApplicationSignatureSet> createSignatureSet(
           @PathVariable("timestamp") @ValidKeyTimestamp final String timestamp,
           @RequestBody @Valid final Signature identityManagerSignature) {
+    final Signature applicationSignature
+            = tenantAuthorizationDataRepository.createSignatureSet(timestamp, identityManagerSignature);
+    tenantRsaKeyProvider.invalidatePublicKey(timestamp);
     return ResponseEntity.ok(
             new ApplicationSignatureSet(
                     timestamp,
-                    tenantAuthorizationDataRepository.createSignatureSet(timestamp, identityManagerSignature),
+                    applicationSignature,
                     identityManagerSignature));
   }
+
+  /**
+   * Creates several signature sets for the tenant of the request in one call, generating their application key pairs
+   * in parallel.  The results report the outcome for each signature set separately.
+   */
+  @Permittable(AcceptedTokenType.SYSTEM)
+  @RequestMapping(
+          value = "/signatures",
+          method = RequestMethod.POST,
+          consumes = {MediaType.ALL_VALUE},
+          produces = {MediaType.APPLICATION_JSON_VALUE})
+  public
+  @ResponseBody
+  ResponseEntity<List<SignatureSetResult>> createSignatureSets(
+          @RequestBody @Valid final SignatureSetBatch signatureSetBatch) {
+    final List<SignatureSetResult> results
+            = tenantAuthorizationDataRepository.createSignatureSets(signatureSetBatch.getSignatureSets());
+    results.stream()
+            .filter(x -> x.getApplicationSignature() != null)
+            .forEach(x -> tenantRsaKeyProvider.invalidatePublicKey(x.getTimestamp()));
+    return ResponseEntity.ok(results);
+  }
 }
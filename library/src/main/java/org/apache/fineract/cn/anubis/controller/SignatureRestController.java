@@ -23,6 +23,7 @@ import org.apache.fineract.cn.anubis.annotation.Permittable;
 import org.apache.fineract.cn.anubis.api.v1.domain.ApplicationSignatureSet;
 import org.apache.fineract.cn.anubis.api.v1.domain.Signature;
 import org.apache.fineract.cn.anubis.config.TenantSignatureRepository;
+import org.apache.fineract.cn.anubis.provider.TenantRsaKeyProvider;
 import org.apache.fineract.cn.lang.ServiceException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
@@ -38,10 +39,13 @@ import java.util.List;
 @RequestMapping()
 public class SignatureRestController {
   final private TenantSignatureRepository tenantSignatureRepository;
+  final private TenantRsaKeyProvider tenantRsaKeyProvider;
 
   @Autowired
-  public SignatureRestController(final TenantSignatureRepository tenantSignatureRepository) {
+  public SignatureRestController(final TenantSignatureRepository tenantSignatureRepository,
+                                 final TenantRsaKeyProvider tenantRsaKeyProvider) {
     this.tenantSignatureRepository = tenantSignatureRepository;
+    this.tenantRsaKeyProvider = tenantRsaKeyProvider;
   }
 
   @Permittable(AcceptedTokenType.SYSTEM)
@@ -52,7 +56,20 @@ public class SignatureRestController {
           produces = {MediaType.APPLICATION_JSON_VALUE})
   public
   @ResponseBody ResponseEntity<List<String>> getAllSignatureSets() {
-    return ResponseEntity.ok(tenantSignatureRepository.getAllSignatureSetKeyTimestamps());
+    final List<String> timestamps = tenantSignatureRepository.getAllSignatureSetKeyTimestamps();
+    return ResponseEntity.ok().eTag(EntityTags.ofTimestamps(timestamps)).body(timestamps);
+  }
+
+  @Permittable(AcceptedTokenType.SYSTEM)
+  @RequestMapping(
+          value = "/signatures/_all",
+          method = RequestMethod.GET,
+          consumes = {MediaType.ALL_VALUE},
+          produces = {MediaType.APPLICATION_JSON_VALUE})
+  public
+  @ResponseBody ResponseEntity<List<ApplicationSignatureSet>> getAllApplicationSignatureSets() {
+    final List<ApplicationSignatureSet> signatureSets = tenantSignatureRepository.getAllSignatureSets();
+    return ResponseEntity.ok().eTag(EntityTags.ofSignatureSets(signatureSets)).body(signatureSets);
   }
 
   @Permittable(AcceptedTokenType.SYSTEM)
@@ -63,7 +80,7 @@ public class SignatureRestController {
   @ResponseBody ResponseEntity<ApplicationSignatureSet> getSignatureSet(@PathVariable("timestamp") final String timestamp)
   {
     return tenantSignatureRepository.getSignatureSet(timestamp)
-            .map(ResponseEntity::ok)
+            .map(x -> ResponseEntity.ok().eTag(EntityTags.ofSignatureSet(x)).body(x))
             .orElseThrow(() -> ServiceException.notFound("Signature for timestamp '" + timestamp + "' not found."));
   }
 
@@ -75,7 +92,7 @@ public class SignatureRestController {
   @ResponseBody ResponseEntity<ApplicationSignatureSet> getLatestSignatureSet()
   {
     return tenantSignatureRepository.getLatestSignatureSet()
-            .map(ResponseEntity::ok)
+            .map(x -> ResponseEntity.ok().eTag(EntityTags.ofSignatureSet(x)).body(x))
             .orElseThrow(() -> ServiceException.notFound("No valid signature found."));
   }
 
@@ -87,6 +104,7 @@ public class SignatureRestController {
   @ResponseBody ResponseEntity<Void> deleteSignatureSet(@PathVariable("timestamp") final String timestamp)
   {
     tenantSignatureRepository.deleteSignatureSet(timestamp);
+    tenantRsaKeyProvider.invalidatePublicKey(timestamp);
     return ResponseEntity.accepted().build();
   }
 
@@ -98,7 +116,7 @@ public class SignatureRestController {
   @ResponseBody ResponseEntity<Signature> getApplicationSignature(@PathVariable("timestamp") final String timestamp)
   {
     return tenantSignatureRepository.getApplicationSignature(timestamp)
-            .map(ResponseEntity::ok)
+            .map(x -> ResponseEntity.ok().eTag(EntityTags.ofSignature(timestamp, x)).body(x))
             .orElseThrow(() -> ServiceException.notFound("Signature for timestamp '" + timestamp + "' not found."));
   }
 
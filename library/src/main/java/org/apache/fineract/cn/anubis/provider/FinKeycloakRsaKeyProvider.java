@@ -18,28 +18,252 @@
  */
 package org.apache.fineract.cn.anubis.provider;
 
-import org.springframework.beans.factory.annotation.Value;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.apache.fineract.cn.anubis.config.AnubisConstants;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.spec.InvalidKeySpecException;
+import java.security.spec.RSAPublicKeySpec;
 import java.security.spec.X509EncodedKeySpec;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Holds the public keys of the keycloak realm, decoded once rather than per request.  Keys are looked up by the
+ * key id in the JWS header.  They are read from a JWKS file (fin.keycloak.realm.jwksFile), and from a single
+ * Base64 encoded X.509 public key (fin.keycloak.realm.publicKey), which is used for tokens whose key id is not in
+ * the file.
+ *
+ * Both are read again by {@link #reload}.  When a token arrives with a key id which isn't known, the JWKS file is also
+ * read again if it has changed, but at most every ten seconds, so that rotating the realm keys doesn't require a
+ * restart.  If reading fails, or yields no keys, the keys which were loaded before are kept.  There are none to keep
+ * when the provider is initialized, so then it fails instead, as it does if neither property is set.
+ *
  * @author manoj
  */
 @Component
 public class FinKeycloakRsaKeyProvider {
-    @Value("${fin.keycloak.realm.publicKey}")
-    private String rsaPublicKey;
+    private static final long MINIMUM_RELOAD_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+
+    private final Environment environment;
+    private final Gson gson;
+    private final Logger logger;
+
+    private volatile KeyRing keyRing = KeyRing.EMPTY;
+    private volatile long lastChangeCheck = 0;
+
+    @Autowired
+    public FinKeycloakRsaKeyProvider(
+            final Environment environment,
+            final @Qualifier("anubisGson") Gson gson,
+            final @Qualifier(AnubisConstants.LOGGER_NAME) Logger logger) {
+        this.environment = environment;
+        this.gson = gson;
+        this.logger = logger;
+    }
+
+    @PostConstruct
+    public synchronized void init() {
+        final KeyRing loaded;
+        try {
+            loaded = load();
+        }
+        catch (final IOException | JsonParseException | IllegalArgumentException | InvalidKeySpecException e) {
+            throw new IllegalStateException("Loading keycloak realm keys failed.", e);
+        }
+        if (loaded.isEmpty())
+            throw new IllegalStateException("No keycloak realm keys could be loaded.  Set "
+                    + AnubisConstants.KEYCLOAK_REALM_PUBLIC_KEY_PROPERTY + " or "
+                    + AnubisConstants.KEYCLOAK_REALM_JWKS_FILE_PROPERTY + " to provide them.");
+        use(loaded);
+    }
+
+    public synchronized void reload() {
+        try {
+            final KeyRing loaded = load();
+            if (loaded.isEmpty())
+                logger.warn("No keycloak realm keys could be loaded, keeping the keys loaded before.");
+            else
+                use(loaded);
+        }
+        catch (final IOException | JsonParseException | IllegalArgumentException | InvalidKeySpecException e) {
+            logger.warn("Loading keycloak realm keys failed, keeping the keys loaded before.  Exception was {}", e.getMessage());
+        }
+    }
+
+    private KeyRing load() throws IOException, InvalidKeySpecException {
+        final String publicKeyProperty = environment.getProperty(AnubisConstants.KEYCLOAK_REALM_PUBLIC_KEY_PROPERTY);
+        final String jwksFileProperty = environment.getProperty(AnubisConstants.KEYCLOAK_REALM_JWKS_FILE_PROPERTY);
+        final PublicKey defaultKey = StringUtils.hasText(publicKeyProperty)
+                ? decodePublicKey(publicKeyProperty.trim())
+                : null;
 
+        final File jwksFile = StringUtils.hasText(jwksFileProperty) ? new File(jwksFileProperty.trim()) : null;
+        final long jwksFileLastModified = jwksFile == null ? 0 : jwksFile.lastModified();
+        final Map<String, PublicKey> keysById = jwksFile == null
+                ? Collections.emptyMap()
+                : readJwksFile(jwksFile);
+
+        return new KeyRing(keysById, defaultKey, jwksFile, jwksFileLastModified);
+    }
+
+    private void use(final KeyRing loaded) {
+        keyRing = loaded;
+        logger.info("Keycloak realm keys loaded for key ids {}{}.", loaded.keysById.keySet(),
+                loaded.defaultKey == null ? "" : ", and a default key");
+    }
+
+    /**
+     * @return The key for tokens without a key id.
+     */
     public PublicKey getPublicKey() throws InvalidKeySpecException, NoSuchAlgorithmException {
+        return getPublicKey(null)
+                .orElseThrow(() -> new InvalidKeySpecException("No keycloak realm public key is configured."));
+    }
+
+    /**
+     * @param keyId The key id from the JWS header of a token.
+     * @return The key with that id, otherwise the key from fin.keycloak.realm.publicKey, if any.  If there is no key id,
+     * and no key is set in fin.keycloak.realm.publicKey, the only key in the JWKS file, if there is only one.
+     */
+    public Optional<PublicKey> getPublicKey(final @Nullable String keyId) {
+        final KeyRing current = keyRing;
+        final Optional<PublicKey> ret = current.find(keyId);
+        if (ret.isPresent() || keyId == null || !reloadIfChanged(current))
+            return ret.isPresent() ? ret : current.getDefaultKey();
+
+        final KeyRing reloaded = keyRing;
+        final Optional<PublicKey> reloadedRet = reloaded.find(keyId);
+        return reloadedRet.isPresent() ? reloadedRet : reloaded.getDefaultKey();
+    }
+
+    private boolean reloadIfChanged(final KeyRing current) {
+        if (current.jwksFile == null)
+            return false;
+
+        final long now = System.currentTimeMillis();
+        if (now - lastChangeCheck < MINIMUM_RELOAD_INTERVAL)
+            return false;
+
+        synchronized (this) {
+            if (keyRing != current)
+                return true;
+            if (now - lastChangeCheck < MINIMUM_RELOAD_INTERVAL)
+                return false;
+            lastChangeCheck = now;
+            if (current.jwksFile.lastModified() == current.jwksFileLastModified)
+                return false;
+
+            logger.info("Keycloak JWKS file {} has changed.  Reloading keycloak realm keys.", current.jwksFile);
+            reload();
+            return keyRing != current;
+        }
+    }
+
+    private Map<String, PublicKey> readJwksFile(final File jwksFile) throws IOException, InvalidKeySpecException {
+        final JsonWebKeySet jsonWebKeySet;
+        try (final Reader reader = Files.newBufferedReader(jwksFile.toPath(), StandardCharsets.UTF_8)) {
+            jsonWebKeySet = gson.fromJson(reader, JsonWebKeySet.class);
+        }
+        if (jsonWebKeySet == null || jsonWebKeySet.keys == null)
+            throw new IllegalArgumentException("JWKS file " + jwksFile + " contains no keys.");
+
+        final Map<String, PublicKey> ret = new LinkedHashMap<>();
+        for (final JsonWebKey jsonWebKey : jsonWebKeySet.keys) {
+            if (!"RSA".equals(jsonWebKey.kty) || (jsonWebKey.use != null && !"sig".equals(jsonWebKey.use)))
+                continue;
+            if (jsonWebKey.kid == null || jsonWebKey.n == null || jsonWebKey.e == null)
+                throw new IllegalArgumentException("JWKS file " + jwksFile + " contains an incomplete RSA key.");
+
+            ret.put(jsonWebKey.kid, rsaKeyFactory().generatePublic(new RSAPublicKeySpec(
+                    new BigInteger(1, Base64.getUrlDecoder().decode(jsonWebKey.n)),
+                    new BigInteger(1, Base64.getUrlDecoder().decode(jsonWebKey.e)))));
+        }
+        return Collections.unmodifiableMap(ret);
+    }
+
+    private static PublicKey decodePublicKey(final String base64EncodedKey) throws InvalidKeySpecException {
+        final X509EncodedKeySpec keySpec = new X509EncodedKeySpec(Base64.getDecoder().decode(base64EncodedKey));
+        return rsaKeyFactory().generatePublic(keySpec);
+    }
+
+    private static KeyFactory rsaKeyFactory() {
+        try {
+            return KeyFactory.getInstance("RSA");
+        }
+        catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class KeyRing {
+        static final KeyRing EMPTY = new KeyRing(Collections.emptyMap(), null, null, 0);
+
+        private final Map<String, PublicKey> keysById;
+        private final PublicKey defaultKey;
+        private final File jwksFile;
+        private final long jwksFileLastModified;
+
+        KeyRing(final Map<String, PublicKey> keysById,
+                final PublicKey defaultKey,
+                final File jwksFile,
+                final long jwksFileLastModified) {
+            this.keysById = keysById;
+            this.defaultKey = defaultKey;
+            this.jwksFile = jwksFile;
+            this.jwksFileLastModified = jwksFileLastModified;
+        }
+
+        Optional<PublicKey> find(final @Nullable String keyId) {
+            if (keyId != null)
+                return Optional.ofNullable(keysById.get(keyId));
+            if (defaultKey == null && keysById.size() == 1)
+                return Optional.of(keysById.values().iterator().next());
+            return Optional.empty();
+        }
+
+        Optional<PublicKey> getDefaultKey() {
+            return Optional.ofNullable(defaultKey);
+        }
+
+        boolean isEmpty() {
+            return keysById.isEmpty() && defaultKey == null;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class JsonWebKeySet {
+        private List<JsonWebKey> keys;
+    }
 
-        X509EncodedKeySpec keySpec = new X509EncodedKeySpec(Base64.getDecoder().decode(rsaPublicKey));
-        KeyFactory kf = KeyFactory.getInstance("RSA");
-        return kf.generatePublic(keySpec);
+    @SuppressWarnings("unused")
+    private static class JsonWebKey {
+        private String kid;
+        private String kty;
+        private String use;
+        private String n;
+        private String e;
     }
 }
@@ -19,29 +19,153 @@
 package org.apache.fineract.cn.anubis.provider;
 
 import org.apache.fineract.cn.anubis.api.v1.domain.Signature;
+import org.apache.fineract.cn.anubis.config.AnubisProperties;
 import org.apache.fineract.cn.anubis.config.TenantSignatureRepository;
+import org.apache.fineract.cn.anubis.security.AuthenticationCache;
+import org.apache.fineract.cn.lang.TenantContextHolder;
 import org.apache.fineract.cn.lang.security.RsaPublicKeyBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.security.PublicKey;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
+ * Public keys are built once per tenant and key timestamp and then kept, so that authenticating a tenant token
+ * does not require a round trip to the signature repository.  Cached keys are dropped when the signature set for
+ * their timestamp is created anew or invalidated, and so are the authentications cached for tokens signed with them.
+ * Concurrent requests for a key which isn't cached yet wait for a single load rather than each reading the
+ * repository.
+ *
+ * Invalidation only reaches the cache of the node which served it.  Other nodes read a key from the repository again
+ * once it is anubis.publicKeyCacheExpirySeconds old, so a revoked key is accepted by them for at most that long.  At
+ * most anubis.publicKeyCacheSize keys are kept.
+ *
  * @author Myrle Krantz
  */
 @Component
 public class TenantRsaKeyProvider {
 
   private final TenantSignatureRepository tenantSignatureRepository;
+  private final AuthenticationCache authenticationCache;
+  private final int maximumSize;
+  private final long expiryMillis;
+  private final Map<TenantKeyTimestamp, CachedPublicKey> publicKeys = new ConcurrentHashMap<>();
+  private final Map<TenantKeyTimestamp, CompletableFuture<PublicKey>> inFlightLoads = new ConcurrentHashMap<>();
 
   @Autowired
-  public TenantRsaKeyProvider(final TenantSignatureRepository tenantSignatureRepository)
+  public TenantRsaKeyProvider(final TenantSignatureRepository tenantSignatureRepository,
+                              final AuthenticationCache authenticationCache,
+                              final AnubisProperties anubisProperties)
   {
     this.tenantSignatureRepository = tenantSignatureRepository;
+    this.authenticationCache = authenticationCache;
+    this.maximumSize = Optional.ofNullable(anubisProperties.getPublicKeyCacheSize()).orElse(0);
+    this.expiryMillis = TimeUnit.SECONDS.toMillis(
+        Optional.ofNullable(anubisProperties.getPublicKeyCacheExpirySeconds()).orElse(0));
+  }
+
+  /**
+   * @return How long after it was read a public key may still be used by this node without checking that its
+   * signature set is valid.
+   */
+  public long getExpiryMillis() {
+    return expiryMillis;
   }
 
   public PublicKey getPublicKey(final String keyTimestamp) throws InvalidKeyTimestampException {
+    final Optional<String> tenant = TenantContextHolder.identifier();
+    if (!tenant.isPresent()) //Let the repository decide how to handle a missing tenant.
+      return loadPublicKey(keyTimestamp);
+
+    final TenantKeyTimestamp key = new TenantKeyTimestamp(tenant.get(), keyTimestamp);
+    final CachedPublicKey cachedPublicKey = publicKeys.get(key);
+    if (cachedPublicKey != null) {
+      if (cachedPublicKey.expiresAt > System.currentTimeMillis())
+        return cachedPublicKey.publicKey;
+      publicKeys.remove(key, cachedPublicKey);
+    }
+
+    final CompletableFuture<PublicKey> load = new CompletableFuture<>();
+    final CompletableFuture<PublicKey> inFlightLoad = inFlightLoads.putIfAbsent(key, load);
+    if (inFlightLoad != null)
+      return awaitPublicKey(inFlightLoad);
+
+    try {
+      final PublicKey publicKey = loadPublicKey(keyTimestamp);
+      //If the key was invalidated while it was being loaded, don't cache it.
+      if (inFlightLoads.remove(key, load))
+        cache(key, publicKey);
+      load.complete(publicKey);
+      return publicKey;
+    }
+    catch (final InvalidKeyTimestampException | RuntimeException e) {
+      load.completeExceptionally(e);
+      throw e;
+    }
+    finally {
+      inFlightLoads.remove(key, load);
+    }
+  }
+
+  /**
+   * Drops the cached public key for the given timestamp in the current tenant, together with the cached
+   * authentications of tokens signed with it.  It will be read from the repository again the next time it is needed.
+   */
+  public void invalidatePublicKey(final String keyTimestamp) {
+    TenantContextHolder.identifier().ifPresent(tenant -> invalidatePublicKey(tenant, keyTimestamp));
+  }
+
+  /**
+   * Drops the cached public key for the given timestamp in the given tenant, for callers working on behalf of
+   * several tenants at once.
+   */
+  public void invalidatePublicKey(final String tenantIdentifier, final String keyTimestamp) {
+    final TenantKeyTimestamp key = new TenantKeyTimestamp(tenantIdentifier, keyTimestamp);
+    inFlightLoads.remove(key);
+    publicKeys.remove(key);
+    authenticationCache.invalidate(tenantIdentifier, keyTimestamp);
+  }
+
+  private void cache(final TenantKeyTimestamp key, final PublicKey publicKey) {
+    if (maximumSize <= 0 || expiryMillis <= 0)
+      return;
+
+    final long now = System.currentTimeMillis();
+    if (publicKeys.size() >= maximumSize) {
+      publicKeys.values().removeIf(x -> x.expiresAt <= now);
+      final Iterator<TenantKeyTimestamp> iterator = publicKeys.keySet().iterator();
+      while (publicKeys.size() >= maximumSize && iterator.hasNext()) {
+        iterator.next();
+        iterator.remove();
+      }
+    }
+    publicKeys.put(key, new CachedPublicKey(publicKey, now + expiryMillis));
+  }
+
+  private static PublicKey awaitPublicKey(final CompletableFuture<PublicKey> inFlightLoad)
+      throws InvalidKeyTimestampException {
+    try {
+      return inFlightLoad.join();
+    }
+    catch (final CompletionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof InvalidKeyTimestampException)
+        throw (InvalidKeyTimestampException) cause;
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      throw e;
+    }
+  }
+
+  private PublicKey loadPublicKey(final String keyTimestamp) throws InvalidKeyTimestampException {
     final Optional<Signature> tenantAuthorizationData =
         tenantSignatureRepository.getIdentityManagerSignature(keyTimestamp);
 
@@ -51,4 +175,38 @@ public class TenantRsaKeyProvider {
         .setPublicKeyExp(x.getPublicKeyExp())
         .build()).orElseThrow(() -> new InvalidKeyTimestampException(keyTimestamp + " + not initialized."));
   }
+
+  private static class CachedPublicKey {
+    private final PublicKey publicKey;
+    private final long expiresAt;
+
+    CachedPublicKey(final PublicKey publicKey, final long expiresAt) {
+      this.publicKey = publicKey;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  private static class TenantKeyTimestamp {
+    private final String tenant;
+    private final String keyTimestamp;
+
+    TenantKeyTimestamp(final String tenant, final String keyTimestamp) {
+      this.tenant = tenant;
+      this.keyTimestamp = keyTimestamp;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      TenantKeyTimestamp that = (TenantKeyTimestamp) o;
+      return Objects.equals(tenant, that.tenant) &&
+          Objects.equals(keyTimestamp, that.keyTimestamp);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(tenant, keyTimestamp);
+    }
+  }
 }
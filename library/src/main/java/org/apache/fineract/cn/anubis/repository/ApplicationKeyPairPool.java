@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.repository;
+
+import org.apache.fineract.cn.anubis.config.AnubisConstants;
+import org.apache.fineract.cn.anubis.config.AnubisProperties;
+import org.apache.fineract.cn.lang.security.RsaKeyPairFactory;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps application key pairs generated ahead of time, so that creating a signature set does not have to wait for
+ * RSA key generation.  Taken key pairs are replaced on a single low priority background thread.  If the pool is
+ * empty, a key pair is generated on the calling thread as before.
+ *
+ * Unlike those created by {@link RsaKeyPairFactory}, the private keys handed out here keep their chinese remainder
+ * theorem parameters, which makes signing with them several times faster.
+ *
+ * The pool is turned off unless anubis.applicationKeyPairPoolSize is set to a positive number.
+ */
+@Component
+public class ApplicationKeyPairPool implements PublicMetrics {
+  private static final int KEY_SIZE = 2048;
+  private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH_mm_ss");
+
+  private final int maximumSize;
+  private final BlockingQueue<RsaKeyPairFactory.KeyPairHolder> keyPairs;
+  private final ExecutorService generator;
+  private final AtomicBoolean generating = new AtomicBoolean(false);
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final Logger logger;
+
+  @Autowired
+  public ApplicationKeyPairPool(final AnubisProperties anubisProperties,
+                                final @Qualifier(AnubisConstants.LOGGER_NAME) Logger logger) {
+    this.maximumSize = Optional.ofNullable(anubisProperties.getApplicationKeyPairPoolSize()).orElse(0);
+    this.keyPairs = isEnabled() ? new ArrayBlockingQueue<>(maximumSize) : null;
+    this.generator = isEnabled() ? Executors.newSingleThreadExecutor(runnable -> {
+      final Thread thread = new Thread(runnable, "anubis-application-key-pair-pool");
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      return thread;
+    }) : null;
+    this.logger = logger;
+  }
+
+  @PostConstruct
+  public void fill() {
+    topUp();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (isEnabled())
+      generator.shutdownNow();
+  }
+
+  boolean isEnabled() {
+    return maximumSize > 0;
+  }
+
+  /**
+   * @return A key pair nobody else has been given.  This never waits for the background thread.
+   */
+  public RsaKeyPairFactory.KeyPairHolder take() {
+    if (!isEnabled())
+      return createKeyPair();
+
+    final RsaKeyPairFactory.KeyPairHolder keyPair = keyPairs.poll();
+    topUp();
+    if (keyPair != null) {
+      hits.incrementAndGet();
+      return keyPair;
+    }
+
+    misses.incrementAndGet();
+    return createKeyPair();
+  }
+
+  static RsaKeyPairFactory.KeyPairHolder createKeyPair() {
+    try {
+      final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+      keyPairGenerator.initialize(KEY_SIZE);
+      final KeyPair keyPair = keyPairGenerator.generateKeyPair();
+      final String timestamp = TIMESTAMP_FORMAT.format(LocalDateTime.now(Clock.systemUTC()));
+      return new RsaKeyPairFactory.KeyPairHolder(
+          timestamp, (RSAPublicKey) keyPair.getPublic(), (RSAPrivateCrtKey) keyPair.getPrivate());
+    }
+    catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void topUp() {
+    if (!isEnabled() || keyPairs.remainingCapacity() == 0 || !generating.compareAndSet(false, true))
+      return;
+
+    try {
+      generator.execute(this::generate);
+    }
+    catch (final RejectedExecutionException shutDown) {
+      generating.set(false);
+    }
+  }
+
+  private void generate() {
+    try {
+      while (keyPairs.remainingCapacity() > 0 && !Thread.currentThread().isInterrupted())
+        keyPairs.offer(createKeyPair());
+    }
+    catch (final RuntimeException e) {
+      logger.warn("Generating application key pairs in the background failed.", e);
+      return;
+    }
+    finally {
+      generating.set(false);
+    }
+
+    //A key pair may have been taken after the loop ended, but before the flag was cleared.
+    topUp();
+  }
+
+  public int getSize() {
+    return isEnabled() ? keyPairs.size() : 0;
+  }
+
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  @Override
+  public Collection<Metric<?>> metrics() {
+    final Collection<Metric<?>> ret = new ArrayList<>();
+    ret.add(new Metric<>("anubis.applicationKeyPairPool.size", getSize()));
+    ret.add(new Metric<>("anubis.applicationKeyPairPool.hits", getHitCount()));
+    ret.add(new Metric<>("anubis.applicationKeyPairPool.misses", getMissCount()));
+    return ret;
+  }
+}
@@ -21,15 +21,19 @@ package org.apache.fineract.cn.anubis.repository;
 import com.datastax.driver.core.*;
 import com.datastax.driver.core.exceptions.InvalidQueryException;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
-import com.datastax.driver.core.querybuilder.Select;
-import com.datastax.driver.core.querybuilder.Update;
 import com.datastax.driver.core.schemabuilder.SchemaBuilder;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.apache.fineract.cn.anubis.api.v1.domain.ApplicationSignatureSet;
 import org.apache.fineract.cn.anubis.api.v1.domain.Signature;
+import org.apache.fineract.cn.anubis.api.v1.domain.SignatureSetRequest;
+import org.apache.fineract.cn.anubis.api.v1.domain.SignatureSetResult;
+import org.apache.fineract.cn.anubis.api.v1.validation.CheckKeyTimestamp;
 import org.apache.fineract.cn.anubis.config.AnubisConstants;
+import org.apache.fineract.cn.anubis.config.AsyncTenantSignatureRepository;
 import org.apache.fineract.cn.anubis.config.TenantSignatureRepository;
 import org.apache.fineract.cn.cassandra.core.CassandraSessionProvider;
 import org.apache.fineract.cn.lang.ApplicationName;
+import org.apache.fineract.cn.lang.TenantContextHolder;
 import org.apache.fineract.cn.lang.security.RsaKeyPairFactory;
 import org.apache.fineract.cn.lang.security.RsaPrivateKeyBuilder;
 import org.apache.fineract.cn.lang.security.RsaPublicKeyBuilder;
@@ -40,24 +44,51 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
 
 import javax.annotation.Nonnull;
+import javax.annotation.PreDestroy;
 import java.math.BigInteger;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
+import java.security.interfaces.RSAPrivateCrtKey;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
-import java.util.HashMap;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.RSAPrivateCrtKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 
 /**
  * This repository saves identity manager public keys and application private keys for use in authentication
  * of tokens. The data is saved in a separate cassandra table for each service. Keys are timestamped so that
- * they can be rotated without stopping the services.
+ * they can be rotated without stopping the services. The timestamps of valid keys are additionally kept in descending
+ * order in a single partition of a second table, so that the most recent key can be found with one point read.  The
+ * chinese remainder theorem parameters of application private keys are kept in a third table, so that signing with a
+ * key read back from cassandra uses the fast private key path.  Keys created before that table existed are read
+ * without them.
  *
- * Operations which change the key data are synchronized for several reasons:
+ * Operations which change the key data are synchronized per tenant for several reasons.  Each tenant has its own
+ * keyspace, so the locks are striped by tenant identifier, and work for different tenants mostly proceeds in parallel:
  *
  * <ul>
  * <li> Multiple parallel calls to create a signature can cause one signature to be saved for an application, but
@@ -74,9 +105,17 @@ import java.util.stream.StreamSupport;
  */
 //
 @Component
-public class TenantAuthorizationDataRepository implements TenantSignatureRepository {
+public class TenantAuthorizationDataRepository implements TenantSignatureRepository, AsyncTenantSignatureRepository {
   private static final String AUTHORIZATION_TABLE_SUFFIX = "_authorization_v1_data";
   private static final String AUTHORIZATION_INDEX_SUFFIX = "_authorization_v1_valid_index";
+  private static final String VALID_TIMESTAMPS_TABLE_SUFFIX = "_authorization_v1_valid_timestamps";
+  private static final String PRIVATE_KEY_CRT_TABLE_SUFFIX = "_authorization_v1_private_key_crt";
+  private static final int TENANT_LOCK_STRIPES = 64;
+
+  private static final String BUCKET_COLUMN = "bucket";
+  private static final int VALID_TIMESTAMPS_BUCKET = 0;
+  //Usually only the first row is needed, unless the most recent signature sets were invalidated.
+  private static final int VALID_TIMESTAMPS_FETCH_SIZE = 8;
   private static final String TIMESTAMP_COLUMN = "timestamp";
   private static final String VALID_COLUMN = "valid";
   private static final String IDENTITY_MANAGER_PUBLIC_KEY_MOD_COLUMN = "identity_manager_public_key_mod";
@@ -85,27 +124,82 @@ public class TenantAuthorizationDataRepository implements TenantSignatureReposit
   private static final String APPLICATION_PRIVATE_KEY_EXP_COLUMN = "application_private_key_exp";
   private static final String APPLICATION_PUBLIC_KEY_MOD_COLUMN = "application_public_key_mod";
   private static final String APPLICATION_PUBLIC_KEY_EXP_COLUMN = "application_public_key_exp";
+  private static final String APPLICATION_PRIVATE_KEY_PRIME_P_COLUMN = "application_private_key_prime_p";
+  private static final String APPLICATION_PRIVATE_KEY_PRIME_Q_COLUMN = "application_private_key_prime_q";
+  private static final String APPLICATION_PRIVATE_KEY_PRIME_EXP_P_COLUMN = "application_private_key_prime_exp_p";
+  private static final String APPLICATION_PRIVATE_KEY_PRIME_EXP_Q_COLUMN = "application_private_key_prime_exp_q";
+  private static final String APPLICATION_PRIVATE_KEY_CRT_COEFFICIENT_COLUMN = "application_private_key_crt_coefficient";
 
   private final String tableName;
   private final String indexName;
+  private final String validTimestampsTableName;
+  private final String privateKeyCrtTableName;
   private final CassandraSessionProvider cassandraSessionProvider;
+  private final ApplicationKeyPairPool applicationKeyPairPool;
 
-  //So that the query only has to be prepared once and the Cassandra driver stops writing warnings into my logfiles.
-  private final Map<String, Select.Where> timestampToSignatureQueryMap = new HashMap<>();
+  //So that each query only has to be prepared once per tenant session and the Cassandra driver stops writing warnings
+  //into my logfiles.  Sessions which are no longer in use are dropped together with their statements.
+  private final Map<Session, PreparedStatements> sessionToPreparedStatementsMap
+          = Collections.synchronizedMap(new WeakHashMap<>());
+  //Empty if the private key CRT table didn't exist yet when the statements were prepared.
+  private final Map<Session, Optional<PrivateKeyCrtStatements>> sessionToPrivateKeyCrtStatementsMap
+          = Collections.synchronizedMap(new WeakHashMap<>());
+  //Empty if the valid timestamps table didn't exist yet when the statements were prepared.
+  private final Map<Session, Optional<ValidTimestampStatements>> sessionToValidTimestampStatementsMap
+          = Collections.synchronizedMap(new WeakHashMap<>());
+  //So that concurrent requests for the same row, for example after a rollout, result in only one read.
+  private final Map<SessionTimestamp, CompletableFuture<Optional<Row>>> inFlightRowReads = new ConcurrentHashMap<>();
+  private final Object[] tenantLocks;
+  //Completions of asynchronous statements are handed to these threads rather than run on the driver's I/O threads,
+  //since the stages depending on them may prepare statements, fetch further result pages, or build keys.
+  private final ExecutorService callbackExecutor;
+  //The application key pairs of a batch of signature sets are taken on these threads, so that they are generated in
+  //parallel.
+  private final ExecutorService signatureSetExecutor;
   private final Logger logger;
 
   @Autowired
   public TenantAuthorizationDataRepository(
       final ApplicationName applicationName,
       final CassandraSessionProvider cassandraSessionProvider,
+      final ApplicationKeyPairPool applicationKeyPairPool,
       final @Qualifier(AnubisConstants.LOGGER_NAME) Logger logger)
   {
     tableName = applicationName.getServiceName() + AUTHORIZATION_TABLE_SUFFIX;
     indexName = applicationName.getServiceName() + AUTHORIZATION_INDEX_SUFFIX;
+    validTimestampsTableName = applicationName.getServiceName() + VALID_TIMESTAMPS_TABLE_SUFFIX;
+    privateKeyCrtTableName = applicationName.getServiceName() + PRIVATE_KEY_CRT_TABLE_SUFFIX;
     this.cassandraSessionProvider = cassandraSessionProvider;
+    this.applicationKeyPairPool = applicationKeyPairPool;
+    this.tenantLocks = new Object[TENANT_LOCK_STRIPES];
+    Arrays.setAll(this.tenantLocks, i -> new Object());
+    this.callbackExecutor = createExecutor("anubis-signature-repository-callback");
+    this.signatureSetExecutor = createExecutor("anubis-signature-set-creator");
     this.logger = logger;
   }
 
+  @PreDestroy
+  public void shutdown() {
+    callbackExecutor.shutdown();
+    signatureSetExecutor.shutdown();
+  }
+
+  /**
+   * @return A pool of at most as many threads as there are processors, which don't outlive their work by long.
+   */
+  private static ExecutorService createExecutor(final @Nonnull String threadName) {
+    final int threadCount = Math.max(2, Runtime.getRuntime().availableProcessors());
+    final AtomicInteger threadNumber = new AtomicInteger();
+    final ThreadPoolExecutor ret = new ThreadPoolExecutor(
+            threadCount, threadCount, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+      final Thread thread = new Thread(runnable, threadName + "-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    ret.allowCoreThreadTimeOut(true);
+    return ret;
+  }
+
   /**
    *
    * @param timestamp The timestamp to save the signatures for.  When rotating keys, this will be used to delete keys
@@ -117,50 +211,233 @@ public class TenantAuthorizationDataRepository implements TenantSignatureReposit
    * @return The signature containing the public keys of the application.  This is *not* the signature passed in
    * for the identity manager.
    */
-  public synchronized Signature createSignatureSet(final String timestamp, final Signature identityManagerSignature) {
+  public Signature createSignatureSet(final String timestamp, final Signature identityManagerSignature) {
     Assert.notNull(timestamp);
     Assert.notNull(identityManagerSignature);
 
-    // getSignatureSet (below) queries the table, so make sure it's created first.
+    synchronized (getTenantLock(TenantContextHolder.checkedGetIdentifier())) {
+      // getSignatureSet (below) queries the table, so make sure it's created first.
+      final Session session = cassandraSessionProvider.getTenantSession();
+      createTable(session);
+
+      // if there is already a signature set for the identity manager then return it rather than create a new one.
+      // Having multiple signature sets floating around for the same application, can cause problems because the
+      // application may sign it's tokens with one signature, only to have identity check those tokens with a different
+      // signature.
+      final Optional<ApplicationSignatureSet> signatureSet = getSignatureSet(timestamp);
+      if (signatureSet.isPresent() &&
+          signatureSet.map(x -> x.getIdentityManagerSignature().equals(identityManagerSignature)).orElse(false))
+        return signatureSet.get().getApplicationSignature();
+
+
+      //TODO: add validation to make sure this timestamp is more recent than any already stored.
+      logger.info("Creating application signature set for timestamp '" + timestamp +
+              "'. Identity manager signature is: " + identityManagerSignature);
+
+      final RsaKeyPairFactory.KeyPairHolder applicationSignature = applicationKeyPairPool.take();
+
+
+      createEntry(session,
+              timestamp,
+              identityManagerSignature.getPublicKeyMod(),
+              identityManagerSignature.getPublicKeyExp(),
+              applicationSignature.getPrivateKeyMod(),
+              applicationSignature.getPrivateKeyExp(),
+              applicationSignature.getPublicKeyMod(),
+              applicationSignature.getPublicKeyExp());
+      createPrivateKeyCrtEntry(session, timestamp, applicationSignature.privateKey());
+
+      return new Signature(applicationSignature.getPublicKeyMod(), applicationSignature.getPublicKeyExp());
+    }
+  }
+
+  /**
+   * Creates several signature sets for the current tenant at once.  The application key pairs are taken on a pool
+   * shared by all calls and bounded by the number of processors, so that those which still have to be generated are
+   * generated in parallel.  The rows are then written with asynchronous statements.  A failure for one request is
+   * reported in its result, and does not keep the others from being created.
+   *
+   * @return One result per request, in the order of the requests.
+   */
+  public List<SignatureSetResult> createSignatureSets(final List<SignatureSetRequest> requests) {
+    Assert.notNull(requests);
+    if (requests.isEmpty())
+      return Collections.emptyList();
+
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
     final Session session = cassandraSessionProvider.getTenantSession();
-    createTable(session);
+    synchronized (getTenantLock(tenantIdentifier)) {
+      createTable(session);
+    }
+
+    //Preparing may block on a round trip, so it happens here rather than in the stages which write the rows.
+    final SignatureSetStatements statements = new SignatureSetStatements(session,
+            getPreparedStatements(session),
+            getValidTimestampStatements(session),
+            getPrivateKeyCrtStatements(session));
+    final List<CompletableFuture<PreparedSignatureSet>> preparing = requests.stream()
+            .map(request -> prepareSignatureSet(request, statements))
+            .collect(Collectors.toList());
+    final List<PreparedSignatureSet> preparedSignatureSets = preparing.stream()
+            .map(CompletableFuture::join)
+            .collect(Collectors.toList());
+
+    //The rows are written one after the other, so that two requests for the same timestamp in one batch cannot both
+    //create an application signature.
+    synchronized (getTenantLock(tenantIdentifier)) {
+      CompletableFuture<?> previousWrite = CompletableFuture.completedFuture(null);
+      final List<CompletableFuture<SignatureSetResult>> writes = new ArrayList<>();
+      for (final PreparedSignatureSet preparedSignatureSet : preparedSignatureSets) {
+        final CompletableFuture<SignatureSetResult> write
+                = previousWrite.thenCompose(x -> writeSignatureSet(preparedSignatureSet));
+        writes.add(write);
+        previousWrite = write;
+      }
+      return writes.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Looks for an existing signature set on the calling thread, and takes the application key pair on the signature
+   * set pool.  Failures are reported in the result rather than by completing exceptionally.
+   */
+  private CompletableFuture<PreparedSignatureSet> prepareSignatureSet(
+          final @Nonnull SignatureSetRequest request,
+          final @Nonnull SignatureSetStatements statements) {
+    final Optional<String> invalid = validate(request);
+    if (invalid.isPresent())
+      return CompletableFuture.completedFuture(PreparedSignatureSet.done(request, failed(request, invalid.get())));
+
+    try {
+      final Optional<ApplicationSignatureSet> signatureSet = getSignatureSet(request.getTimestamp());
+      if (signatureSet.isPresent() &&
+          signatureSet.get().getIdentityManagerSignature().equals(request.getIdentityManagerSignature()))
+        return CompletableFuture.completedFuture(
+                PreparedSignatureSet.done(request, created(request, signatureSet.get().getApplicationSignature())));
 
-    // if there is already a signature set for the identity manager then return it rather than create a new one.
-    // Having multiple signature sets floating around for the same application, can cause problems because the
-    // application may sign it's tokens with one signature, only to have identity check those tokens with a different
-    // signature.
-    final Optional<ApplicationSignatureSet> signatureSet = getSignatureSet(timestamp);
-    if (signatureSet.isPresent() &&
-        signatureSet.map(x -> x.getIdentityManagerSignature().equals(identityManagerSignature)).orElse(false))
-      return signatureSet.get().getApplicationSignature();
+      return CompletableFuture.supplyAsync(applicationKeyPairPool::take, signatureSetExecutor)
+              .thenApply(applicationKeyPair -> PreparedSignatureSet.pending(request, statements, applicationKeyPair))
+              .exceptionally(e -> prepareFailed(request, e));
+    }
+    catch (final RuntimeException e) {
+      return CompletableFuture.completedFuture(prepareFailed(request, e));
+    }
+  }
 
+  private PreparedSignatureSet prepareFailed(final @Nonnull SignatureSetRequest request, final @Nonnull Throwable e) {
+    final Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+    logger.warn("Preparing signature set for timestamp '" + request.getTimestamp() + "' failed.", cause);
+    return PreparedSignatureSet.done(request, failed(request, cause.getMessage()));
+  }
 
-    //TODO: add validation to make sure this timestamp is more recent than any already stored.
-    logger.info("Creating application signature set for timestamp '" + timestamp +
-            "'. Identity manager signature is: " + identityManagerSignature);
+  /**
+   * Must be called while holding the lock of the tenant.  The row is read once more before it is written, in
+   * case a signature set for the same identity manager signature was created since it was prepared.
+   */
+  private CompletableFuture<SignatureSetResult> writeSignatureSet(final @Nonnull PreparedSignatureSet prepared) {
+    if (prepared.result != null)
+      return CompletableFuture.completedFuture(prepared.result);
 
-    final RsaKeyPairFactory.KeyPairHolder applicationSignature = RsaKeyPairFactory.createKeyPair();
+    final SignatureSetRequest request = prepared.request;
+    final SignatureSetStatements statements = prepared.statements;
+    final RsaKeyPairFactory.KeyPairHolder applicationKeyPair = prepared.applicationKeyPair;
+    return getRowAsync(statements.tenantSession, statements.preparedStatements, request.getTimestamp())
+            .thenCompose(row -> {
+              if (row.isPresent() &&
+                  mapRowToIdentityManagerSignature(row.get()).equals(request.getIdentityManagerSignature()))
+                return CompletableFuture.completedFuture(created(request, mapRowToApplicationSignature(row.get())));
 
+              logger.info("Creating application signature set for timestamp '" + request.getTimestamp() +
+                      "'. Identity manager signature is: " + request.getIdentityManagerSignature());
+              return createEntryAsync(prepared, row.isPresent())
+                      .thenApply(x -> created(request,
+                              new Signature(applicationKeyPair.getPublicKeyMod(), applicationKeyPair.getPublicKeyExp())));
+            })
+            .exceptionally(e -> {
+              final Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+              logger.warn("Writing signature set for timestamp '" + request.getTimestamp() + "' failed.", cause);
+              return failed(request, cause.getMessage());
+            });
+  }
 
-    createEntry(session,
+  /**
+   * Insert and update are both upserts in cassandra, so unlike createEntry, this doesn't need to read the row first.
+   */
+  private CompletableFuture<Void> createEntryAsync(final @Nonnull PreparedSignatureSet prepared,
+                                                   final boolean replacesExistingRow) {
+    final SignatureSetStatements statements = prepared.statements;
+    final Session tenantSession = statements.tenantSession;
+    final SignatureSetRequest request = prepared.request;
+    final RsaKeyPairFactory.KeyPairHolder applicationKeyPair = prepared.applicationKeyPair;
+    final String timestamp = request.getTimestamp();
+    final BoundStatement tenantSignatureStatement = statements.preparedStatements.insertRow.bind();
+    completeBoundStatement(tenantSignatureStatement,
             timestamp,
-            identityManagerSignature.getPublicKeyMod(),
-            identityManagerSignature.getPublicKeyExp(),
-            applicationSignature.getPrivateKeyMod(),
-            applicationSignature.getPrivateKeyExp(),
-            applicationSignature.getPublicKeyMod(),
-            applicationSignature.getPublicKeyExp());
+            true,
+            request.getIdentityManagerSignature().getPublicKeyMod(),
+            request.getIdentityManagerSignature().getPublicKeyExp(),
+            applicationKeyPair.getPrivateKeyMod(),
+            applicationKeyPair.getPrivateKeyExp(),
+            applicationKeyPair.getPublicKeyMod(),
+            applicationKeyPair.getPublicKeyExp());
+
+    final Optional<BoundStatement> privateKeyCrtStatement = statements.privateKeyCrtStatements
+            .flatMap(x -> bindPrivateKeyCrtEntry(x, timestamp, applicationKeyPair.privateKey()));
+    final CompletableFuture<?> previousCrtRowDeleted = statements.privateKeyCrtStatements
+            .filter(x -> replacesExistingRow)
+            .map(x -> (CompletableFuture<?>) executeAsync(tenantSession, x.deleteRow.bind(timestamp)))
+            .orElseGet(() -> CompletableFuture.completedFuture(null));
+    final CompletableFuture<ResultSet> rowWritten = previousCrtRowDeleted
+            .thenCompose(x -> executeAsync(tenantSession, tenantSignatureStatement))
+            .thenCompose(x -> privateKeyCrtStatement
+                    .map(statement -> executeAsync(tenantSession, statement).thenApply(y -> x))
+                    .orElseGet(() -> CompletableFuture.completedFuture(x)));
+    return statements.validTimestampStatements
+            .map(x -> rowWritten.thenCompose(y ->
+                    executeAsync(tenantSession, x.insertTimestamp.bind(VALID_TIMESTAMPS_BUCKET, timestamp))))
+            .orElse(rowWritten)
+            .thenApply(x -> null);
+  }
+
+  private static Optional<String> validate(final @Nonnull SignatureSetRequest request) {
+    if (!new CheckKeyTimestamp().isValid(request.getTimestamp(), null))
+      return Optional.of("Timestamp '" + request.getTimestamp() + "' is not a valid key timestamp.");
+    final Signature identityManagerSignature = request.getIdentityManagerSignature();
+    if (identityManagerSignature == null ||
+        identityManagerSignature.getPublicKeyMod() == null ||
+        identityManagerSignature.getPublicKeyExp() == null)
+      return Optional.of("Identity manager signature is missing.");
+    return Optional.empty();
+  }
 
-    return new Signature(applicationSignature.getPublicKeyMod(), applicationSignature.getPublicKeyExp());
+  private static SignatureSetResult created(final @Nonnull SignatureSetRequest request,
+                                            final @Nonnull Signature applicationSignature) {
+    return new SignatureSetResult(request.getTimestamp(), applicationSignature, null);
   }
 
-  public synchronized void deleteSignatureSet(final String timestamp) {
+  private static SignatureSetResult failed(final @Nonnull SignatureSetRequest request,
+                                           final String errorMessage) {
+    return new SignatureSetResult(request.getTimestamp(), null, errorMessage);
+  }
+
+  public void deleteSignatureSet(final String timestamp) {
     Assert.notNull(timestamp);
-    //Don't actually delete, just invalidate, so that if someone starts coming at me with an older keyset, I'll
-    //know what's happening.
-    logger.info("Invalidationg signature set for timestamp '" + timestamp + "'.");
-    final Session session = cassandraSessionProvider.getTenantSession();
-    invalidateEntry(session, timestamp);
+    final String tenantIdentifier = TenantContextHolder.checkedGetIdentifier();
+    synchronized (getTenantLock(tenantIdentifier)) {
+      //Don't actually delete, just invalidate, so that if someone starts coming at me with an older keyset, I'll
+      //know what's happening.
+      logger.info("Invalidationg signature set for timestamp '" + timestamp + "'.");
+      final Session session = cassandraSessionProvider.getTenantSession();
+      invalidateEntry(session, timestamp);
+    }
+  }
+
+  /**
+   * Changes to the key data of one tenant are serialized on one of a fixed number of locks, chosen by the tenant
+   * identifier.  Tenants which don't share a lock don't wait for each other.
+   */
+  private Object getTenantLock(final @Nonnull String tenantIdentifier) {
+    return tenantLocks[(tenantIdentifier.hashCode() & Integer.MAX_VALUE) % tenantLocks.length];
   }
 
   public Optional<Signature> getApplicationSignature(final String timestamp) {
@@ -193,6 +470,62 @@ public class TenantAuthorizationDataRepository implements TenantSignatureReposit
             .toString();
 
     tenantSession.execute(createValidIndex);
+
+    final String createValidTimestampsTable = SchemaBuilder
+            .createTable(validTimestampsTableName)
+            .ifNotExists()
+            .addPartitionKey(BUCKET_COLUMN, DataType.cint())
+            .addClusteringColumn(TIMESTAMP_COLUMN, DataType.text())
+            .withOptions()
+            .clusteringOrder(TIMESTAMP_COLUMN, SchemaBuilder.Direction.DESC)
+            .buildInternal();
+
+    tenantSession.execute(createValidTimestampsTable);
+
+    final String createPrivateKeyCrtTable = SchemaBuilder
+            .createTable(privateKeyCrtTableName)
+            .ifNotExists()
+            .addPartitionKey(TIMESTAMP_COLUMN, DataType.text())
+            .addColumn(APPLICATION_PRIVATE_KEY_PRIME_P_COLUMN, DataType.varint())
+            .addColumn(APPLICATION_PRIVATE_KEY_PRIME_Q_COLUMN, DataType.varint())
+            .addColumn(APPLICATION_PRIVATE_KEY_PRIME_EXP_P_COLUMN, DataType.varint())
+            .addColumn(APPLICATION_PRIVATE_KEY_PRIME_EXP_Q_COLUMN, DataType.varint())
+            .addColumn(APPLICATION_PRIVATE_KEY_CRT_COEFFICIENT_COLUMN, DataType.varint())
+            .buildInternal();
+
+    tenantSession.execute(createPrivateKeyCrtTable);
+
+    sessionToValidTimestampStatementsMap.remove(tenantSession, Optional.empty());
+    sessionToPrivateKeyCrtStatementsMap.remove(tenantSession, Optional.empty());
+
+    migrateValidTimestamps(tenantSession);
+  }
+
+  /**
+   * Tenants initialized before the valid timestamps table existed, and signature sets created by nodes which don't
+   * know about it yet, only have their valid timestamps in the secondary index of the data table.  Copy those which
+   * are missing over, so that the most recent one can be found with a single partition read.  This runs as part of
+   * {@link #createTable}, under the lock of the tenant, rather than on reads.
+   */
+  private void migrateValidTimestamps(final @Nonnull Session tenantSession) {
+    getValidTimestampStatements(tenantSession).ifPresent(statements ->
+            reconcileValidTimestamps(tenantSession, statements));
+  }
+
+  private void reconcileValidTimestamps(final @Nonnull Session tenantSession,
+                                        final @Nonnull ValidTimestampStatements statements) {
+    final List<String> validTimestamps = getAllSignatureSetKeyTimestamps();
+    final ResultSet listedTimestamps = tenantSession.execute(statements.selectTimestamps.bind(VALID_TIMESTAMPS_BUCKET));
+    final Set<String> listed = StreamSupport.stream(listedTimestamps.spliterator(), false)
+            .map(x -> x.get(TIMESTAMP_COLUMN, String.class))
+            .collect(Collectors.toSet());
+    final List<String> missing = validTimestamps.stream()
+            .filter(x -> !listed.contains(x))
+            .collect(Collectors.toList());
+    if (!missing.isEmpty())
+      logger.info("Migrating valid signature set timestamps " + missing + " to " + validTimestampsTableName + ".");
+    missing.forEach(timestamp ->
+            tenantSession.execute(statements.insertTimestamp.bind(VALID_TIMESTAMPS_BUCKET, timestamp)));
   }
 
   private void createEntry(final @Nonnull Session tenantSession,
@@ -205,62 +538,67 @@ public class TenantAuthorizationDataRepository implements TenantSignatureReposit
                            final @Nonnull BigInteger applicationPublicKeyExponent)
   {
 
-    final ResultSet timestampCount =
-        tenantSession.execute("SELECT count(*) FROM " + this.tableName + " WHERE " + TIMESTAMP_COLUMN + " = '" + timestamp + "'");
-    final Long value = timestampCount.one().get(0, Long.class);
-    if (value == 0L) {
-      //There will only be one entry in this table per version.
-      final BoundStatement tenantCreationStatement =
-          tenantSession.prepare("INSERT INTO " + tableName + " ("
-                  + TIMESTAMP_COLUMN + ", "
-                  + VALID_COLUMN + ", "
-                  + IDENTITY_MANAGER_PUBLIC_KEY_MOD_COLUMN + ", "
-                  + IDENTITY_MANAGER_PUBLIC_KEY_EXP_COLUMN + ", "
-                  + APPLICATION_PRIVATE_KEY_MOD_COLUMN + ", "
-                  + APPLICATION_PRIVATE_KEY_EXP_COLUMN + ", "
-                  + APPLICATION_PUBLIC_KEY_MOD_COLUMN + ", "
-                  + APPLICATION_PUBLIC_KEY_EXP_COLUMN + ")"
-                  + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)").bind();
-      completeBoundStatement(tenantCreationStatement,
-              timestamp,
-              true,
-              identityManagerPublicKeyModulus,
-              identityManagerPublicKeyExponent,
-              applicationPrivateKeyModulus,
-              applicationPrivateKeyExponent,
-              applicationPublicKeyModulus,
-              applicationPublicKeyExponent);
-
-      tenantSession.execute(tenantCreationStatement);
-    } else {
-      //TODO: Make sure existing entry hasn't been invalidated, or just don't allow an update.
-      final BoundStatement tenantUpdateStatement =
-          tenantSession.prepare("UPDATE " + tableName + " SET "
-                  + VALID_COLUMN + " = ?, "
-                  + IDENTITY_MANAGER_PUBLIC_KEY_MOD_COLUMN + " = ?, "
-                  + IDENTITY_MANAGER_PUBLIC_KEY_EXP_COLUMN + " = ?, "
-                  + APPLICATION_PRIVATE_KEY_MOD_COLUMN + " = ?, "
-                  + APPLICATION_PRIVATE_KEY_EXP_COLUMN + " = ?, "
-                  + APPLICATION_PUBLIC_KEY_MOD_COLUMN + " = ?, "
-                  + APPLICATION_PUBLIC_KEY_EXP_COLUMN + " = ? "
-                  + "WHERE " + TIMESTAMP_COLUMN + " = ?").bind();
-      completeBoundStatement(tenantUpdateStatement,
-              timestamp,
-              true,
-              identityManagerPublicKeyModulus,
-              identityManagerPublicKeyExponent,
-              applicationPrivateKeyModulus,
-              applicationPrivateKeyExponent,
-              applicationPublicKeyModulus,
-              applicationPublicKeyExponent);
-
-      tenantSession.execute(tenantUpdateStatement);
-    }
+    final PreparedStatements preparedStatements = getPreparedStatements(tenantSession);
+    final Row existingRow = tenantSession.execute(preparedStatements.selectRow.bind(timestamp)).one();
+    //The chinese remainder theorem parameters of the key being replaced must not outlive it.
+    if (existingRow != null)
+      getPrivateKeyCrtStatements(tenantSession).ifPresent(statements ->
+              tenantSession.execute(statements.deleteRow.bind(timestamp)));
+    //There will only be one entry in this table per version.
+    final BoundStatement tenantSignatureStatement = (existingRow == null)
+            ? preparedStatements.insertRow.bind()
+            //TODO: Make sure existing entry hasn't been invalidated, or just don't allow an update.
+            : preparedStatements.updateRow.bind();
+    completeBoundStatement(tenantSignatureStatement,
+            timestamp,
+            true,
+            identityManagerPublicKeyModulus,
+            identityManagerPublicKeyExponent,
+            applicationPrivateKeyModulus,
+            applicationPrivateKeyExponent,
+            applicationPublicKeyModulus,
+            applicationPublicKeyExponent);
+
+    tenantSession.execute(tenantSignatureStatement);
+
+    getValidTimestampStatements(tenantSession).ifPresent(statements ->
+            tenantSession.execute(statements.insertTimestamp.bind(VALID_TIMESTAMPS_BUCKET, timestamp)));
+  }
+
+  private void createPrivateKeyCrtEntry(final @Nonnull Session tenantSession,
+                                        final @Nonnull String timestamp,
+                                        final @Nonnull RSAPrivateKey applicationPrivateKey) {
+    getPrivateKeyCrtStatements(tenantSession)
+            .flatMap(statements -> bindPrivateKeyCrtEntry(statements, timestamp, applicationPrivateKey))
+            .ifPresent(tenantSession::execute);
+  }
+
+  /**
+   * Key pairs which don't carry their chinese remainder theorem parameters, such as those created by
+   * {@link RsaKeyPairFactory}, are saved without them.
+   */
+  private static Optional<BoundStatement> bindPrivateKeyCrtEntry(final @Nonnull PrivateKeyCrtStatements statements,
+                                                                 final @Nonnull String timestamp,
+                                                                 final @Nonnull RSAPrivateKey applicationPrivateKey) {
+    if (!(applicationPrivateKey instanceof RSAPrivateCrtKey))
+      return Optional.empty();
+
+    final RSAPrivateCrtKey crtKey = (RSAPrivateCrtKey) applicationPrivateKey;
+    return Optional.of(statements.insertRow.bind(
+            timestamp,
+            crtKey.getPrimeP(),
+            crtKey.getPrimeQ(),
+            crtKey.getPrimeExponentP(),
+            crtKey.getPrimeExponentQ(),
+            crtKey.getCrtCoefficient()));
   }
 
   private void invalidateEntry(final @Nonnull Session tenantSession, final @Nonnull String timestamp) {
-    final Update.Assignments updateQuery = QueryBuilder.update(tableName).where(QueryBuilder.eq(TIMESTAMP_COLUMN, timestamp)).with(QueryBuilder.set(VALID_COLUMN, false));
-    tenantSession.execute(updateQuery);
+    tenantSession.execute(getPreparedStatements(tenantSession).invalidateRow.bind(false, timestamp));
+
+    //If the tenant hasn't been migrated yet, the secondary index is still the source of truth.
+    getValidTimestampStatements(tenantSession).ifPresent(statements ->
+            tenantSession.execute(statements.deleteTimestamp.bind(VALID_TIMESTAMPS_BUCKET, timestamp)));
   }
 
   private void completeBoundStatement(
@@ -292,22 +630,56 @@ public class TenantAuthorizationDataRepository implements TenantSignatureReposit
 
   private Optional<Row> getRow(final @Nonnull String timestamp) {
     final Session tenantSession = cassandraSessionProvider.getTenantSession();
-    final Select.Where query = timestampToSignatureQueryMap.computeIfAbsent(timestamp, timestampKey ->
-            QueryBuilder.select().from(tableName).where(QueryBuilder.eq(TIMESTAMP_COLUMN, timestampKey)));
+    final SessionTimestamp key = new SessionTimestamp(tenantSession, timestamp);
+    final CompletableFuture<Optional<Row>> read = new CompletableFuture<>();
+    final CompletableFuture<Optional<Row>> inFlightRead = inFlightRowReads.putIfAbsent(key, read);
+    if (inFlightRead != null)
+      return awaitRow(inFlightRead);
+
     try {
-      final Row row = tenantSession.execute(query).one();
-      final Optional<Row> ret = Optional.ofNullable(row);
-      ret.map(TenantAuthorizationDataRepository::mapRowToValid).ifPresent(valid -> {
-        if (!valid)
-          logger.warn("Invalidated keyset for timestamp '" + timestamp + "' requested. Pretending no keyset exists.");
-      });
-      return ret.filter(TenantAuthorizationDataRepository::mapRowToValid);
+      final Optional<Row> row = readRow(tenantSession, timestamp);
+      read.complete(row);
+      return row;
+    }
+    catch (final RuntimeException e) {
+      read.completeExceptionally(e);
+      throw e;
+    }
+    finally {
+      inFlightRowReads.remove(key, read);
+    }
+  }
+
+  private static Optional<Row> awaitRow(final @Nonnull CompletableFuture<Optional<Row>> inFlightRead) {
+    try {
+      return inFlightRead.join();
+    }
+    catch (final CompletionException e) {
+      if (e.getCause() instanceof RuntimeException)
+        throw (RuntimeException) e.getCause();
+      throw e;
+    }
+  }
+
+  private Optional<Row> readRow(final @Nonnull Session tenantSession, final @Nonnull String timestamp) {
+    try {
+      final Row row = tenantSession.execute(getPreparedStatements(tenantSession).selectRow.bind(timestamp)).one();
+      return filterValid(timestamp, row);
     }
     catch (final InvalidQueryException authorizationDataTableProbablyIsntConfiguredYet) {
       throw new IllegalArgumentException("Tenant not found.");
     }
   }
 
+  private Optional<Row> filterValid(final @Nonnull String timestamp, final Row row) {
+    final Optional<Row> ret = Optional.ofNullable(row);
+    ret.map(TenantAuthorizationDataRepository::mapRowToValid).ifPresent(valid -> {
+      if (!valid)
+        logger.warn("Invalidated keyset for timestamp '" + timestamp + "' requested. Pretending no keyset exists.");
+    });
+    return ret.filter(TenantAuthorizationDataRepository::mapRowToValid);
+  }
+
   private static Boolean mapRowToValid(final @Nonnull Row row) {
     return row.get(VALID_COLUMN, Boolean.class);
   }
@@ -332,7 +704,14 @@ public class TenantAuthorizationDataRepository implements TenantSignatureReposit
     return getSignature(row, APPLICATION_PUBLIC_KEY_MOD_COLUMN, APPLICATION_PUBLIC_KEY_EXP_COLUMN);
   }
 
-  private static RsaKeyPairFactory.KeyPairHolder mapRowToKeyPairHolder(final @Nonnull Row row) {
+  /**
+   * @param crtRow The chinese remainder theorem parameters of the private key, if they were saved.  Without them the
+   *               private key can only be built from its modulus and exponent.  They are only used if their primes
+   *               are those of the modulus, so that parameters left over from a replaced key are never combined with
+   *               the key which replaced it.
+   */
+  private static RsaKeyPairFactory.KeyPairHolder mapRowToKeyPairHolder(final @Nonnull Row row,
+                                                                       final @Nonnull Optional<Row> crtRow) {
     final BigInteger publicKeyModulus = row.get(APPLICATION_PUBLIC_KEY_MOD_COLUMN, BigInteger.class);
     final BigInteger publicKeyExponent = row.get(APPLICATION_PUBLIC_KEY_EXP_COLUMN, BigInteger.class);
     final BigInteger privateKeyModulus = row.get(APPLICATION_PRIVATE_KEY_MOD_COLUMN, BigInteger.class);
@@ -342,14 +721,55 @@ public class TenantAuthorizationDataRepository implements TenantSignatureReposit
             .setPublicKeyMod(publicKeyModulus)
             .setPublicKeyExp(publicKeyExponent)
             .build();
-    final PrivateKey privateKey = new RsaPrivateKeyBuilder()
-            .setPrivateKeyMod(privateKeyModulus)
-            .setPrivateKeyExp(privateKeyExponent)
-            .build();
+    final PrivateKey privateKey = crtRow
+            .filter(x -> isPrivateKeyCrtRowOf(x, privateKeyModulus))
+            .map(x -> new RSAPrivateCrtKeySpec(
+                    privateKeyModulus,
+                    publicKeyExponent,
+                    privateKeyExponent,
+                    x.get(APPLICATION_PRIVATE_KEY_PRIME_P_COLUMN, BigInteger.class),
+                    x.get(APPLICATION_PRIVATE_KEY_PRIME_Q_COLUMN, BigInteger.class),
+                    x.get(APPLICATION_PRIVATE_KEY_PRIME_EXP_P_COLUMN, BigInteger.class),
+                    x.get(APPLICATION_PRIVATE_KEY_PRIME_EXP_Q_COLUMN, BigInteger.class),
+                    x.get(APPLICATION_PRIVATE_KEY_CRT_COEFFICIENT_COLUMN, BigInteger.class)))
+            .map(TenantAuthorizationDataRepository::buildPrivateKey)
+            .orElseGet(() -> new RsaPrivateKeyBuilder()
+                    .setPrivateKeyMod(privateKeyModulus)
+                    .setPrivateKeyExp(privateKeyExponent)
+                    .build());
     final String timestamp = row.get(TIMESTAMP_COLUMN, String.class);
     return new RsaKeyPairFactory.KeyPairHolder(timestamp, (RSAPublicKey)publicKey, (RSAPrivateKey)privateKey);
   }
 
+  private static boolean isPrivateKeyCrtRowOf(final @Nonnull Row crtRow, final BigInteger privateKeyModulus) {
+    final BigInteger primeP = crtRow.get(APPLICATION_PRIVATE_KEY_PRIME_P_COLUMN, BigInteger.class);
+    final BigInteger primeQ = crtRow.get(APPLICATION_PRIVATE_KEY_PRIME_Q_COLUMN, BigInteger.class);
+    return primeP != null && primeQ != null
+            && crtRow.get(APPLICATION_PRIVATE_KEY_PRIME_EXP_P_COLUMN, BigInteger.class) != null
+            && crtRow.get(APPLICATION_PRIVATE_KEY_PRIME_EXP_Q_COLUMN, BigInteger.class) != null
+            && crtRow.get(APPLICATION_PRIVATE_KEY_CRT_COEFFICIENT_COLUMN, BigInteger.class) != null
+            && primeP.multiply(primeQ).equals(privateKeyModulus);
+  }
+
+  private static PrivateKey buildPrivateKey(final @Nonnull RSAPrivateCrtKeySpec keySpec) {
+    try {
+      return KeyFactory.getInstance("RSA").generatePrivate(keySpec);
+    }
+    catch (final NoSuchAlgorithmException | InvalidKeySpecException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private CompletableFuture<Optional<Row>> readPrivateKeyCrtRowAsync(
+          final @Nonnull Session tenantSession,
+          final @Nonnull Optional<PrivateKeyCrtStatements> privateKeyCrtStatements,
+          final @Nonnull String timestamp) {
+    return privateKeyCrtStatements
+            .map(statements -> executeAsync(tenantSession, statements.selectRow.bind(timestamp))
+                    .thenApply(resultSet -> Optional.ofNullable(resultSet.one())))
+            .orElseGet(() -> CompletableFuture.completedFuture(Optional.empty()));
+  }
+
   private static ApplicationSignatureSet mapRowToSignatureSet(final @Nonnull Row row) {
     final String timestamp = row.get(TIMESTAMP_COLUMN, String.class);
     final Signature identityManagerSignature = mapRowToIdentityManagerSignature(row);
@@ -359,13 +779,25 @@ public class TenantAuthorizationDataRepository implements TenantSignatureReposit
   }
 
   public List<String> getAllSignatureSetKeyTimestamps() {
-    final Select.Where selectValid = QueryBuilder.select(TIMESTAMP_COLUMN).from(tableName).where(QueryBuilder.eq(VALID_COLUMN, true));
-    final ResultSet result = cassandraSessionProvider.getTenantSession().execute(selectValid);
+    final Session tenantSession = cassandraSessionProvider.getTenantSession();
+    final ResultSet result = tenantSession.execute(getPreparedStatements(tenantSession).selectValidTimestamps.bind(true));
     return StreamSupport.stream(result.spliterator(), false)
             .map(x -> x.get(TIMESTAMP_COLUMN, String.class))
             .collect(Collectors.toList());
   }
 
+  /**
+   * Reads all valid rows with one query over the valid index, rather than a point read per timestamp.
+   */
+  @Override
+  public List<ApplicationSignatureSet> getAllSignatureSets() {
+    final Session tenantSession = cassandraSessionProvider.getTenantSession();
+    final ResultSet result = tenantSession.execute(getPreparedStatements(tenantSession).selectValidRows.bind(true));
+    return StreamSupport.stream(result.spliterator(), false)
+            .map(TenantAuthorizationDataRepository::mapRowToSignatureSet)
+            .collect(Collectors.toList());
+  }
+
   public Optional<ApplicationSignatureSet> getSignatureSet(final String timestamp) {
     Assert.notNull(timestamp);
     return getRow(timestamp).map(TenantAuthorizationDataRepository::mapRowToSignatureSet);
@@ -385,12 +817,428 @@ public class TenantAuthorizationDataRepository implements TenantSignatureReposit
 
   @Override
   public Optional<RsaKeyPairFactory.KeyPairHolder> getLatestApplicationSigningKeyPair() {
+    final Session tenantSession = cassandraSessionProvider.getTenantSession();
+    final Optional<PrivateKeyCrtStatements> privateKeyCrtStatements = getPrivateKeyCrtStatements(tenantSession);
     Optional<String> timestamp = getMostRecentTimestamp();
-    return timestamp.flatMap(this::getRow).map(TenantAuthorizationDataRepository::mapRowToKeyPairHolder);
+    //The private key parameters are read while the row is, rather than after it.
+    return timestamp.flatMap(x -> {
+      final CompletableFuture<Optional<Row>> crtRow
+              = readPrivateKeyCrtRowAsync(tenantSession, privateKeyCrtStatements, x);
+      return getRow(x).map(row -> mapRowToKeyPairHolder(row, awaitRow(crtRow)));
+    });
   }
 
+  /**
+   * The most recent valid timestamp is usually the first row of the single partition in the valid timestamps table.
+   * The rows are read in their clustering order until one names a signature set which is still valid.  Rows naming
+   * sets which were invalidated without being removed from the table, for example by a node which doesn't know about
+   * it, are removed on the way.  Once the table exists it was reconciled with the secondary index on the data table,
+   * so the index is only used for tenants which haven't been migrated yet.
+   */
   private Optional<String> getMostRecentTimestamp() {
-    return getAllSignatureSetKeyTimestamps().stream()
-            .max(String::compareTo);
+    final Session tenantSession = cassandraSessionProvider.getTenantSession();
+    final Optional<ValidTimestampStatements> validTimestampStatements = getValidTimestampStatements(tenantSession);
+    if (!validTimestampStatements.isPresent())
+      return getAllSignatureSetKeyTimestamps().stream().max(String::compareTo);
+
+    final ValidTimestampStatements statements = validTimestampStatements.get();
+    final ResultSet listedTimestamps = tenantSession.execute(statements.selectTimestamps.bind(VALID_TIMESTAMPS_BUCKET)
+            .setFetchSize(VALID_TIMESTAMPS_FETCH_SIZE));
+    for (final Row listedTimestamp : listedTimestamps) {
+      final String timestamp = listedTimestamp.get(TIMESTAMP_COLUMN, String.class);
+      if (getRow(timestamp).isPresent())
+        return Optional.of(timestamp);
+      removeStaleTimestamp(tenantSession, statements, timestamp);
+    }
+    return Optional.empty();
+  }
+
+  private void removeStaleTimestamp(final @Nonnull Session tenantSession,
+                                    final @Nonnull ValidTimestampStatements statements,
+                                    final @Nonnull String timestamp) {
+    logger.info("Removing timestamp '" + timestamp + "' of invalid signature set from " + validTimestampsTableName + ".");
+    tenantSession.execute(statements.deleteTimestamp.bind(VALID_TIMESTAMPS_BUCKET, timestamp));
+  }
+
+  @Override
+  public CompletionStage<Optional<Signature>> getIdentityManagerSignatureAsync(final String timestamp) {
+    Assert.notNull(timestamp);
+    return withTenantSession(tenantSession -> getRowAsync(tenantSession, getPreparedStatements(tenantSession), timestamp))
+            .thenApply(row -> row.map(TenantAuthorizationDataRepository::mapRowToIdentityManagerSignature));
+  }
+
+  @Override
+  public CompletionStage<Optional<Signature>> getApplicationSignatureAsync(final String timestamp) {
+    Assert.notNull(timestamp);
+    return withTenantSession(tenantSession -> getRowAsync(tenantSession, getPreparedStatements(tenantSession), timestamp))
+            .thenApply(row -> row.map(TenantAuthorizationDataRepository::mapRowToApplicationSignature));
+  }
+
+  @Override
+  public CompletionStage<Optional<ApplicationSignatureSet>> getLatestSignatureSetAsync() {
+    return withTenantSession(this::getLatestRowAsync)
+            .thenApply(row -> row.map(TenantAuthorizationDataRepository::mapRowToSignatureSet));
+  }
+
+  @Override
+  public CompletionStage<Optional<RsaKeyPairFactory.KeyPairHolder>> getLatestApplicationSigningKeyPairAsync() {
+    return withTenantSession(tenantSession -> {
+      final PreparedStatements preparedStatements = getPreparedStatements(tenantSession);
+      final Optional<PrivateKeyCrtStatements> privateKeyCrtStatements = getPrivateKeyCrtStatements(tenantSession);
+      //The private key parameters are read while the row is, rather than after it.
+      return getLatestAsync(tenantSession, preparedStatements, timestamp -> {
+        final CompletableFuture<Optional<Row>> crtRow
+                = readPrivateKeyCrtRowAsync(tenantSession, privateKeyCrtStatements, timestamp);
+        return getRowAsync(tenantSession, preparedStatements, timestamp)
+                .thenCombine(crtRow, (row, x) -> row.map(y -> mapRowToKeyPairHolder(y, x)));
+      });
+    });
+  }
+
+  private CompletableFuture<Optional<Row>> getRowAsync(final @Nonnull Session tenantSession,
+                                                       final @Nonnull PreparedStatements preparedStatements,
+                                                       final @Nonnull String timestamp) {
+    return executeAsync(tenantSession, preparedStatements.selectRow.bind(timestamp))
+            .thenApply(resultSet -> filterValid(timestamp, resultSet.one()));
+  }
+
+  private CompletableFuture<Optional<Row>> getLatestRowAsync(final @Nonnull Session tenantSession) {
+    final PreparedStatements preparedStatements = getPreparedStatements(tenantSession);
+    return getLatestAsync(tenantSession, preparedStatements,
+            timestamp -> getRowAsync(tenantSession, preparedStatements, timestamp));
+  }
+
+  /**
+   * Like {@link #getMostRecentTimestamp}, but stale rows are removed without waiting for the removal, and further pages
+   * of the valid timestamps table are only fetched if all the rows on those before were stale.
+   *
+   * @param readValid Reads what is wanted for a timestamp, which is empty if the signature set isn't valid.
+   */
+  private <T> CompletableFuture<Optional<T>> getLatestAsync(
+          final @Nonnull Session tenantSession,
+          final @Nonnull PreparedStatements preparedStatements,
+          final @Nonnull Function<String, CompletableFuture<Optional<T>>> readValid) {
+    final Optional<ValidTimestampStatements> validTimestampStatements = getValidTimestampStatements(tenantSession);
+    if (!validTimestampStatements.isPresent())
+      return getLatestFromIndexAsync(tenantSession, preparedStatements, readValid);
+
+    final ValidTimestampStatements statements = validTimestampStatements.get();
+    return executeAsync(tenantSession, statements.selectTimestamps.bind(VALID_TIMESTAMPS_BUCKET)
+            .setFetchSize(VALID_TIMESTAMPS_FETCH_SIZE))
+            .thenCompose(resultSet -> getFirstValidAsync(tenantSession, statements, resultSet, readValid));
+  }
+
+  private <T> CompletableFuture<Optional<T>> getFirstValidAsync(
+          final @Nonnull Session tenantSession,
+          final @Nonnull ValidTimestampStatements statements,
+          final @Nonnull ResultSet listedTimestamps,
+          final @Nonnull Function<String, CompletableFuture<Optional<T>>> readValid) {
+    if (listedTimestamps.getAvailableWithoutFetching() == 0) {
+      if (listedTimestamps.isFullyFetched())
+        return CompletableFuture.completedFuture(Optional.empty());
+      return fetchMoreResultsAsync(listedTimestamps)
+              .thenCompose(x -> getFirstValidAsync(tenantSession, statements, x, readValid));
+    }
+
+    final String timestamp = listedTimestamps.one().get(TIMESTAMP_COLUMN, String.class);
+    return readValid.apply(timestamp).thenCompose(latest -> {
+      if (latest.isPresent())
+        return CompletableFuture.completedFuture(latest);
+
+      logger.info("Removing timestamp '" + timestamp + "' of invalid signature set from " + validTimestampsTableName + ".");
+      executeAsync(tenantSession, statements.deleteTimestamp.bind(VALID_TIMESTAMPS_BUCKET, timestamp));
+      return getFirstValidAsync(tenantSession, statements, listedTimestamps, readValid);
+    });
+  }
+
+  private <T> CompletableFuture<Optional<T>> getLatestFromIndexAsync(
+          final @Nonnull Session tenantSession,
+          final @Nonnull PreparedStatements preparedStatements,
+          final @Nonnull Function<String, CompletableFuture<Optional<T>>> readValid) {
+    return executeAsync(tenantSession, preparedStatements.selectValidTimestamps.bind(true))
+            .thenCompose(resultSet -> getMostRecentTimestampAsync(resultSet, Optional.empty()))
+            .thenCompose(mostRecentTimestamp -> mostRecentTimestamp
+                    .map(readValid)
+                    .orElseGet(() -> CompletableFuture.completedFuture(Optional.empty())));
+  }
+
+  /**
+   * Only looks at the rows which are already available, and fetches the next page asynchronously, so that no callback
+   * thread blocks on paging through the index.
+   */
+  private CompletableFuture<Optional<String>> getMostRecentTimestampAsync(final @Nonnull ResultSet validTimestamps,
+                                                                         final @Nonnull Optional<String> mostRecentSoFar) {
+    Optional<String> mostRecent = mostRecentSoFar;
+    for (int i = validTimestamps.getAvailableWithoutFetching(); i > 0; i--) {
+      final String timestamp = validTimestamps.one().get(TIMESTAMP_COLUMN, String.class);
+      if (!mostRecent.isPresent() || timestamp.compareTo(mostRecent.get()) > 0)
+        mostRecent = Optional.of(timestamp);
+    }
+
+    if (validTimestamps.isFullyFetched())
+      return CompletableFuture.completedFuture(mostRecent);
+    final Optional<String> mostRecentOnFetchedPages = mostRecent;
+    return fetchMoreResultsAsync(validTimestamps)
+            .thenCompose(x -> getMostRecentTimestampAsync(x, mostRecentOnFetchedPages));
+  }
+
+  private <T> CompletableFuture<T> withTenantSession(final Function<Session, CompletableFuture<T>> operation) {
+    try {
+      return operation.apply(cassandraSessionProvider.getTenantSession());
+    }
+    catch (final InvalidQueryException authorizationDataTableProbablyIsntConfiguredYet) {
+      return failedFuture(new IllegalArgumentException("Tenant not found."));
+    }
+    catch (final RuntimeException e) {
+      return failedFuture(e);
+    }
+  }
+
+  private CompletableFuture<ResultSet> executeAsync(final @Nonnull Session tenantSession,
+                                                           final @Nonnull Statement statement) {
+    return toCompletableFuture(tenantSession.executeAsync(statement));
+  }
+
+  /**
+   * Unlike iterating past the rows which are available, this doesn't block the calling thread on the next page.
+   */
+  private CompletableFuture<ResultSet> fetchMoreResultsAsync(final @Nonnull ResultSet resultSet) {
+    return toCompletableFuture(resultSet.fetchMoreResults());
+  }
+
+  private CompletableFuture<ResultSet> toCompletableFuture(final @Nonnull ListenableFuture<ResultSet> resultSetFuture) {
+    final CompletableFuture<ResultSet> ret = new CompletableFuture<>();
+    resultSetFuture.addListener(() -> {
+      try {
+        ret.complete(resultSetFuture.get());
+      }
+      catch (final ExecutionException e) {
+        final Throwable cause = e.getCause();
+        ret.completeExceptionally(cause instanceof InvalidQueryException
+                ? new IllegalArgumentException("Tenant not found.")
+                : cause);
+      }
+      catch (final InterruptedException | RuntimeException e) {
+        ret.completeExceptionally(e);
+      }
+    }, callbackExecutor);
+    return ret;
+  }
+
+  private static <T> CompletableFuture<T> failedFuture(final @Nonnull Throwable throwable) {
+    final CompletableFuture<T> ret = new CompletableFuture<>();
+    ret.completeExceptionally(throwable);
+    return ret;
+  }
+
+  /**
+   * Statements are only cached once they could all be prepared.  Preparing fails with an InvalidQueryException if the
+   * table hasn't been created yet for the tenant, so that case is retried on the next call.
+   */
+  private PreparedStatements getPreparedStatements(final @Nonnull Session tenantSession) {
+    return getOrPrepare(sessionToPreparedStatementsMap, tenantSession,
+            session -> new PreparedStatements(session, tableName));
+  }
+
+  /**
+   * Statements are prepared outside of the lock of the map, so that a slow prepare round trip for one tenant session
+   * doesn't hold up the others.  If two threads prepare for the same session at once, the first to finish wins.
+   */
+  private static <T> T getOrPrepare(final @Nonnull Map<Session, T> statementsMap,
+                                    final @Nonnull Session tenantSession,
+                                    final @Nonnull Function<Session, T> prepare) {
+    final T existing = statementsMap.get(tenantSession);
+    if (existing != null)
+      return existing;
+
+    final T prepared = prepare.apply(tenantSession);
+    final T raced = statementsMap.putIfAbsent(tenantSession, prepared);
+    return raced != null ? raced : prepared;
+  }
+
+  private Optional<ValidTimestampStatements> getValidTimestampStatements(final @Nonnull Session tenantSession) {
+    return getOrPrepareIfTableExists(sessionToValidTimestampStatementsMap, tenantSession,
+            session -> new ValidTimestampStatements(session, validTimestampsTableName));
+  }
+
+  /**
+   * Tables which were added after the data table don't exist for tenants which haven't been migrated yet.  Preparing
+   * statements for them fails with an InvalidQueryException.  That outcome is cached like prepared statements are, so
+   * that reads don't pay a failed round trip each time.  {@link #createTable} forgets it once it has created the tables.
+   */
+  private static <T> Optional<T> getOrPrepareIfTableExists(final @Nonnull Map<Session, Optional<T>> statementsMap,
+                                                           final @Nonnull Session tenantSession,
+                                                           final @Nonnull Function<Session, T> prepare) {
+    return getOrPrepare(statementsMap, tenantSession, session -> {
+      try {
+        return Optional.of(prepare.apply(session));
+      }
+      catch (final InvalidQueryException tableProbablyIsntCreatedYet) {
+        return Optional.empty();
+      }
+    });
+  }
+
+  private Optional<PrivateKeyCrtStatements> getPrivateKeyCrtStatements(final @Nonnull Session tenantSession) {
+    return getOrPrepareIfTableExists(sessionToPrivateKeyCrtStatementsMap, tenantSession,
+            session -> new PrivateKeyCrtStatements(session, privateKeyCrtTableName));
+  }
+
+  /**
+   * The statements a batch of signature sets is written with, prepared before any of them is.
+   */
+  private static class SignatureSetStatements {
+    private final Session tenantSession;
+    private final PreparedStatements preparedStatements;
+    private final Optional<ValidTimestampStatements> validTimestampStatements;
+    private final Optional<PrivateKeyCrtStatements> privateKeyCrtStatements;
+
+    SignatureSetStatements(final @Nonnull Session tenantSession,
+                           final @Nonnull PreparedStatements preparedStatements,
+                           final @Nonnull Optional<ValidTimestampStatements> validTimestampStatements,
+                           final @Nonnull Optional<PrivateKeyCrtStatements> privateKeyCrtStatements) {
+      this.tenantSession = tenantSession;
+      this.preparedStatements = preparedStatements;
+      this.validTimestampStatements = validTimestampStatements;
+      this.privateKeyCrtStatements = privateKeyCrtStatements;
+    }
+  }
+
+  private static class PreparedSignatureSet {
+    private final SignatureSetRequest request;
+    private final SignatureSetResult result;
+    private final SignatureSetStatements statements;
+    private final RsaKeyPairFactory.KeyPairHolder applicationKeyPair;
+
+    private PreparedSignatureSet(final @Nonnull SignatureSetRequest request,
+                                 final SignatureSetResult result,
+                                 final SignatureSetStatements statements,
+                                 final RsaKeyPairFactory.KeyPairHolder applicationKeyPair) {
+      this.request = request;
+      this.result = result;
+      this.statements = statements;
+      this.applicationKeyPair = applicationKeyPair;
+    }
+
+    static PreparedSignatureSet done(final @Nonnull SignatureSetRequest request,
+                                     final @Nonnull SignatureSetResult result) {
+      return new PreparedSignatureSet(request, result, null, null);
+    }
+
+    static PreparedSignatureSet pending(final @Nonnull SignatureSetRequest request,
+                                        final @Nonnull SignatureSetStatements statements,
+                                        final @Nonnull RsaKeyPairFactory.KeyPairHolder applicationKeyPair) {
+      return new PreparedSignatureSet(request, null, statements, applicationKeyPair);
+    }
+  }
+
+  private static class SessionTimestamp {
+    private final Session session;
+    private final String timestamp;
+
+    SessionTimestamp(final @Nonnull Session session, final @Nonnull String timestamp) {
+      this.session = session;
+      this.timestamp = timestamp;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      SessionTimestamp that = (SessionTimestamp) o;
+      return session == that.session &&
+          Objects.equals(timestamp, that.timestamp);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(System.identityHashCode(session), timestamp);
+    }
+  }
+
+  private static class ValidTimestampStatements {
+    private final PreparedStatement selectTimestamps;
+    private final PreparedStatement insertTimestamp;
+    private final PreparedStatement deleteTimestamp;
+
+    ValidTimestampStatements(final @Nonnull Session tenantSession, final @Nonnull String tableName) {
+      selectTimestamps = tenantSession.prepare(QueryBuilder.select(TIMESTAMP_COLUMN).from(tableName)
+              .where(QueryBuilder.eq(BUCKET_COLUMN, QueryBuilder.bindMarker())));
+
+      insertTimestamp = tenantSession.prepare(QueryBuilder.insertInto(tableName)
+              .value(BUCKET_COLUMN, QueryBuilder.bindMarker())
+              .value(TIMESTAMP_COLUMN, QueryBuilder.bindMarker()));
+
+      deleteTimestamp = tenantSession.prepare(QueryBuilder.delete().from(tableName)
+              .where(QueryBuilder.eq(BUCKET_COLUMN, QueryBuilder.bindMarker()))
+              .and(QueryBuilder.eq(TIMESTAMP_COLUMN, QueryBuilder.bindMarker())));
+    }
+  }
+
+  private static class PrivateKeyCrtStatements {
+    private final PreparedStatement selectRow;
+    private final PreparedStatement insertRow;
+    private final PreparedStatement deleteRow;
+
+    PrivateKeyCrtStatements(final @Nonnull Session tenantSession, final @Nonnull String tableName) {
+      selectRow = tenantSession.prepare(QueryBuilder.select().from(tableName)
+              .where(QueryBuilder.eq(TIMESTAMP_COLUMN, QueryBuilder.bindMarker())));
+
+      deleteRow = tenantSession.prepare(QueryBuilder.delete().from(tableName)
+              .where(QueryBuilder.eq(TIMESTAMP_COLUMN, QueryBuilder.bindMarker())));
+
+      insertRow = tenantSession.prepare(QueryBuilder.insertInto(tableName)
+              .value(TIMESTAMP_COLUMN, QueryBuilder.bindMarker())
+              .value(APPLICATION_PRIVATE_KEY_PRIME_P_COLUMN, QueryBuilder.bindMarker())
+              .value(APPLICATION_PRIVATE_KEY_PRIME_Q_COLUMN, QueryBuilder.bindMarker())
+              .value(APPLICATION_PRIVATE_KEY_PRIME_EXP_P_COLUMN, QueryBuilder.bindMarker())
+              .value(APPLICATION_PRIVATE_KEY_PRIME_EXP_Q_COLUMN, QueryBuilder.bindMarker())
+              .value(APPLICATION_PRIVATE_KEY_CRT_COEFFICIENT_COLUMN, QueryBuilder.bindMarker()));
+    }
+  }
+
+  private static class PreparedStatements {
+    private final PreparedStatement selectRow;
+    private final PreparedStatement selectValidTimestamps;
+    private final PreparedStatement selectValidRows;
+    private final PreparedStatement insertRow;
+    private final PreparedStatement updateRow;
+    private final PreparedStatement invalidateRow;
+
+    PreparedStatements(final @Nonnull Session tenantSession, final @Nonnull String tableName) {
+      selectRow = tenantSession.prepare(QueryBuilder.select().from(tableName)
+              .where(QueryBuilder.eq(TIMESTAMP_COLUMN, QueryBuilder.bindMarker())));
+
+      selectValidTimestamps = tenantSession.prepare(QueryBuilder.select(TIMESTAMP_COLUMN).from(tableName)
+              .where(QueryBuilder.eq(VALID_COLUMN, QueryBuilder.bindMarker())));
+
+      selectValidRows = tenantSession.prepare(QueryBuilder.select().from(tableName)
+              .where(QueryBuilder.eq(VALID_COLUMN, QueryBuilder.bindMarker())));
+
+      insertRow = tenantSession.prepare("INSERT INTO " + tableName + " ("
+              + TIMESTAMP_COLUMN + ", "
+              + VALID_COLUMN + ", "
+              + IDENTITY_MANAGER_PUBLIC_KEY_MOD_COLUMN + ", "
+              + IDENTITY_MANAGER_PUBLIC_KEY_EXP_COLUMN + ", "
+              + APPLICATION_PRIVATE_KEY_MOD_COLUMN + ", "
+              + APPLICATION_PRIVATE_KEY_EXP_COLUMN + ", "
+              + APPLICATION_PUBLIC_KEY_MOD_COLUMN + ", "
+              + APPLICATION_PUBLIC_KEY_EXP_COLUMN + ")"
+              + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+
+      updateRow = tenantSession.prepare("UPDATE " + tableName + " SET "
+              + VALID_COLUMN + " = ?, "
+              + IDENTITY_MANAGER_PUBLIC_KEY_MOD_COLUMN + " = ?, "
+              + IDENTITY_MANAGER_PUBLIC_KEY_EXP_COLUMN + " = ?, "
+              + APPLICATION_PRIVATE_KEY_MOD_COLUMN + " = ?, "
+              + APPLICATION_PRIVATE_KEY_EXP_COLUMN + " = ?, "
+              + APPLICATION_PUBLIC_KEY_MOD_COLUMN + " = ?, "
+              + APPLICATION_PUBLIC_KEY_EXP_COLUMN + " = ? "
+              + "WHERE " + TIMESTAMP_COLUMN + " = ?");
+
+      invalidateRow = tenantSession.prepare(QueryBuilder.update(tableName)
+              .with(QueryBuilder.set(VALID_COLUMN, QueryBuilder.bindMarker()))
+              .where(QueryBuilder.eq(TIMESTAMP_COLUMN, QueryBuilder.bindMarker())));
+    }
   }
 }
\ No newline at end of file
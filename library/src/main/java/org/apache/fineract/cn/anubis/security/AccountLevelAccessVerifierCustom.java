@@ -18,14 +18,21 @@
  */
 package org.apache.fineract.cn.anubis.security;
 
+import org.apache.fineract.cn.anubis.api.v1.domain.AccountAccess;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * @author manoj
@@ -34,22 +41,101 @@ import java.util.stream.Collectors;
 public class AccountLevelAccessVerifierCustom {
     private final static String OWNER = "OWNER";
 
-    @Value("${conf.enableAccountLevelAccessVerification}")
-    private String isAccountLevelAccessVerificationEnabled;
+    private final boolean accountLevelAccessVerificationEnabled;
+
+    @Autowired
+    public AccountLevelAccessVerifierCustom(
+            @Value("${conf.enableAccountLevelAccessVerification}") final String isAccountLevelAccessVerificationEnabled) {
+        this.accountLevelAccessVerificationEnabled = "true".equals(isAccountLevelAccessVerificationEnabled);
+    }
 
     public void validate(String accountNo, String operation){
-        if(!"true".equals(isAccountLevelAccessVerificationEnabled)) return;
-        AnubisAuthentication authentication = (AnubisAuthentication)SecurityContextHolder.getContext().getAuthentication();
-        String acctPermission = "ACCT_ACCESS_" + accountNo;
-        final Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
-        final Set<String> accountOperation = authorities.stream()
-                .map(x -> (ApplicationPermission) x)
-                .filter(x -> x.matches(acctPermission, "get", authentication.getPrincipal().getForApplicationName(), authentication.getPrincipal()))
-                .map(ApplicationPermission::getAccountOperation)
-                .collect(Collectors.toSet());
-
-        if(accountOperation.size() == 0  || !(accountOperation.contains(OWNER) || accountOperation.contains(operation))) {
+        if (!isPermitted(accountNo, operation)) {
             throw AccountLevelAccessDeniedException.internalError("Access Denied, " + operation + " on " + accountNo);
         }
     }
+
+    public boolean isPermitted(final String accountNo, final String operation) {
+        return accountAccessChecker().test(accountNo, operation);
+    }
+
+    /**
+     * Checks many accounts against the current authentication at once, for list and batch endpoints.
+     *
+     * @param accountAccesses The accounts, each with the operations requested on it.
+     * @return For each account, in the order given, whether every operation requested on it is permitted.  If an
+     * account is given more than once, it is permitted only if all of its requests are.  An account for which no
+     * operation is requested is not permitted, unless account level access verification is turned off, in which
+     * case every account is permitted.
+     */
+    public Map<String, Boolean> verify(final Collection<AccountAccess> accountAccesses) {
+        final BiPredicate<String, String> accountAccessChecker = accountAccessChecker();
+        final Map<String, Boolean> ret = new LinkedHashMap<>();
+        for (final AccountAccess accountAccess : accountAccesses) {
+            final boolean permitted = isPermitted(accountAccessChecker, accountAccess);
+            ret.merge(accountAccess.getNumber(), permitted, Boolean::logicalAnd);
+        }
+        return ret;
+    }
+
+    /**
+     * @return Those of the given account accesses for which every requested operation is permitted, in the order given.
+     * Account accesses which request no operation are left out, unless account level access verification is turned
+     * off, in which case all are returned.
+     */
+    public List<AccountAccess> filterPermitted(final Collection<AccountAccess> accountAccesses) {
+        final BiPredicate<String, String> accountAccessChecker = accountAccessChecker();
+        final List<AccountAccess> ret = new ArrayList<>(accountAccesses.size());
+        for (final AccountAccess accountAccess : accountAccesses) {
+            if (isPermitted(accountAccessChecker, accountAccess))
+                ret.add(accountAccess);
+        }
+        return ret;
+    }
+
+    /**
+     * @param accountNumber Maps an element of the stream to the number of the account it belongs to.
+     * @return The elements of the stream on whose account the operation is permitted.  The current authentication is
+     * resolved when this is called, so the stream may be consumed later or on another thread.
+     */
+    public <T> Stream<T> filter(final Stream<T> elements,
+                                final Function<? super T, String> accountNumber,
+                                final String operation) {
+        if (!accountLevelAccessVerificationEnabled)
+            return elements;
+        final BiPredicate<String, String> accountAccessChecker = accountAccessChecker();
+        return elements.filter(x -> accountAccessChecker.test(accountNumber.apply(x), operation));
+    }
+
+    /**
+     * Denies an access which requests no operation, rather than letting it pass because there is nothing to check.
+     * With verification turned off, every access is permitted, as in the other checks.
+     */
+    private boolean isPermitted(final BiPredicate<String, String> accountAccessChecker,
+                                final AccountAccess accountAccess) {
+        if (!accountLevelAccessVerificationEnabled)
+            return true;
+        final Set<String> operations = accountAccess.getAccess();
+        if (operations == null || operations.isEmpty())
+            return false;
+        for (final String operation : operations) {
+            if (!accountAccessChecker.test(accountAccess.getNumber(), operation))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Resolves the current authentication once, so that checking many accounts doesn't look it up again for each.
+     */
+    private BiPredicate<String, String> accountAccessChecker() {
+        if (!accountLevelAccessVerificationEnabled)
+            return (accountNo, operation) -> true;
+
+        final AnubisAuthentication authentication = (AnubisAuthentication)SecurityContextHolder.getContext().getAuthentication();
+        return (accountNo, operation) -> {
+            final Set<String> accountOperation = authentication.getAccountOperations(accountNo);
+            return accountOperation.contains(OWNER) || accountOperation.contains(operation);
+        };
+    }
 }
@@ -22,8 +22,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashSet;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -37,7 +36,8 @@ class AnubisAuthentication implements Authentication {
   private final String userIdentifier;
   private final String forApplicationName;
   private final String sourceApplicationName;
-  private final Set<ApplicationPermission> applicationPermissions;
+  private final ApplicationPermissionSet applicationPermissions;
+  private final AnubisPrincipal principal;
 
   AnubisAuthentication(final String token,
                        final String userIdentifier,
@@ -50,7 +50,19 @@ class AnubisAuthentication implements Authentication {
     this.userIdentifier = userIdentifier;
     this.forApplicationName = forApplicationName;
     this.sourceApplicationName = sourceApplicationName;
-    this.applicationPermissions = Collections.unmodifiableSet(new HashSet<>(applicationPermissions));
+    //Permission sets built by the authenticators are immutable and are shared rather than copied.
+    this.applicationPermissions = ApplicationPermissionSet.of(applicationPermissions);
+    //The principal is immutable, so it is built once rather than on every vote.
+    this.principal = new AnubisPrincipal(userIdentifier, forApplicationName, sourceApplicationName);
+  }
+
+  /**
+   * @return A new authentication for the same token, sharing this one's immutable permissions, so that it can be
+   * handed to another request without sharing the mutable authenticated flag.
+   */
+  AnubisAuthentication copy() {
+    return new AnubisAuthentication(
+        token, userIdentifier, forApplicationName, sourceApplicationName, applicationPermissions);
   }
 
   @Override
@@ -58,6 +70,26 @@ class AnubisAuthentication implements Authentication {
     return applicationPermissions;
   }
 
+  /**
+   * @param applicationName The name of the application the authentication is being checked by.
+   * @return A permission of this authentication which grants access to the request, if there is one.  The
+   * permissions are compiled for matching request paths together with the permission set, which is shared by
+   * authentications for the same token content, so that they aren't compiled again for each request.
+   */
+  Optional<ApplicationPermission> findMatch(final String applicationName,
+                                            final String servletPath,
+                                            final String method) {
+    return applicationPermissions.findMatch(applicationName, principal, servletPath, method);
+  }
+
+  /**
+   * @return The account operations granted on the account by this authentication.  Looked up in an index built when
+   * the authentication was, rather than by matching the account against each permission.
+   */
+  Set<String> getAccountOperations(final String accountNumber) {
+    return applicationPermissions.getAccountOperations(accountNumber);
+  }
+
   @Override
   public Object getCredentials() {
     return token;
@@ -70,7 +102,7 @@ class AnubisAuthentication implements Authentication {
 
   @Override
   public AnubisPrincipal getPrincipal() {
-    return new AnubisPrincipal(userIdentifier, forApplicationName, sourceApplicationName);
+    return principal;
   }
 
   @Override
@@ -25,14 +25,10 @@ import org.apache.fineract.cn.lang.ApplicationName;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.web.FilterInvocation;
 
-import javax.annotation.Nonnull;
 import javax.servlet.http.HttpServletRequest;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.function.BiPredicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * @author Myrle Krantz
@@ -68,11 +64,34 @@ public class ApplicationPermission implements GrantedAuthority {
     this.acceptTokenIntendedForForeignApplication = acceptTokenIntendedForForeignApplication;
   }
 
+  /**
+   * For permissions which differ only in their operation, so that the servlet path is split into segment matchers once
+   * rather than once per operation.
+   */
+  ApplicationPermission(
+          final List<PermissionSegmentMatcher> servletPathSegmentMatchers,
+          final AllowedOperation allowedOperation,
+          final String accountOperation,
+          final boolean acceptTokenIntendedForForeignApplication) {
+    this.allowedOperation = allowedOperation;
+    this.accountOperation = accountOperation;
+    this.servletPathSegmentMatchers = servletPathSegmentMatchers;
+    this.acceptTokenIntendedForForeignApplication = acceptTokenIntendedForForeignApplication;
+  }
+
 
   AllowedOperation getAllowedOperation() {
     return allowedOperation;
   }
 
+  List<PermissionSegmentMatcher> getServletPathSegmentMatchers() {
+    return servletPathSegmentMatchers;
+  }
+
+  boolean isAcceptTokenIntendedForForeignApplication() {
+    return acceptTokenIntendedForForeignApplication;
+  }
+
   @Override public String getAuthority() {
     return URL_AUTHORITY;
   }
@@ -81,6 +100,22 @@ public class ApplicationPermission implements GrantedAuthority {
     return accountOperation;
   }
 
+  /**
+   * @return The number of the account this permission grants its account operation on, or null if this is not an
+   * account permission.
+   */
+  String getAccountNumber() {
+    if (accountOperation == null || servletPathSegmentMatchers.size() != 1)
+      return null;
+
+    final PermissionSegmentMatcher matcher = servletPathSegmentMatchers.get(0);
+    if (matcher.getKind() != PermissionSegmentMatcher.Kind.LITERAL ||
+        !matcher.getPermissionSegment().startsWith(FinKeycloakClaimBinder.ACCOUNT_PERMISSION_PREFIX))
+      return null;
+
+    return matcher.getPermissionSegment().substring(FinKeycloakClaimBinder.ACCOUNT_PERMISSION_PREFIX.length());
+  }
+
   boolean matches(final FilterInvocation filterInvocation,
                   final ApplicationName applicationName,
                   final AnubisPrincipal principal) {
@@ -93,10 +128,7 @@ public class ApplicationPermission implements GrantedAuthority {
     if (!acceptTokenIntendedForForeignApplication && !applicationName.toString().equals(principal.getForApplicationName()))
       return false;
     boolean isSu = principal.getUser().equals(ApiConstants.SYSTEM_SU);
-    return matchesHelper(
-        request.getServletPath(),
-        request.getMethod(),
-        (matcher, segment) -> matcher.matches(segment, principal, acceptTokenIntendedForForeignApplication, isSu));
+    return matchesHelper(request.getServletPath(), request.getMethod(), principal, isSu);
   }
 
   boolean matches(final String path, String method,
@@ -105,35 +137,44 @@ public class ApplicationPermission implements GrantedAuthority {
     if (!acceptTokenIntendedForForeignApplication && !applicationName.equals(principal.getForApplicationName()))
       return false;
     boolean isSu = principal.getUser().equals(ApiConstants.SYSTEM_SU);
-    return matchesHelper(
-            path,
-            method,
-            (matcher, segment) -> matcher.matches(segment, principal, acceptTokenIntendedForForeignApplication, isSu));
+    return matchesHelper(path, method, principal, isSu);
   }
 
+  /**
+   * Walks the segments of the servlet path by index rather than splitting it, so that checking a permission
+   * doesn't allocate.  Segments are the same as those servletPath.split("/") would return.
+   */
   private boolean matchesHelper(final String servletPath, final String method,
-                                @Nonnull final BiPredicate<PermissionSegmentMatcher, String> segmentMatcher) {
-    final boolean opMatches = allowedOperation.containsHttpMethod(method);
-    final String[] requestPathSegments = servletPath.split("/");
+                                final AnubisPrincipal principal, final boolean isSu) {
+    if (!allowedOperation.containsHttpMethod(method))
+      return false;
 
-    if (servletPathSegmentMatchers.size() > requestPathSegments.length + 1)
+    final int requestPathSegmentCount = PermissionSegmentMatcher.getSegmentCount(servletPath);
+    final int segmentMatcherCount = servletPathSegmentMatchers.size();
+
+    if (segmentMatcherCount > requestPathSegmentCount + 1)
       return false;
 
-    if (servletPathSegmentMatchers.size() == requestPathSegments.length + 1)
+    if (segmentMatcherCount == requestPathSegmentCount + 1)
       if (!lastSegmentIsStarSegment(servletPathSegmentMatchers))
         return false;
 
-    if (servletPathSegmentMatchers.size() < requestPathSegments.length)
+    if (segmentMatcherCount < requestPathSegmentCount)
       if (!lastSegmentIsStarSegment(servletPathSegmentMatchers))
         return false;
 
-    final Optional<Integer> indexOfFirstNonMappableSegment =
-            Stream.iterate(0, n -> n + 1)
-                    .limit(Math.min(servletPathSegmentMatchers.size(), requestPathSegments.length))
-                    .filter(i -> !segmentMatcher.test(servletPathSegmentMatchers.get(i), requestPathSegments[i]))
-                    .findFirst();
+    final int segmentsEnd = PermissionSegmentMatcher.getSegmentsEnd(servletPath);
+    final int segmentsToMatch = Math.min(segmentMatcherCount, requestPathSegmentCount);
+    int segmentStart = 0;
+    for (int i = 0; i < segmentsToMatch; i++) {
+      final int segmentEnd = PermissionSegmentMatcher.getSegmentEnd(servletPath, segmentStart, segmentsEnd);
+      if (!servletPathSegmentMatchers.get(i).matches(
+          servletPath, segmentStart, segmentEnd, principal, acceptTokenIntendedForForeignApplication, isSu))
+        return false;
+      segmentStart = segmentEnd + 1;
+    }
 
-    return opMatches && !indexOfFirstNonMappableSegment.isPresent();
+    return true;
   }
 
   private static boolean lastSegmentIsStarSegment(
@@ -148,11 +189,12 @@ public class ApplicationPermission implements GrantedAuthority {
       return false;
     ApplicationPermission that = (ApplicationPermission) o;
     return Objects.equals(servletPathSegmentMatchers, that.servletPathSegmentMatchers)
-        && allowedOperation == that.allowedOperation;
+        && allowedOperation == that.allowedOperation
+        && Objects.equals(accountOperation, that.accountOperation);
   }
 
   @Override public int hashCode() {
-    return Objects.hash(servletPathSegmentMatchers, allowedOperation);
+    return Objects.hash(servletPathSegmentMatchers, allowedOperation, accountOperation);
   }
 
   @Override
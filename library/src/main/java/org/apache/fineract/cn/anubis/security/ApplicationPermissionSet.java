@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.security;
+
+import javax.annotation.Nonnull;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * An immutable set of permissions made of two layers: a shared layer, such as the guest or system permissions which
+ * are built once when the authenticators are created, and a layer holding only the permissions specific to one
+ * token.  Authentications reference the shared layer instead of copying it, so per request only the token specific
+ * permissions are allocated.  The layers are kept disjoint, so that this is a proper set.
+ *
+ * The account operations granted by the account permissions in the set are indexed by account number when the set
+ * is built, so that account level access can be checked without matching against every permission.  Likewise, the
+ * permissions are compiled into a {@link PermissionTrie} on first use, and the trie is kept with the set.  Since the
+ * shared layers and the token specific permission sets interned by the authenticators outlive a single request, a
+ * set is usually compiled once and then reused by every authentication holding it.  Layers which are too small to
+ * make up for compiling them are matched permission by permission instead.
+ */
+final class ApplicationPermissionSet extends AbstractSet<ApplicationPermission> {
+  private static final int LINEAR_MATCH_LIMIT = 8;
+  private static final ApplicationPermissionSet EMPTY
+      = new ApplicationPermissionSet(Collections.emptySet(), Collections.emptySet());
+
+  private final Set<ApplicationPermission> sharedPermissions;
+  private final Set<ApplicationPermission> ownPermissions;
+  //The own layer is also kept as an array, so that matching it permission by permission allocates no iterator.
+  private final ApplicationPermission[] ownPermissionArray;
+  private final Map<String, Set<String>> accountOperationsByAccountNumber;
+  private volatile PermissionTrie permissionTrie = null;
+
+  private ApplicationPermissionSet(
+      final Set<ApplicationPermission> sharedPermissions,
+      final Set<ApplicationPermission> ownPermissions) {
+    this(sharedPermissions, Collections.emptyMap(), ownPermissions);
+  }
+
+  private ApplicationPermissionSet(
+      final Set<ApplicationPermission> sharedPermissions,
+      final Map<String, Set<String>> sharedAccountOperationsByAccountNumber,
+      final Set<ApplicationPermission> ownPermissions) {
+    this.sharedPermissions = sharedPermissions;
+    this.ownPermissions = ownPermissions;
+    this.ownPermissionArray = ownPermissions.toArray(new ApplicationPermission[ownPermissions.size()]);
+    this.accountOperationsByAccountNumber
+        = indexAccountOperations(sharedAccountOperationsByAccountNumber, ownPermissions);
+  }
+
+  static ApplicationPermissionSet empty() {
+    return EMPTY;
+  }
+
+  /**
+   * @return The given permissions as an immutable set.  If they already are one, they are returned as they are.
+   */
+  static ApplicationPermissionSet of(final @Nonnull Collection<ApplicationPermission> permissions) {
+    if (permissions instanceof ApplicationPermissionSet)
+      return (ApplicationPermissionSet) permissions;
+    if (permissions.isEmpty())
+      return EMPTY;
+    return new ApplicationPermissionSet(Collections.emptySet(), Collections.unmodifiableSet(new HashSet<>(permissions)));
+  }
+
+  /**
+   * @param sharedPermissions Permissions shared between many authentications.  These are referenced, not copied.
+   * @param ownPermissions Permissions specific to one authentication.  Those also contained in sharedPermissions are
+   *                       dropped.
+   */
+  static ApplicationPermissionSet layered(
+      final @Nonnull ApplicationPermissionSet sharedPermissions,
+      final @Nonnull Collection<ApplicationPermission> ownPermissions) {
+    final Set<ApplicationPermission> ownPermissionsNotShared = new HashSet<>();
+    for (final ApplicationPermission permission : ownPermissions) {
+      if (!sharedPermissions.contains(permission))
+        ownPermissionsNotShared.add(permission);
+    }
+
+    if (ownPermissionsNotShared.isEmpty())
+      return sharedPermissions;
+
+    return new ApplicationPermissionSet(
+        sharedPermissions,
+        sharedPermissions.accountOperationsByAccountNumber,
+        Collections.unmodifiableSet(ownPermissionsNotShared));
+  }
+
+  /**
+   * @return The account operations granted on the account by the permissions in this set, for example "OWNER" or
+   * "VIEW".  Empty if none are.
+   */
+  Set<String> getAccountOperations(final @Nonnull String accountNumber) {
+    return accountOperationsByAccountNumber.getOrDefault(accountNumber, Collections.emptySet());
+  }
+
+  /**
+   * @param applicationName The name of the application the request is being checked by.
+   * @param principal The principal of the authentication holding this set.
+   * @return A permission in this set which grants access to the request, if there is one.
+   */
+  Optional<ApplicationPermission> findMatch(
+      final @Nonnull String applicationName,
+      final @Nonnull AnubisPrincipal principal,
+      final @Nonnull String servletPath,
+      final @Nonnull String method) {
+    if (sharedPermissions instanceof ApplicationPermissionSet) {
+      final Optional<ApplicationPermission> sharedMatch = ((ApplicationPermissionSet) sharedPermissions)
+          .findMatch(applicationName, principal, servletPath, method);
+      if (sharedMatch.isPresent())
+        return sharedMatch;
+    }
+
+    if (ownPermissionArray.length <= LINEAR_MATCH_LIMIT) {
+      for (int i = 0; i < ownPermissionArray.length; i++) {
+        if (ownPermissionArray[i].matches(servletPath, method, applicationName, principal))
+          return Optional.of(ownPermissionArray[i]);
+      }
+      return Optional.empty();
+    }
+
+    return getPermissionTrie(applicationName).findMatch(principal, servletPath, method);
+  }
+
+  /**
+   * Compiles the permissions of the own layer on first use.  Services only check requests for their own
+   * application, so the trie is only compiled again if the application name differs.
+   */
+  private PermissionTrie getPermissionTrie(final @Nonnull String applicationName) {
+    final PermissionTrie current = permissionTrie;
+    if (current != null && current.getApplicationName().equals(applicationName))
+      return current;
+
+    final PermissionTrie compiled = new PermissionTrie(applicationName, ownPermissions);
+    permissionTrie = compiled;
+    return compiled;
+  }
+
+  private static Map<String, Set<String>> indexAccountOperations(
+      final Map<String, Set<String>> sharedAccountOperationsByAccountNumber,
+      final Set<ApplicationPermission> ownPermissions) {
+    Map<String, Set<String>> ret = null;
+    for (final ApplicationPermission permission : ownPermissions) {
+      final String accountNumber = permission.getAccountNumber();
+      if (accountNumber == null)
+        continue;
+
+      if (ret == null) {
+        ret = new HashMap<>();
+        for (final Map.Entry<String, Set<String>> entry : sharedAccountOperationsByAccountNumber.entrySet())
+          ret.put(entry.getKey(), new HashSet<>(entry.getValue()));
+      }
+      ret.computeIfAbsent(accountNumber, x -> new HashSet<>()).add(permission.getAccountOperation());
+    }
+
+    if (ret == null)
+      return sharedAccountOperationsByAccountNumber;
+
+    ret.replaceAll((accountNumber, x) -> Collections.unmodifiableSet(x));
+    return Collections.unmodifiableMap(ret);
+  }
+
+  @Override
+  public boolean contains(final Object o) {
+    return sharedPermissions.contains(o) || ownPermissions.contains(o);
+  }
+
+  @Override
+  public int size() {
+    return sharedPermissions.size() + ownPermissions.size();
+  }
+
+  @Override
+  public Iterator<ApplicationPermission> iterator() {
+    return new Iterator<ApplicationPermission>() {
+      private final Iterator<ApplicationPermission> shared = sharedPermissions.iterator();
+      private final Iterator<ApplicationPermission> own = ownPermissions.iterator();
+
+      @Override
+      public boolean hasNext() {
+        return shared.hasNext() || own.hasNext();
+      }
+
+      @Override
+      public ApplicationPermission next() {
+        if (shared.hasNext())
+          return shared.next();
+        if (own.hasNext())
+          return own.next();
+        throw new NoSuchElementException();
+      }
+    };
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.security;
+
+import io.jsonwebtoken.Claims;
+import org.apache.fineract.cn.anubis.config.AnubisProperties;
+import org.apache.fineract.cn.anubis.token.TokenType;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds authentications which were built from already verified tokens, so that a client which reuses its bearer
+ * token does not pay for signature verification and token content decoding on every request.
+ *
+ * Entries are keyed by a digest of the tenant, the user header and the token.  An entry is never returned before the
+ * not before time or after the expiration of its token, and entries for a tenant key timestamp are dropped when the
+ * public key of that signature set is invalidated in the tenant key provider.
+ * The cache is turned off unless anubis.authenticationCacheSize is set to a positive number.  Tenant token entries
+ * are kept for at most anubis.publicKeyCacheExpirySeconds, so that a signature set invalidated on another node stops
+ * being accepted here within the same window as its cached public key.
+ *
+ * The entries are kept in a {@link SegmentedLruMap}, so that concurrent requests mostly don't contend for the same
+ * lock.  Callers are handed a new authentication on every hit, which shares the immutable permission set of the
+ * cached one, so that no two requests see the same mutable instance.
+ */
+@Component
+public class AuthenticationCache implements PublicMetrics {
+  private static class Entry {
+    final String tenant;
+    final TokenType tokenType;
+    final String keyTimestamp;
+    final long notBefore;
+    final long expiresAt;
+    final AnubisAuthentication authentication;
+
+    Entry(final String tenant,
+          final TokenType tokenType,
+          final String keyTimestamp,
+          final long notBefore,
+          final long expiresAt,
+          final AnubisAuthentication authentication) {
+      this.tenant = tenant;
+      this.tokenType = tokenType;
+      this.keyTimestamp = keyTimestamp;
+      this.notBefore = notBefore;
+      this.expiresAt = expiresAt;
+      this.authentication = authentication;
+    }
+  }
+
+  private final int maximumSize;
+  private final long tenantTokenExpiryMillis;
+  private final SegmentedLruMap<String, Entry> entries;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  @Autowired
+  public AuthenticationCache(final AnubisProperties anubisProperties) {
+    this.maximumSize = Optional.ofNullable(anubisProperties.getAuthenticationCacheSize()).orElse(0);
+    this.tenantTokenExpiryMillis = TimeUnit.SECONDS.toMillis(
+        Optional.ofNullable(anubisProperties.getPublicKeyCacheExpirySeconds()).orElse(0));
+    this.entries = new SegmentedLruMap<>(maximumSize);
+  }
+
+  boolean isEnabled() {
+    return maximumSize > 0;
+  }
+
+  Optional<AnubisAuthentication> get(final @Nonnull String user, final @Nonnull String token) {
+    if (!isEnabled())
+      return Optional.empty();
+
+    final String key = key(user, token);
+    final Entry entry = entries.get(key);
+    if (entry == null) {
+      misses.increment();
+      return Optional.empty();
+    }
+    final long now = System.currentTimeMillis();
+    if (entry.expiresAt <= now) {
+      entries.remove(key, entry);
+      misses.increment();
+      return Optional.empty();
+    }
+    if (entry.notBefore > now) { //Left in place, since the token becomes valid later.
+      misses.increment();
+      return Optional.empty();
+    }
+    hits.increment();
+    return Optional.of(entry.authentication.copy());
+  }
+
+  void put(final @Nonnull String user,
+           final @Nonnull String token,
+           final @Nonnull TokenInfo tokenInfo,
+           final @Nonnull AnubisAuthentication authentication) {
+    if (!isEnabled())
+      return;
+
+    final Claims claims = tokenInfo.getClaims();
+    final Date expiration = claims == null ? null : claims.getExpiration();
+    if (expiration == null) //Tokens without an expiration are not cached, since there'd be no bound on their lifetime.
+      return;
+
+    final long expiresAt = tokenInfo.getType() == TokenType.TENANT
+        ? Math.min(expiration.getTime(), System.currentTimeMillis() + tenantTokenExpiryMillis)
+        : expiration.getTime();
+    final Date notBefore = claims.getNotBefore();
+    final Entry entry = new Entry(
+        TenantContextHolder.identifier().orElse(""),
+        tokenInfo.getType(),
+        tokenInfo.getKeyTimestamp(),
+        notBefore == null ? 0 : notBefore.getTime(),
+        expiresAt,
+        authentication.copy());
+    entries.put(key(user, token), entry);
+  }
+
+  /**
+   * Drops all cached tenant token authentications which were signed with the given key.
+   *
+   * @param tenant The tenant the signature set belongs to.
+   * @param keyTimestamp The timestamp of the signature set which is no longer valid.
+   */
+  public void invalidate(final String tenant, final String keyTimestamp) {
+    entries.removeIf(entry -> entry.tokenType == TokenType.TENANT &&
+        entry.tenant.equals(tenant) &&
+        entry.keyTimestamp.equals(keyTimestamp));
+  }
+
+  public long getHitCount() {
+    return hits.sum();
+  }
+
+  public long getMissCount() {
+    return misses.sum();
+  }
+
+  public long getEvictionCount() {
+    return entries.getEvictionCount();
+  }
+
+  public int getSize() {
+    return entries.size();
+  }
+
+  @Override
+  public Collection<Metric<?>> metrics() {
+    final Collection<Metric<?>> ret = new ArrayList<>();
+    ret.add(new Metric<>("anubis.authenticationCache.size", getSize()));
+    ret.add(new Metric<>("anubis.authenticationCache.hits", getHitCount()));
+    ret.add(new Metric<>("anubis.authenticationCache.misses", getMissCount()));
+    ret.add(new Metric<>("anubis.authenticationCache.evictions", getEvictionCount()));
+    return ret;
+  }
+
+  private static String key(final String user, final String token) {
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(TenantContextHolder.identifier().orElse("").getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(user.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(digest.digest());
+    }
+    catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available.", e);
+    }
+  }
+}
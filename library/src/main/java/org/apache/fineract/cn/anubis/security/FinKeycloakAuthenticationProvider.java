@@ -36,8 +36,6 @@ import org.springframework.util.Assert;
 
 import javax.annotation.Nonnull;
 import java.security.Key;
-import java.security.NoSuchAlgorithmException;
-import java.security.spec.InvalidKeySpecException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Optional;
@@ -101,7 +99,7 @@ public class FinKeycloakAuthenticationProvider extends KeycloakAuthenticationPro
             switch (tokenInfo.getType()) {
                 case TENANT:
                 case SYSTEM:
-                    return tenantAuthenticator.authenticate(user, x, tokenInfo.getKeyTimestamp());
+                    return tenantAuthenticator.authenticate(user, x, tokenInfo.getKeyTimestamp(), tokenInfo.getClaims());
                 default:
                     logger.debug("Authentication failed for a token with a token type other than tenant or system.");
                     throw AmitAuthenticationException.invalidTokenIssuer(tokenInfo.getType().getIssuer());
@@ -135,7 +133,11 @@ public class FinKeycloakAuthenticationProvider extends KeycloakAuthenticationPro
                         switch (tokenType) {
                             case TENANT:
                             case SYSTEM:
-                                return keycloakRsaKeyProvider.getPublicKey();
+                                return keycloakRsaKeyProvider.getPublicKey(header.getKeyId())
+                                        .orElseThrow(() -> {
+                                            logger.debug("Authentication failed because no realm public key was found for key id {}.", header.getKeyId());
+                                            return AmitAuthenticationException.invalidTokenKeyTimestamp(tokenType.getIssuer(), keyTimestamp);
+                                        });
                             default:
                                 logger.debug("Authentication failed in token type discovery for a token with a token type other than tenant or system.");
                                 throw AmitAuthenticationException.invalidTokenIssuer(tokenType.getIssuer());
@@ -146,11 +148,6 @@ public class FinKeycloakAuthenticationProvider extends KeycloakAuthenticationPro
                         logger.debug("Authentication failed because no tenant was provided.");
                         throw AmitAuthenticationException.missingTenant();
                     }
-                    catch (final InvalidKeySpecException | NoSuchAlgorithmException e)
-                    {
-                        logger.debug("Authentication failed because the provided rsa public key.");
-                        throw AmitAuthenticationException.invalidTokenKeyTimestamp(tokenType.getIssuer(), keyTimestamp);
-                    }
                 }
 
                 @Override public Key resolveSigningKey(final JwsHeader header, final String plaintext) {
@@ -168,7 +165,7 @@ public class FinKeycloakAuthenticationProvider extends KeycloakAuthenticationPro
             final String keyTimestamp = getKeyTimestampFromClaims(jwt.getBody());
             final TokenType tokenType = getTokenTypeFromClaims(jwt.getBody());
 
-            return new TokenInfo(tokenType, keyTimestamp);
+            return new TokenInfo(tokenType, keyTimestamp, jwt.getBody());
         }
         catch (final JwtException e)
         {
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.security;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import io.jsonwebtoken.Claims;
+import org.apache.fineract.cn.anubis.api.v1.domain.AllowedOperation;
+import org.apache.fineract.cn.anubis.service.PermissionSegmentMatcher;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Binds the claims of a keycloak token to application permissions in one pass.  The "tokenPermissions" claim, which
+ * holds serialized token content, is read with a streaming reader, and the "fin" claim, which jjwt has already parsed
+ * into maps and lists, is walked directly, so that neither goes through TokenContent or AccountAccessTokenContent.
+ * The servlet path of each permission is split into segment matchers once, and shared by all of its operations.
+ */
+final class FinKeycloakClaimBinder {
+  static final String TOKEN_PERMISSIONS_CLAIM = "tokenPermissions";
+  static final String ACCOUNT_ACCESS_CLAIM = "fin";
+  static final String ACCOUNT_PERMISSION_PREFIX = "ACCT_ACCESS_";
+
+  private final String applicationNameWithVersion;
+
+  FinKeycloakClaimBinder(final @Nonnull String applicationNameWithVersion) {
+    this.applicationNameWithVersion = applicationNameWithVersion;
+  }
+
+  /**
+   * @throws AmitAuthenticationException if the token permissions are missing or malformed.
+   */
+  Set<ApplicationPermission> bind(final @Nonnull Claims claims) {
+    final Object serializedTokenContent = claims.get(TOKEN_PERMISSIONS_CLAIM);
+    if (!(serializedTokenContent instanceof String))
+      throw AmitAuthenticationException.missingTokenContent();
+
+    final Set<ApplicationPermission> ret = new HashSet<>();
+    try {
+      bindTokenPermissions((String) serializedTokenContent, ret);
+      bindAccountPermissions(claims.get(ACCOUNT_ACCESS_CLAIM), ret);
+    }
+    catch (final IOException | IllegalStateException | ClassCastException e) {
+      throw AmitAuthenticationException.invalidToken();
+    }
+    return ret;
+  }
+
+  private void bindTokenPermissions(final @Nonnull String serializedTokenContent,
+                                    final @Nonnull Set<ApplicationPermission> ret) throws IOException {
+    try (final JsonReader reader = new JsonReader(new StringReader(serializedTokenContent))) {
+      if (reader.peek() == JsonToken.NULL)
+        throw AmitAuthenticationException.missingTokenContent();
+
+      reader.beginObject();
+      while (reader.hasNext()) {
+        if (reader.nextName().equals(TOKEN_PERMISSIONS_CLAIM) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+          reader.beginArray();
+          while (reader.hasNext())
+            bindTokenPermission(reader, ret);
+          reader.endArray();
+        }
+        else {
+          reader.skipValue();
+        }
+      }
+      reader.endObject();
+    }
+  }
+
+  private void bindTokenPermission(final @Nonnull JsonReader reader,
+                                   final @Nonnull Set<ApplicationPermission> ret) throws IOException {
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return;
+    }
+
+    String path = null;
+    final List<AllowedOperation> allowedOperations = new ArrayList<>(AllowedOperation.values().length);
+    reader.beginObject();
+    while (reader.hasNext()) {
+      final String name = reader.nextName();
+      if (name.equals("path") && reader.peek() == JsonToken.STRING) {
+        path = reader.nextString();
+      }
+      else if (name.equals("allowedOperations") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+        reader.beginArray();
+        while (reader.hasNext()) {
+          final AllowedOperation allowedOperation = reader.peek() == JsonToken.STRING
+              ? mapAllowedOperation(reader.nextString())
+              : null;
+          if (allowedOperation == null)
+            reader.skipValue();
+          else
+            allowedOperations.add(allowedOperation);
+        }
+        reader.endArray();
+      }
+      else {
+        reader.skipValue();
+      }
+    }
+    reader.endObject();
+
+    if (path == null || !path.startsWith(applicationNameWithVersion) || allowedOperations.isEmpty())
+      return;
+
+    final List<PermissionSegmentMatcher> servletPathSegmentMatchers = PermissionSegmentMatcher
+        .getServletPathSegmentMatchers(path.substring(applicationNameWithVersion.length()));
+    allowedOperations.forEach(x -> ret.add(new ApplicationPermission(servletPathSegmentMatchers, x, null, false)));
+  }
+
+  private static void bindAccountPermissions(final Object accountAccessContent,
+                                             final @Nonnull Set<ApplicationPermission> ret) {
+    if (accountAccessContent == null)
+      return;
+
+    final Object accounts = ((Map<?, ?>) accountAccessContent).get("accounts");
+    if (accounts == null)
+      return;
+
+    for (final Object account : (Collection<?>) accounts) {
+      final Map<?, ?> accountAccess = (Map<?, ?>) account;
+      final Object access = accountAccess.get("access");
+      if (access == null)
+        continue;
+
+      final List<PermissionSegmentMatcher> servletPathSegmentMatchers = PermissionSegmentMatcher
+          .getServletPathSegmentMatchers(ACCOUNT_PERMISSION_PREFIX + accountAccess.get("number"));
+      for (final Object accountOperation : (Collection<?>) access)
+        ret.add(new ApplicationPermission(
+            servletPathSegmentMatchers, AllowedOperation.READ, (String) accountOperation, false));
+    }
+  }
+
+  private static AllowedOperation mapAllowedOperation(final @Nonnull String allowedOperation) {
+    switch (allowedOperation) {
+      case "READ":
+        return AllowedOperation.READ;
+      case "CHANGE":
+        return AllowedOperation.CHANGE;
+      case "DELETE":
+        return AllowedOperation.DELETE;
+      default:
+        return null;
+    }
+  }
+}
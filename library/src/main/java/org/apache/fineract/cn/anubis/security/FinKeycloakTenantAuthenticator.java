@@ -18,14 +18,9 @@
  */
 package org.apache.fineract.cn.anubis.security;
 
-import com.google.gson.Gson;
 import io.jsonwebtoken.*;
 import org.apache.fineract.cn.anubis.annotation.AcceptedTokenType;
 import org.apache.fineract.cn.anubis.api.v1.TokenConstants;
-import org.apache.fineract.cn.anubis.api.v1.domain.AccountAccess;
-import org.apache.fineract.cn.anubis.api.v1.domain.AccountAccessTokenContent;
-import org.apache.fineract.cn.anubis.api.v1.domain.TokenContent;
-import org.apache.fineract.cn.anubis.api.v1.domain.TokenPermission;
 import org.apache.fineract.cn.anubis.provider.FinKeycloakRsaKeyProvider;
 import org.apache.fineract.cn.anubis.service.PermittableService;
 import org.apache.fineract.cn.lang.ApplicationName;
@@ -35,13 +30,8 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Nonnull;
-import java.security.NoSuchAlgorithmException;
-import java.security.spec.InvalidKeySpecException;
-import java.util.List;
-import java.util.Map;
+import java.security.Key;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import static org.apache.fineract.cn.anubis.config.AnubisConstants.LOGGER_NAME;
 
@@ -52,8 +42,8 @@ import static org.apache.fineract.cn.anubis.config.AnubisConstants.LOGGER_NAME;
 public class FinKeycloakTenantAuthenticator {
  private final FinKeycloakRsaKeyProvider keycloakRsaKeyProvider;
  private final String applicationNameWithVersion;
- private final Gson gson;
- private final Set<ApplicationPermission> guestPermissions;
+ private final FinKeycloakClaimBinder claimBinder;
+ private final ApplicationPermissionSet guestPermissions;
  private final Logger logger;
 
  @Autowired
@@ -61,13 +51,12 @@ public class FinKeycloakTenantAuthenticator {
          final FinKeycloakRsaKeyProvider keycloakRsaKeyProvider,
          final ApplicationName applicationName,
          final PermittableService permittableService,
-         final @Qualifier("anubisGson") Gson gson,
          final @Qualifier(LOGGER_NAME) Logger logger) {
   this.keycloakRsaKeyProvider = keycloakRsaKeyProvider;
   this.applicationNameWithVersion = applicationName.toString();
-  this.gson = gson;
-  this.guestPermissions
-          = permittableService.getPermittableEndpointsAsPermissions(AcceptedTokenType.GUEST);
+  this.claimBinder = new FinKeycloakClaimBinder(applicationNameWithVersion);
+  this.guestPermissions = ApplicationPermissionSet.of(
+          permittableService.getPermittableEndpointsAsPermissions(AcceptedTokenType.GUEST));
   this.logger = logger;
  }
 
@@ -77,67 +66,40 @@ public class FinKeycloakTenantAuthenticator {
          final @Nonnull String keyTimestamp) {
   try {
    final JwtParser parser = Jwts.parser()
-           .setSigningKey(keycloakRsaKeyProvider.getPublicKey());
+           .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+            @Override public Key resolveSigningKey(final JwsHeader header, final Claims claims) {
+             return keycloakRsaKeyProvider.getPublicKey(header.getKeyId())
+                     .orElseThrow(AmitAuthenticationException::invalidToken);
+            }
+           });
 
    @SuppressWarnings("unchecked") Jwt<Header, Claims> jwt = parser.parse(token);
 
-   final String serializedTokenContent = jwt.getBody().get("tokenPermissions", String.class);
-
-
-   final String sourceApplication = "Keycloak";
-   final TokenContent tokenContent = gson.fromJson(serializedTokenContent, TokenContent.class);
-   if (tokenContent == null)
-    throw AmitAuthenticationException.missingTokenContent();
-
-   final Set<ApplicationPermission> permissions = translatePermissions(tokenContent.getTokenPermissions());
-   permissions.addAll(guestPermissions);
-
-
-   if(jwt.getBody().get("fin") != null){
-    Map map=  jwt.getBody().get("fin", Map.class);
-    final String serializedAccountAccess =  gson.toJson(map);
-    final AccountAccessTokenContent accountAccess = gson.fromJson(serializedAccountAccess, AccountAccessTokenContent.class);
-    final Set<ApplicationPermission> acctPermissions = translateAccountPermissions(accountAccess.getAccounts());
-    permissions.addAll(acctPermissions);
-   }
-
-
-   logger.info("Tenant token for user {}, with key timestamp {} authenticated successfully.", user, keyTimestamp);
-
-   return new AnubisAuthentication(TokenConstants.PREFIX + token,
-           jwt.getBody().get("preferred_username", String.class), applicationNameWithVersion, sourceApplication, permissions
-   );
+   return authenticate(user, token, keyTimestamp, jwt.getBody());
   }
-  catch (final JwtException | InvalidKeySpecException | NoSuchAlgorithmException e) {
+  catch (final JwtException e) {
    logger.info("Tenant token for user {}, with key timestamp {} failed to authenticate. Exception was {}", user, keyTimestamp, e);
    throw AmitAuthenticationException.invalidToken();
   }
  }
 
- private Set<ApplicationPermission> translatePermissions(
-         @Nonnull final List<TokenPermission> tokenPermissions)
- {
-  return tokenPermissions.stream()
-          .filter(x -> x.getPath().startsWith(applicationNameWithVersion))
-          .flatMap(this::getAppPermissionFromTokenPermission)
-          .collect(Collectors.toSet());
- }
-
- private Set<ApplicationPermission> translateAccountPermissions(
-         @Nonnull final List<AccountAccess> tokenPermissions)
- {
-  return tokenPermissions.stream()
-          .flatMap(this::getAppPermissionFromAcctPermission)
-          .collect(Collectors.toSet());
- }
+ /**
+  * @param claims The claims of a token whose signature has already been verified against the realm public key.
+  *               The token is not parsed a second time.
+  */
+ AnubisAuthentication authenticate(
+         final @Nonnull String user,
+         final @Nonnull String token,
+         final @Nonnull String keyTimestamp,
+         final @Nonnull Claims claims) {
+  final String sourceApplication = "Keycloak";
+  final Set<ApplicationPermission> permissions = claimBinder.bind(claims);
 
- private Stream<ApplicationPermission> getAppPermissionFromTokenPermission(final TokenPermission tokenPermission) {
-  final String servletPath = tokenPermission.getPath().substring(applicationNameWithVersion.length());
-  return tokenPermission.getAllowedOperations().stream().map(x -> new ApplicationPermission(servletPath, x, false));
- }
+  logger.info("Tenant token for user {}, with key timestamp {} authenticated successfully.", user, keyTimestamp);
 
- private Stream<ApplicationPermission> getAppPermissionFromAcctPermission(final AccountAccess tokenPermission) {
-  final String servletPath = "ACCT_ACCESS_"+ tokenPermission.getNumber();
-  return tokenPermission.getAccess().stream().map(x -> new ApplicationPermission(servletPath, x, false));
+  return new AnubisAuthentication(TokenConstants.PREFIX + token,
+          claims.get("preferred_username", String.class), applicationNameWithVersion, sourceApplication,
+          ApplicationPermissionSet.layered(guestPermissions, permissions)
+  );
  }
 }
@@ -20,7 +20,6 @@ package org.apache.fineract.cn.anubis.security;
 
 import static org.apache.fineract.cn.anubis.config.AnubisConstants.LOGGER_NAME;
 
-import java.util.Set;
 import org.apache.fineract.cn.anubis.annotation.AcceptedTokenType;
 import org.apache.fineract.cn.anubis.api.v1.RoleConstants;
 import org.apache.fineract.cn.anubis.service.PermittableService;
@@ -35,7 +34,7 @@ import org.springframework.stereotype.Component;
  */
 @Component
 public class GuestAuthenticator {
-  private Set<ApplicationPermission> permissions;
+  private final ApplicationPermissionSet permissions;
   private final Logger logger;
   private final ApplicationName applicationName;
 
@@ -43,7 +42,8 @@ public class GuestAuthenticator {
   public GuestAuthenticator(final PermittableService permittableService,
                             final @Qualifier(LOGGER_NAME) Logger logger,
                             final ApplicationName applicationName) {
-    this.permissions = permittableService.getPermittableEndpointsAsPermissions(AcceptedTokenType.GUEST);
+    this.permissions = ApplicationPermissionSet.of(
+        permittableService.getPermittableEndpointsAsPermissions(AcceptedTokenType.GUEST));
     this.logger = logger;
     this.applicationName = applicationName;
   }
@@ -53,6 +53,7 @@ public class IsisAuthenticatedAuthenticationProvider implements AuthenticationPr
   private final SystemAuthenticator systemAuthenticator;
   private final TenantAuthenticator tenantAuthenticator;
   private final GuestAuthenticator guestAuthenticator;
+  private final AuthenticationCache authenticationCache;
   private final Logger logger;
 
   @Autowired
@@ -62,12 +63,14 @@ public class IsisAuthenticatedAuthenticationProvider implements AuthenticationPr
       final SystemAuthenticator systemAuthenticator,
       final TenantAuthenticator tenantAuthenticator,
       final GuestAuthenticator guestAuthenticator,
+      final AuthenticationCache authenticationCache,
       final @Qualifier(LOGGER_NAME) Logger logger) {
     this.systemRsaKeyProvider = systemRsaKeyProvider;
     this.tenantRsaKeyProvider = tenantRsaKeyProvider;
     this.systemAuthenticator = systemAuthenticator;
     this.tenantAuthenticator = tenantAuthenticator;
     this.guestAuthenticator = guestAuthenticator;
+    this.authenticationCache = authenticationCache;
     this.logger = logger;
   }
 
@@ -93,19 +96,29 @@ public class IsisAuthenticatedAuthenticationProvider implements AuthenticationPr
 
   private Authentication convert(final @Nonnull String user, final String authenticationHeader) {
     final Optional<String> token = getJwtTokenString(authenticationHeader);
-    return token.map(x -> {
-      final TokenInfo tokenInfo = getTokenInfo(x);
-
-      switch (tokenInfo.getType()) {
-        case TENANT:
-          return tenantAuthenticator.authenticate(user, x, tokenInfo.getKeyTimestamp());
-        case SYSTEM:
-          return systemAuthenticator.authenticate(user, x, tokenInfo.getKeyTimestamp());
-        default:
-          logger.debug("Authentication failed for a token with a token type other than tenant or system.");
-          throw AmitAuthenticationException.invalidTokenIssuer(tokenInfo.getType().getIssuer());
-      }
-    }).orElseGet(() -> guestAuthenticator.authenticate(user));
+    return token.<Authentication>map(x -> authenticationCache.get(user, x)
+        .orElseGet(() -> authenticateToken(user, x)))
+        .orElseGet(() -> guestAuthenticator.authenticate(user));
+  }
+
+  private AnubisAuthentication authenticateToken(final @Nonnull String user, final @Nonnull String token) {
+    final TokenInfo tokenInfo = getTokenInfo(token);
+
+    final AnubisAuthentication authentication;
+    switch (tokenInfo.getType()) {
+      case TENANT:
+        authentication = tenantAuthenticator.authenticate(user, token, tokenInfo.getKeyTimestamp(), tokenInfo.getClaims());
+        break;
+      case SYSTEM:
+        authentication = systemAuthenticator.authenticate(user, token, tokenInfo.getKeyTimestamp(), tokenInfo.getClaims());
+        break;
+      default:
+        logger.debug("Authentication failed for a token with a token type other than tenant or system.");
+        throw AmitAuthenticationException.invalidTokenIssuer(tokenInfo.getType().getIssuer());
+    }
+
+    authenticationCache.put(user, token, tokenInfo, authentication);
+    return authentication;
   }
 
   private Optional<String> getJwtTokenString(final String authenticationHeader) {
@@ -121,6 +134,10 @@ public class IsisAuthenticatedAuthenticationProvider implements AuthenticationPr
     return Optional.of(authenticationHeader.substring(TokenConstants.PREFIX.length()).trim());
   }
 
+  /**
+   * Parses the token and verifies its signature.  This is the only place the signature is checked; the resulting
+   * claims are passed on to the tenant or system authenticator, which then only needs to check the claims.
+   */
   @Nonnull private TokenInfo getTokenInfo(final String token)
   {
     try {
@@ -168,7 +185,7 @@ public class IsisAuthenticatedAuthenticationProvider implements AuthenticationPr
       final String keyTimestamp = getKeyTimestampFromClaims(jwt.getBody());
       final TokenType tokenType = getTokenTypeFromClaims(jwt.getBody());
 
-      return new TokenInfo(tokenType, keyTimestamp);
+      return new TokenInfo(tokenType, keyTimestamp, jwt.getBody());
     }
     catch (final JwtException e)
     {
@@ -0,0 +1,307 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.security;
+
+import org.apache.fineract.cn.anubis.service.PermissionSegmentMatcher;
+import org.apache.fineract.cn.api.util.ApiConstants;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A set of permissions compiled into a trie of servlet path segments so that a request can be checked with one walk
+ * instead of matching every permission in turn.  The result is the same as asking each {@link ApplicationPermission}
+ * whether it matches.
+ *
+ * The trie doesn't depend on the principal, so that it can be compiled once per permission set and shared by every
+ * authentication holding that set.  {useridentifier}, {applicationidentifier} and other parameter segments become
+ * edges of their own, which are resolved against the principal while walking.  A star in the last position matches
+ * one or more trailing request segments (or none if the request has exactly one segment fewer than the permission),
+ * so permissions ending with a star are kept as prefix permissions on the node before the star.  A star in any other
+ * position is a single segment wildcard.
+ */
+final class PermissionTrie {
+  private static class Node {
+    private Map<String, Node> literalChildren = new HashMap<>();
+    private Node wildcardChild = null;
+    private Node userIdentifierChild = null;
+    //Which application name an {applicationidentifier} segment stands for depends on the permission.
+    private Node sourceApplicationIdentifierChild = null;
+    private Node forApplicationIdentifierChild = null;
+    private Node parameterChild = null;
+    private final List<ApplicationPermission> exactPermissions = new ArrayList<>();
+    private final List<ApplicationPermission> prefixPermissions = new ArrayList<>();
+
+    //Filled in by freeze, ordered by hash code so that a request segment can be looked up without a substring.
+    private String[] literals;
+    private int[] literalHashes;
+    private Node[] literalNodes;
+
+    Node literalChild(final String segment) {
+      return literalChildren.computeIfAbsent(segment, x -> new Node());
+    }
+
+    Node wildcardChild() {
+      if (wildcardChild == null)
+        wildcardChild = new Node();
+      return wildcardChild;
+    }
+
+    Node userIdentifierChild() {
+      if (userIdentifierChild == null)
+        userIdentifierChild = new Node();
+      return userIdentifierChild;
+    }
+
+    Node applicationIdentifierChild(final boolean acceptTokenIntendedForForeignApplication) {
+      if (acceptTokenIntendedForForeignApplication) {
+        if (forApplicationIdentifierChild == null)
+          forApplicationIdentifierChild = new Node();
+        return forApplicationIdentifierChild;
+      }
+      if (sourceApplicationIdentifierChild == null)
+        sourceApplicationIdentifierChild = new Node();
+      return sourceApplicationIdentifierChild;
+    }
+
+    Node parameterChild() {
+      if (parameterChild == null)
+        parameterChild = new Node();
+      return parameterChild;
+    }
+
+    void freeze() {
+      final List<Map.Entry<String, Node>> entries = new ArrayList<>(literalChildren.entrySet());
+      entries.sort(Comparator.comparingInt(x -> x.getKey().hashCode()));
+      literals = new String[entries.size()];
+      literalHashes = new int[entries.size()];
+      literalNodes = new Node[entries.size()];
+      for (int i = 0; i < entries.size(); i++) {
+        literals[i] = entries.get(i).getKey();
+        literalHashes[i] = literals[i].hashCode();
+        literalNodes[i] = entries.get(i).getValue();
+        literalNodes[i].freeze();
+      }
+      literalChildren = null;
+      freeze(wildcardChild);
+      freeze(userIdentifierChild);
+      freeze(sourceApplicationIdentifierChild);
+      freeze(forApplicationIdentifierChild);
+      freeze(parameterChild);
+    }
+
+    private static void freeze(final Node node) {
+      if (node != null)
+        node.freeze();
+    }
+    Node findLiteralChild(final String requestPath, final int segmentStart, final int segmentEnd) {
+      if (literals.length == 0)
+        return null;
+
+      int hash = 0;
+      for (int i = segmentStart; i < segmentEnd; i++)
+        hash = 31 * hash + requestPath.charAt(i);
+
+      int low = 0;
+      int high = literalHashes.length;
+      while (low < high) {
+        final int middle = (low + high) >>> 1;
+        if (literalHashes[middle] < hash)
+          low = middle + 1;
+        else
+          high = middle;
+      }
+
+      for (int i = low; i < literalHashes.length && literalHashes[i] == hash; i++) {
+        if (PermissionSegmentMatcher.regionEquals(requestPath, segmentStart, segmentEnd, literals[i]))
+          return literalNodes[i];
+      }
+      return null;
+    }
+  }
+
+  private final String applicationName;
+  private final Node root = new Node();
+
+  PermissionTrie(final @Nonnull String applicationName,
+                 final @Nonnull Collection<ApplicationPermission> permissions) {
+    this.applicationName = applicationName;
+    permissions.forEach(this::add);
+    root.freeze();
+  }
+
+  String getApplicationName() {
+    return applicationName;
+  }
+
+  private void add(final ApplicationPermission permission) {
+    final boolean acceptTokenIntendedForForeignApplication = permission.isAcceptTokenIntendedForForeignApplication();
+    final List<PermissionSegmentMatcher> matchers = permission.getServletPathSegmentMatchers();
+    final boolean endsWithStar = !matchers.isEmpty() && matchers.get(matchers.size() - 1).isStarSegment();
+    final int edgeCount = endsWithStar ? matchers.size() - 1 : matchers.size();
+
+    Node node = root;
+    for (int i = 0; i < edgeCount; i++) {
+      final PermissionSegmentMatcher matcher = matchers.get(i);
+      switch (matcher.getKind()) {
+        case STAR:
+          node = node.wildcardChild();
+          break;
+        case USER_IDENTIFIER:
+          node = node.userIdentifierChild();
+          break;
+        case APPLICATION_IDENTIFIER:
+          node = node.applicationIdentifierChild(acceptTokenIntendedForForeignApplication);
+          break;
+        case PARAMETER:
+          node = node.parameterChild();
+          break;
+        default:
+          node = node.literalChild(matcher.getPermissionSegment());
+      }
+    }
+
+    if (endsWithStar)
+      node.prefixPermissions.add(permission);
+    else
+      node.exactPermissions.add(permission);
+  }
+
+  /**
+   * Segments of the servlet path are the same as those servletPath.split("/") would return, but are walked by index
+   * so that no substrings are created.
+   *
+   * @param principal The principal of the authentication the request is checked for.
+   * @param servletPath The servlet path of the request.
+   * @param method The http method of the request.
+   * @return A permission which grants access to the request, if there is one.
+   */
+  Optional<ApplicationPermission> findMatch(
+      final @Nonnull AnubisPrincipal principal,
+      final @Nonnull String servletPath,
+      final @Nonnull String method) {
+    return Optional.ofNullable(findMatch(
+        root,
+        new Walk(principal, applicationName, servletPath, method),
+        0,
+        0));
+  }
+
+  /**
+   * What stays the same while walking the trie for one request.
+   */
+  private static class Walk {
+    private final AnubisPrincipal principal;
+    private final boolean isSu;
+    private final boolean forThisApplication;
+    private final String servletPath;
+    private final int segmentCount;
+    private final int segmentsEnd;
+    private final String method;
+
+    Walk(final AnubisPrincipal principal,
+         final String applicationName,
+         final String servletPath,
+         final String method) {
+      this.principal = principal;
+      this.isSu = ApiConstants.SYSTEM_SU.equals(principal.getUser());
+      this.forThisApplication = applicationName.equals(principal.getForApplicationName());
+      this.servletPath = servletPath;
+      this.segmentCount = PermissionSegmentMatcher.getSegmentCount(servletPath);
+      this.segmentsEnd = PermissionSegmentMatcher.getSegmentsEnd(servletPath);
+      this.method = method;
+    }
+  }
+
+  private static ApplicationPermission findMatch(
+      final Node node,
+      final Walk walk,
+      final int index,
+      final int segmentStart) {
+    if (node == null)
+      return null;
+
+    final ApplicationPermission prefixMatch = findPermitting(node.prefixPermissions, walk);
+    if (prefixMatch != null)
+      return prefixMatch;
+
+    if (index == walk.segmentCount)
+      return findPermitting(node.exactPermissions, walk);
+
+    final String servletPath = walk.servletPath;
+    final int segmentEnd = PermissionSegmentMatcher.getSegmentEnd(servletPath, segmentStart, walk.segmentsEnd);
+    final ApplicationPermission literalMatch = findMatch(
+        node.findLiteralChild(servletPath, segmentStart, segmentEnd), walk, index + 1, segmentEnd + 1);
+    if (literalMatch != null)
+      return literalMatch;
+
+    if (PermissionSegmentMatcher.regionEquals(servletPath, segmentStart, segmentEnd, walk.principal.getUser())) {
+      final ApplicationPermission match = findMatch(node.userIdentifierChild, walk, index + 1, segmentEnd + 1);
+      if (match != null)
+        return match;
+    }
+
+    if (PermissionSegmentMatcher.regionEquals(
+        servletPath, segmentStart, segmentEnd, walk.principal.getSourceApplicationName())) {
+      final ApplicationPermission match
+          = findMatch(node.sourceApplicationIdentifierChild, walk, index + 1, segmentEnd + 1);
+      if (match != null)
+        return match;
+    }
+
+    if (PermissionSegmentMatcher.regionEquals(
+        servletPath, segmentStart, segmentEnd, walk.principal.getForApplicationName())) {
+      final ApplicationPermission match
+          = findMatch(node.forApplicationIdentifierChild, walk, index + 1, segmentEnd + 1);
+      if (match != null)
+        return match;
+    }
+
+    if (walk.isSu) {
+      final ApplicationPermission match = findMatch(node.parameterChild, walk, index + 1, segmentEnd + 1);
+      if (match != null)
+        return match;
+    }
+
+    return findMatch(node.wildcardChild, walk, index + 1, segmentEnd + 1);
+  }
+
+  /**
+   * @return A permission of the list which permits the method and applies to the application the token was
+   * intended for.
+   */
+  private static ApplicationPermission findPermitting(
+      final List<ApplicationPermission> permissions,
+      final Walk walk) {
+    //Indexed rather than iterated, so that no iterator is allocated.
+    for (int i = 0; i < permissions.size(); i++) {
+      final ApplicationPermission permission = permissions.get(i);
+      if ((walk.forThisApplication || permission.isAcceptTokenIntendedForForeignApplication()) &&
+          permission.getAllowedOperation().containsHttpMethod(walk.method))
+        return permission;
+    }
+    return null;
+  }
+}
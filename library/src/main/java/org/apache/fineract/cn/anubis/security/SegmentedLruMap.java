@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.security;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * A bounded map which drops its least recently used entries first.  The entries are spread over segments, each a
+ * least recently used map with its own lock, so that concurrent lookups mostly don't contend for the same lock.
+ * Small maps are kept in one segment, so that they evict exactly the least recently used entry.
+ */
+class SegmentedLruMap<K, V> {
+  private static final int MAXIMUM_SEGMENT_COUNT = 16;
+  private static final int MINIMUM_SEGMENT_SIZE = 64;
+
+  private static class Segment<K, V> extends LinkedHashMap<K, V> {
+    private final int maximumSize;
+    private final LongAdder evictions;
+
+    Segment(final int maximumSize, final LongAdder evictions) {
+      super(16, 0.75f, true);
+      this.maximumSize = maximumSize;
+      this.evictions = evictions;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+      if (size() <= maximumSize)
+        return false;
+
+      evictions.increment();
+      return true;
+    }
+  }
+
+  private final Segment<K, V>[] segments;
+  private final LongAdder evictions = new LongAdder();
+
+  @SuppressWarnings("unchecked")
+  SegmentedLruMap(final int maximumSize) {
+    final int segmentCount = Math.max(1, Math.min(MAXIMUM_SEGMENT_COUNT, maximumSize / MINIMUM_SEGMENT_SIZE));
+    this.segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++)
+      this.segments[i] = new Segment<>(
+          maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0), evictions);
+  }
+
+  V get(final K key) {
+    final Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      return segment.get(key);
+    }
+  }
+
+  void put(final K key, final V value) {
+    final Segment<K, V> segment = segmentFor(key);
+    synchronized (segment) {
+      segment.put(key, value);
+    }
+  }
+
+  /**
+   * Removes the entry for key, but only if it is still mapped to value.  A removed entry counts as an eviction.
+   */
+  boolean remove(final K key, final V value) {
+    final Segment<K, V> segment = segmentFor(key);
+    final boolean removed;
+    synchronized (segment) {
+      removed = segment.remove(key, value);
+    }
+    if (removed)
+      evictions.increment();
+    return removed;
+  }
+
+  /**
+   * Removes all entries whose value matches the filter.  Removed entries count as evictions.
+   */
+  void removeIf(final Predicate<? super V> filter) {
+    for (final Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        final Iterator<V> iterator = segment.values().iterator();
+        while (iterator.hasNext()) {
+          if (filter.test(iterator.next())) {
+            iterator.remove();
+            evictions.increment();
+          }
+        }
+      }
+    }
+  }
+
+  int size() {
+    int ret = 0;
+    for (final Segment<K, V> segment : segments) {
+      synchronized (segment) {
+        ret += segment.size();
+      }
+    }
+    return ret;
+  }
+
+  long getEvictionCount() {
+    return evictions.sum();
+  }
+
+  private Segment<K, V> segmentFor(final K key) {
+    final int hash = key.hashCode();
+    return segments[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % segments.length];
+  }
+}
@@ -24,9 +24,7 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Header;
 import io.jsonwebtoken.Jwt;
 import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import java.util.Set;
 import org.apache.fineract.cn.anubis.annotation.AcceptedTokenType;
 import org.apache.fineract.cn.anubis.api.v1.TokenConstants;
 import org.apache.fineract.cn.anubis.provider.InvalidKeyTimestampException;
@@ -46,7 +44,7 @@ import org.springframework.stereotype.Component;
 @Component
 public class SystemAuthenticator {
   private final SystemRsaKeyProvider systemRsaKeyProvider;
-  private final Set<ApplicationPermission> permissions;
+  private final ApplicationPermissionSet permissions;
   private final Logger logger;
 
   @Autowired
@@ -55,7 +53,8 @@ public class SystemAuthenticator {
           final PermittableService permittableService,
           final @Qualifier(LOGGER_NAME) Logger logger) {
     this.systemRsaKeyProvider = systemRsaKeyProvider;
-    this.permissions = permittableService.getPermittableEndpointsAsPermissions(AcceptedTokenType.SYSTEM);
+    this.permissions = ApplicationPermissionSet.of(
+        permittableService.getPermittableEndpointsAsPermissions(AcceptedTokenType.SYSTEM));
     this.logger = logger;
   }
 
@@ -68,29 +67,12 @@ public class SystemAuthenticator {
       throw AmitAuthenticationException.invalidHeader();
 
     try {
-      final JwtParser jwtParser = Jwts.parser()
-          .setSigningKey(systemRsaKeyProvider.getPublicKey(keyTimestamp))
-          .requireIssuer(TokenType.SYSTEM.getIssuer())
-          .require(TokenConstants.JWT_SIGNATURE_TIMESTAMP_CLAIM, keyTimestamp);
-
-      TenantContextHolder.identifier().ifPresent(jwtParser::requireSubject);
-
       //noinspection unchecked
-      final Jwt<Header, Claims> result = jwtParser.parse(token);
-      if (result.getBody() == null ||
-              result.getBody().getAudience() == null) {
-        logger.info("System token for user {}, with key timestamp {} failed to authenticate. Audience was not set.", user, keyTimestamp);
-        throw AmitAuthenticationException.invalidToken();
-      }
-
-      logger.info("System token for user {}, with key timestamp {} authenticated successfully.", user, keyTimestamp);
+      final Jwt<Header, Claims> result = Jwts.parser()
+          .setSigningKey(systemRsaKeyProvider.getPublicKey(keyTimestamp))
+          .parse(token);
 
-      return new AnubisAuthentication(
-              TokenConstants.PREFIX + token,
-              user,
-              result.getBody().getAudience(),
-              TokenType.SYSTEM.getIssuer(),
-              permissions);
+      return authenticate(user, token, keyTimestamp, result.getBody());
     }
     catch (final JwtException e) {
       logger.debug("token = {}", token);
@@ -101,4 +83,40 @@ public class SystemAuthenticator {
       throw AmitAuthenticationException.invalidTokenKeyTimestamp("system", keyTimestamp);
     }
   }
+
+  /**
+   * @param claims The claims of a token whose signature has already been verified against the system public key
+   *               for keyTimestamp.  Only the claims are checked here; the token is not parsed a second time.
+   */
+  AnubisAuthentication authenticate(
+      final String user,
+      final String token,
+      final String keyTimestamp,
+      final Claims claims) {
+    if (!user.equals(ApiConstants.SYSTEM_SU))
+      throw AmitAuthenticationException.invalidHeader();
+
+    if (claims == null ||
+        !TokenType.SYSTEM.getIssuer().equals(claims.getIssuer()) ||
+        !keyTimestamp.equals(claims.get(TokenConstants.JWT_SIGNATURE_TIMESTAMP_CLAIM, String.class)) ||
+        !TenantContextHolder.identifier().map(x -> x.equals(claims.getSubject())).orElse(true)) {
+      logger.debug("token = {}", token);
+      logger.info("System token for user {}, with key timestamp {} failed to authenticate. Issuer, key timestamp, or subject did not match.", user, keyTimestamp);
+      throw AmitAuthenticationException.invalidToken();
+    }
+
+    if (claims.getAudience() == null) {
+      logger.info("System token for user {}, with key timestamp {} failed to authenticate. Audience was not set.", user, keyTimestamp);
+      throw AmitAuthenticationException.invalidToken();
+    }
+
+    logger.info("System token for user {}, with key timestamp {} authenticated successfully.", user, keyTimestamp);
+
+    return new AnubisAuthentication(
+            TokenConstants.PREFIX + token,
+            user,
+            claims.getAudience(),
+            TokenType.SYSTEM.getIssuer(),
+            permissions);
+  }
 }
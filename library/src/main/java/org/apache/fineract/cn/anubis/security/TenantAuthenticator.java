@@ -19,14 +19,14 @@
 package org.apache.fineract.cn.anubis.security;
 
 import com.google.gson.Gson;
-import io.jsonwebtoken.*;
+import io.jsonwebtoken.Claims;
 import org.apache.fineract.cn.anubis.annotation.AcceptedTokenType;
 import org.apache.fineract.cn.anubis.api.v1.TokenConstants;
 import org.apache.fineract.cn.anubis.api.v1.domain.TokenContent;
 import org.apache.fineract.cn.anubis.api.v1.domain.TokenPermission;
-import org.apache.fineract.cn.anubis.provider.InvalidKeyTimestampException;
-import org.apache.fineract.cn.anubis.provider.TenantRsaKeyProvider;
+import org.apache.fineract.cn.anubis.config.AnubisProperties;
 import org.apache.fineract.cn.anubis.service.PermittableService;
+import org.apache.fineract.cn.anubis.token.TokenContentCodec;
 import org.apache.fineract.cn.anubis.token.TokenType;
 import org.apache.fineract.cn.lang.ApplicationName;
 import org.slf4j.Logger;
@@ -35,86 +35,177 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.apache.fineract.cn.anubis.config.AnubisConstants.LOGGER_NAME;
 
 /**
+ * Users with the same roles receive tokens with identical content, so the permissions compiled from a token content
+ * are interned, keyed by a digest of the serialized content, or for compact token content by a digest of the part of
+ * the content belonging to this application.  At most anubis.permissionSetCacheSize of them are kept in a
+ * {@link SegmentedLruMap}, the least recently used are dropped first.  Setting the size to 0 turns interning off.
+ *
  * @author Myrle Krantz
  */
 @Component
 public class TenantAuthenticator {
-  private final TenantRsaKeyProvider tenantRsaKeyProvider;
   private final String applicationNameWithVersion;
   private final Gson gson;
-  private final Set<ApplicationPermission> guestPermissions;
+  private final ApplicationPermissionSet guestPermissions;
+  private final int permissionSetCacheSize;
+  private final SegmentedLruMap<String, ApplicationPermissionSet> permissionSetsByTokenContent;
   private final Logger logger;
 
   @Autowired
   public TenantAuthenticator(
-      final TenantRsaKeyProvider tenantRsaKeyProvider,
       final ApplicationName applicationName,
       final PermittableService permittableService,
       final @Qualifier("anubisGson") Gson gson,
+      final AnubisProperties anubisProperties,
       final @Qualifier(LOGGER_NAME) Logger logger) {
-    this.tenantRsaKeyProvider = tenantRsaKeyProvider;
     this.applicationNameWithVersion = applicationName.toString();
     this.gson = gson;
-    this.guestPermissions
-        = permittableService.getPermittableEndpointsAsPermissions(AcceptedTokenType.GUEST);
+    this.guestPermissions = ApplicationPermissionSet.of(
+        permittableService.getPermittableEndpointsAsPermissions(AcceptedTokenType.GUEST));
+    this.permissionSetCacheSize = Optional.ofNullable(anubisProperties.getPermissionSetCacheSize()).orElse(0);
+    this.permissionSetsByTokenContent = new SegmentedLruMap<>(permissionSetCacheSize);
     this.logger = logger;
   }
 
+  /**
+   * @param claims The claims of a token whose signature has already been verified against the tenant public key
+   *               for keyTimestamp.  Only the claims are checked here; the token is not parsed a second time.
+   */
   AnubisAuthentication authenticate(
       final @Nonnull String user,
       final @Nonnull String token,
-      final @Nonnull String keyTimestamp) {
-    try {
-      final JwtParser parser = Jwts.parser()
-          .requireSubject(user)
-          .requireIssuer(TokenType.TENANT.getIssuer())
-          .setSigningKey(tenantRsaKeyProvider.getPublicKey(keyTimestamp));
+      final @Nonnull String keyTimestamp,
+      final @Nonnull Claims claims) {
+    if (!user.equals(claims.getSubject()) || !TokenType.TENANT.getIssuer().equals(claims.getIssuer())) {
+      logger.info("Tenant token for user {}, with key timestamp {} failed to authenticate. Subject or issuer did not match.", user, keyTimestamp);
+      throw AmitAuthenticationException.invalidToken();
+    }
 
-      @SuppressWarnings("unchecked") Jwt<Header, Claims> jwt = parser.parse(token);
+    final Object compactTokenContent = claims.get(TokenConstants.JWT_COMPACT_CONTENT_CLAIM);
+    final String serializedTokenContent = claims.get(TokenConstants.JWT_CONTENT_CLAIM, String.class);
+    final String sourceApplication = claims.get(TokenConstants.JWT_SOURCE_APPLICATION_CLAIM, String.class);
 
-      final String serializedTokenContent = jwt.getBody().get(TokenConstants.JWT_CONTENT_CLAIM, String.class);
-      final String sourceApplication = jwt.getBody().get(TokenConstants.JWT_SOURCE_APPLICATION_CLAIM, String.class);
-      final TokenContent tokenContent = gson.fromJson(serializedTokenContent, TokenContent.class);
-      if (tokenContent == null)
-        throw AmitAuthenticationException.missingTokenContent();
+    final ApplicationPermissionSet permissions;
+    if (compactTokenContent != null)
+      permissions = getCompactPermissions(user, keyTimestamp, compactTokenContent);
+    else if (serializedTokenContent != null)
+      permissions = getPermissions(serializedTokenContent);
+    else
+      throw AmitAuthenticationException.missingTokenContent();
 
-      final Set<ApplicationPermission> permissions = translatePermissions(tokenContent.getTokenPermissions());
-      permissions.addAll(guestPermissions);
+    logger.info("Tenant token for user {}, with key timestamp {} authenticated successfully.", user, keyTimestamp);
 
-      logger.info("Tenant token for user {}, with key timestamp {} authenticated successfully.", user, keyTimestamp);
+    return new AnubisAuthentication(TokenConstants.PREFIX + token,
+        claims.getSubject(), applicationNameWithVersion, sourceApplication, permissions
+    );
+  }
+
+  private ApplicationPermissionSet getPermissions(final @Nonnull String serializedTokenContent) {
+    if (permissionSetCacheSize <= 0)
+      return compilePermissions(serializedTokenContent);
+
+    final String digest = digest(serializedTokenContent);
+    final ApplicationPermissionSet cached = getCachedPermissions(digest);
+    if (cached != null)
+      return cached;
+
+    final ApplicationPermissionSet permissions = compilePermissions(serializedTokenContent);
+    cachePermissions(digest, permissions);
+    return permissions;
+  }
 
-      return new AnubisAuthentication(TokenConstants.PREFIX + token,
-          jwt.getBody().getSubject(), applicationNameWithVersion, sourceApplication, permissions
-      );
+  private ApplicationPermissionSet getCompactPermissions(
+      final @Nonnull String user,
+      final @Nonnull String keyTimestamp,
+      final @Nonnull Object compactTokenContent) {
+    final Map<?, ?> applicationContent;
+    try {
+      applicationContent = TokenContentCodec.getApplicationContent(compactTokenContent, applicationNameWithVersion);
     }
-    catch (final JwtException e) {
-      logger.info("Tenant token for user {}, with key timestamp {} failed to authenticate. Exception was {}", user, keyTimestamp, e);
+    catch (final IllegalArgumentException e) {
+      logger.info("Tenant token for user {}, with key timestamp {} failed to authenticate. Exception was {}", user, keyTimestamp, e.getMessage());
       throw AmitAuthenticationException.invalidToken();
-    } catch (final InvalidKeyTimestampException e) {
-      logger.info("Tenant token for user {}, with key timestamp {} failed to authenticate. Exception was {}", user, keyTimestamp, e);
-      throw AmitAuthenticationException.invalidTokenKeyTimestamp("tenant", keyTimestamp);
+    }
+
+    //The content is keyed by its digest, so that a lookup doesn't hash and compare the whole parsed claim.
+    final String digest = permissionSetCacheSize > 0 ? digest(gson.toJson(applicationContent)) : null;
+    if (digest != null) {
+      final ApplicationPermissionSet cached = getCachedPermissions(digest);
+      if (cached != null)
+        return cached;
+    }
+
+    final List<TokenPermission> tokenPermissions;
+    try {
+      tokenPermissions = TokenContentCodec.decodeApplicationContent(applicationContent);
+    }
+    catch (final IllegalArgumentException e) {
+      logger.info("Tenant token for user {}, with key timestamp {} failed to authenticate. Exception was {}", user, keyTimestamp, e.getMessage());
+      throw AmitAuthenticationException.invalidToken();
+    }
+
+    final ApplicationPermissionSet permissions = ApplicationPermissionSet.layered(guestPermissions,
+        tokenPermissions.stream().flatMap(this::getAppPermissionFromRelativeTokenPermission).collect(Collectors.toList()));
+    if (digest != null)
+      cachePermissions(digest, permissions);
+    return permissions;
+  }
+
+  private ApplicationPermissionSet getCachedPermissions(final String tokenContentDigest) {
+    return permissionSetsByTokenContent.get(tokenContentDigest);
+  }
+
+  private void cachePermissions(final String tokenContentDigest, final ApplicationPermissionSet permissions) {
+    permissionSetsByTokenContent.put(tokenContentDigest, permissions);
+  }
+
+  private ApplicationPermissionSet compilePermissions(final @Nonnull String serializedTokenContent) {
+    final TokenContent tokenContent = gson.fromJson(serializedTokenContent, TokenContent.class);
+    if (tokenContent == null)
+      throw AmitAuthenticationException.missingTokenContent();
+
+    return ApplicationPermissionSet.layered(guestPermissions, translatePermissions(tokenContent.getTokenPermissions()));
+  }
+
+  private static String digest(final String serializedTokenContent) {
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return Base64.getEncoder().encodeToString(digest.digest(serializedTokenContent.getBytes(StandardCharsets.UTF_8)));
+    }
+    catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available.", e);
     }
   }
 
-  private Set<ApplicationPermission> translatePermissions(
+  private List<ApplicationPermission> translatePermissions(
       @Nonnull final List<TokenPermission> tokenPermissions)
   {
     return tokenPermissions.stream()
             .filter(x -> x.getPath().startsWith(applicationNameWithVersion))
             .flatMap(this::getAppPermissionFromTokenPermission)
-            .collect(Collectors.toSet());
+            .collect(Collectors.toList());
   }
 
   private Stream<ApplicationPermission> getAppPermissionFromTokenPermission(final TokenPermission tokenPermission) {
     final String servletPath = tokenPermission.getPath().substring(applicationNameWithVersion.length());
     return tokenPermission.getAllowedOperations().stream().map(x -> new ApplicationPermission(servletPath, x, false));
   }
+
+  private Stream<ApplicationPermission> getAppPermissionFromRelativeTokenPermission(final TokenPermission tokenPermission) {
+    return tokenPermission.getAllowedOperations().stream()
+        .map(x -> new ApplicationPermission(tokenPermission.getPath(), x, false));
+  }
 }
@@ -18,6 +18,7 @@
  */
 package org.apache.fineract.cn.anubis.security;
 
+import io.jsonwebtoken.Claims;
 import org.apache.fineract.cn.anubis.token.TokenType;
 
 /**
@@ -26,10 +27,12 @@ import org.apache.fineract.cn.anubis.token.TokenType;
 class TokenInfo {
   final private TokenType type;
   final private String keyTimestamp;
+  final private Claims claims;
 
-  TokenInfo(final TokenType type, final String keyTimestamp) {
+  TokenInfo(final TokenType type, final String keyTimestamp, final Claims claims) {
     this.type = type;
     this.keyTimestamp = keyTimestamp;
+    this.claims = claims;
   }
 
   TokenType getType() {
@@ -39,4 +42,8 @@ class TokenInfo {
   String getKeyTimestamp() {
     return keyTimestamp;
   }
+
+  Claims getClaims() {
+    return claims;
+  }
 }
@@ -23,7 +23,6 @@ import org.slf4j.Logger;
 import org.springframework.security.access.AccessDecisionVoter;
 import org.springframework.security.access.ConfigAttribute;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.web.FilterInvocation;
 
 import java.util.Collection;
@@ -34,11 +33,11 @@ import java.util.Optional;
  */
 public class UrlPermissionChecker implements AccessDecisionVoter<FilterInvocation> {
   private final Logger logger;
-  private final ApplicationName applicationName;
+  private final String applicationName;
 
   public UrlPermissionChecker(final Logger logger, final ApplicationName applicationName) {
     this.logger = logger;
-    this.applicationName = applicationName;
+    this.applicationName = applicationName.toString();
   }
 
   @Override public boolean supports(final ConfigAttribute attribute) {
@@ -61,15 +60,15 @@ public class UrlPermissionChecker implements AccessDecisionVoter<FilterInvocatio
 
     final AnubisAuthentication authentication = (AnubisAuthentication) unAuthentication;
 
-    final Collection<? extends GrantedAuthority> authorities = authentication.getAuthorities();
-    final Optional<ApplicationPermission> matchedPermission = authorities.stream()
-            .map(x -> (ApplicationPermission) x)
-            .filter(x -> x.matches(filterInvocation, applicationName, authentication.getPrincipal()))
-            .findAny();
+    final Optional<ApplicationPermission> matchedPermission = authentication.findMatch(
+            applicationName,
+            filterInvocation.getRequest().getServletPath(),
+            filterInvocation.getRequest().getMethod());
 
     //Do not put full .getRequestUrl() into log info, because in the case of identity, it includes the password.
-    matchedPermission.ifPresent(x -> logger.debug("Authorizing access to {} based on permission: {}"
-            , filterInvocation.getRequest().getServletPath(),  x));
+    if (matchedPermission.isPresent() && logger.isDebugEnabled())
+      logger.debug("Authorizing access to {} based on permission: {}"
+              , filterInvocation.getRequest().getServletPath(), matchedPermission.get());
 
     return matchedPermission.map(x -> ACCESS_GRANTED).orElse(ACCESS_DENIED);
   }
@@ -29,26 +29,53 @@ import org.apache.fineract.cn.anubis.security.AnubisPrincipal;
  * @author Myrle Krantz
  */
 public class PermissionSegmentMatcher {
+  public enum Kind {
+    STAR,
+    USER_IDENTIFIER,
+    APPLICATION_IDENTIFIER,
+    PARAMETER,
+    LITERAL
+  }
+
   final private String permissionSegment;
+  final private Kind kind;
 
   private PermissionSegmentMatcher(final String permissionSegment) {
     this.permissionSegment = permissionSegment;
+    this.kind = kindOf(permissionSegment);
+  }
+
+  private static Kind kindOf(final String permissionSegment) {
+    if (permissionSegment.equals("*"))
+      return Kind.STAR;
+    else if (permissionSegment.equals("{useridentifier}"))
+      return Kind.USER_IDENTIFIER;
+    else if (permissionSegment.equals("{applicationidentifier}"))
+      return Kind.APPLICATION_IDENTIFIER;
+    else if (permissionSegment.startsWith("{") && permissionSegment.endsWith("}"))
+      return Kind.PARAMETER;
+    else
+      return Kind.LITERAL;
+  }
+
+  public Kind getKind() {
+    return kind;
   }
 
   public boolean isStarSegment() {
-    return permissionSegment.equals("*");
+    return kind == Kind.STAR;
   }
 
-  private boolean isUserIdentifierSegment() {
-    return permissionSegment.equals("{useridentifier}");
+  public boolean isUserIdentifierSegment() {
+    return kind == Kind.USER_IDENTIFIER;
   }
 
-  private boolean isApplicationIdentifierSegment() {
-    return permissionSegment.equals("{applicationidentifier}");
+  public boolean isApplicationIdentifierSegment() {
+    return kind == Kind.APPLICATION_IDENTIFIER;
   }
 
-  boolean isParameterSegment() {
-    return permissionSegment.startsWith("{") && permissionSegment.endsWith("}");
+  public boolean isParameterSegment() {
+    return kind == Kind.USER_IDENTIFIER || kind == Kind.APPLICATION_IDENTIFIER || kind == Kind.PARAMETER;
   }
 
   public String getPermissionSegment() { return permissionSegment; }
@@ -58,18 +85,81 @@ public class PermissionSegmentMatcher {
           final AnubisPrincipal principal,
           boolean acceptTokenIntendedForForeignApplication,
           boolean isSu) {
-    if (isStarSegment())
-      return true;
-    else if (isUserIdentifierSegment())
-      return requestSegment.equals(principal.getUser());
-    else if (acceptTokenIntendedForForeignApplication && isApplicationIdentifierSegment())
-      return requestSegment.equals(principal.getForApplicationName());
-    else if (!acceptTokenIntendedForForeignApplication && isApplicationIdentifierSegment())
-      return requestSegment.equals(principal.getSourceApplicationName());
-    else if (isParameterSegment())
-      return isSu;
-    else
-      return permissionSegment.equals(requestSegment);
+    return matches(requestSegment, 0, requestSegment.length(), principal, acceptTokenIntendedForForeignApplication, isSu);
+  }
+
+  /**
+   * Matches the segment of the request path between segmentStart (inclusive) and segmentEnd (exclusive) without
+   * creating a substring.
+   */
+  public boolean matches(
+          final String requestPath,
+          final int segmentStart,
+          final int segmentEnd,
+          final AnubisPrincipal principal,
+          boolean acceptTokenIntendedForForeignApplication,
+          boolean isSu) {
+    switch (kind) {
+      case STAR:
+        return true;
+      case USER_IDENTIFIER:
+        return regionEquals(requestPath, segmentStart, segmentEnd, principal.getUser());
+      case APPLICATION_IDENTIFIER:
+        return regionEquals(requestPath, segmentStart, segmentEnd, acceptTokenIntendedForForeignApplication
+                ? principal.getForApplicationName()
+                : principal.getSourceApplicationName());
+      case PARAMETER:
+        return isSu;
+      default:
+        return regionEquals(requestPath, segmentStart, segmentEnd, permissionSegment);
+    }
+  }
+
+  public static boolean regionEquals(
+          final String requestPath,
+          final int segmentStart,
+          final int segmentEnd,
+          final String value) {
+    return value != null
+            && value.length() == segmentEnd - segmentStart
+            && requestPath.regionMatches(segmentStart, value, 0, value.length());
+  }
+
+  /**
+   * @return The number of segments servletPath.split("/") would return, without splitting.
+   */
+  static public int getSegmentCount(final @Nonnull String servletPath) {
+    if (servletPath.isEmpty())
+      return 1;
+
+    final int end = getSegmentsEnd(servletPath);
+    if (end == 0)
+      return 0;
+
+    int ret = 1;
+    for (int i = 0; i < end; i++) {
+      if (servletPath.charAt(i) == '/')
+        ret++;
+    }
+    return ret;
+  }
+
+  /**
+   * @return The end of the last segment servletPath.split("/") would return, i.e. the length without trailing slashes.
+   */
+  static public int getSegmentsEnd(final @Nonnull String servletPath) {
+    int end = servletPath.length();
+    while (end > 0 && servletPath.charAt(end - 1) == '/')
+      end--;
+    return end;
+  }
+
+  /**
+   * @return The end (exclusive) of the segment starting at segmentStart.  The next segment starts one after it.
+   */
+  static public int getSegmentEnd(final @Nonnull String servletPath, final int segmentStart, final int segmentsEnd) {
+    final int slash = servletPath.indexOf('/', segmentStart);
+    return (slash < 0 || slash > segmentsEnd) ? segmentsEnd : slash;
   }
 
   static public List<PermissionSegmentMatcher> getServletPathSegmentMatchers(final @Nonnull String servletPath) {
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.fineract.cn.anubis.annotation.AcceptedTokenType;
+import org.apache.fineract.cn.anubis.api.v1.domain.AllowedOperation;
+import org.apache.fineract.cn.anubis.api.v1.domain.PermittableEndpoint;
+import org.apache.fineract.cn.anubis.security.ApplicationPermission;
+
+/**
+ * An immutable snapshot of the permittable endpoints of a service, indexed by accepted token type and by group id.
+ * The tenant endpoints are also kept serialized, together with an entity tag derived from the serialized form, so
+ * that they can be served without any further work.  They are serialized with the object mapper used for the rest of
+ * the service's responses, so the wire format is the same as if the endpoints were serialized per request.
+ */
+final class PermittableEndpointRegistry {
+  private final Map<AcceptedTokenType, Set<PermittableEndpoint>> endpointsByTokenType;
+  private final Map<AcceptedTokenType, Map<String, Set<PermittableEndpoint>>> endpointsByTokenTypeAndGroupId;
+  private final Map<AcceptedTokenType, Set<ApplicationPermission>> permissionsByTokenType;
+  private final String tenantEndpointsJson;
+  private final String tenantEndpointsETag;
+
+  /**
+   * @param relativeEndpoints The endpoints per token type, with paths which do not yet include the application name.
+   */
+  PermittableEndpointRegistry(
+      final String applicationName,
+      final Map<AcceptedTokenType, ? extends Collection<PermittableEndpoint>> relativeEndpoints,
+      final ObjectMapper objectMapper) {
+    this.endpointsByTokenType = new EnumMap<>(AcceptedTokenType.class);
+    this.endpointsByTokenTypeAndGroupId = new EnumMap<>(AcceptedTokenType.class);
+    this.permissionsByTokenType = new EnumMap<>(AcceptedTokenType.class);
+
+    for (final AcceptedTokenType acceptedTokenType : AcceptedTokenType.values()) {
+      final Collection<PermittableEndpoint> relativeEndpointsForType = relativeEndpoints.containsKey(acceptedTokenType)
+          ? relativeEndpoints.get(acceptedTokenType) : Collections.emptySet();
+
+      final Set<PermittableEndpoint> endpoints = new LinkedHashSet<>();
+      final Map<String, Set<PermittableEndpoint>> endpointsByGroupId = new HashMap<>();
+      for (final PermittableEndpoint relativeEndpoint : relativeEndpointsForType) {
+        final PermittableEndpoint endpoint = new PermittableEndpoint(
+            applicationName + relativeEndpoint.getPath(),
+            relativeEndpoint.getMethod(),
+            relativeEndpoint.getGroupId(),
+            relativeEndpoint.isAcceptTokenIntendedForForeignApplication());
+        endpoints.add(endpoint);
+        if (endpoint.getGroupId() != null)
+          endpointsByGroupId.computeIfAbsent(endpoint.getGroupId(), x -> new LinkedHashSet<>()).add(endpoint);
+      }
+      endpointsByGroupId.replaceAll((groupId, x) -> Collections.unmodifiableSet(x));
+
+      this.endpointsByTokenType.put(acceptedTokenType, Collections.unmodifiableSet(endpoints));
+      this.endpointsByTokenTypeAndGroupId.put(acceptedTokenType, Collections.unmodifiableMap(endpointsByGroupId));
+      final Set<ApplicationPermission> permissions = relativeEndpointsForType.stream().distinct()
+          .map(x -> new ApplicationPermission(x.getPath(), mapHttpMethod(x.getMethod()), x.isAcceptTokenIntendedForForeignApplication()))
+          .collect(Collectors.toCollection(LinkedHashSet::new));
+      this.permissionsByTokenType.put(acceptedTokenType, Collections.unmodifiableSet(permissions));
+    }
+
+    this.tenantEndpointsJson = serialize(objectMapper, new ArrayList<>(endpointsByTokenType.get(AcceptedTokenType.TENANT)));
+    this.tenantEndpointsETag = "\"" + digest(tenantEndpointsJson) + "\"";
+  }
+
+  Set<PermittableEndpoint> getPermittableEndpoints(final Collection<AcceptedTokenType> acceptedTokenTypes) {
+    if (acceptedTokenTypes.size() == 1)
+      return endpointsByTokenType.get(acceptedTokenTypes.iterator().next());
+
+    final Set<PermittableEndpoint> ret = new LinkedHashSet<>();
+    acceptedTokenTypes.forEach(x -> ret.addAll(endpointsByTokenType.get(x)));
+    return Collections.unmodifiableSet(ret);
+  }
+
+  Set<PermittableEndpoint> getPermittableEndpoints(final AcceptedTokenType acceptedTokenType, final String groupId) {
+    return endpointsByTokenTypeAndGroupId.get(acceptedTokenType).getOrDefault(groupId, Collections.emptySet());
+  }
+
+  Set<ApplicationPermission> getPermissions(final Collection<AcceptedTokenType> acceptedTokenTypes) {
+    if (acceptedTokenTypes.size() == 1)
+      return permissionsByTokenType.get(acceptedTokenTypes.iterator().next());
+
+    final Set<ApplicationPermission> ret = new LinkedHashSet<>();
+    acceptedTokenTypes.forEach(x -> ret.addAll(permissionsByTokenType.get(x)));
+    return Collections.unmodifiableSet(ret);
+  }
+
+  String getTenantEndpointsJson() {
+    return tenantEndpointsJson;
+  }
+
+  String getTenantEndpointsETag() {
+    return tenantEndpointsETag;
+  }
+
+  private static AllowedOperation mapHttpMethod(final String httpMethod) {
+    switch (httpMethod) {
+      case "GET":
+        return AllowedOperation.READ;
+      case "HEAD":
+        return AllowedOperation.READ;
+      case "POST":
+        return AllowedOperation.CHANGE;
+      case "PUT":
+        return AllowedOperation.CHANGE;
+      case "DELETE":
+        return AllowedOperation.DELETE;
+      default:
+        throw new IllegalArgumentException("Unsupported HTTP Method " + httpMethod);
+    }
+  }
+
+  private static String serialize(final ObjectMapper objectMapper, final Object value) {
+    try {
+      return objectMapper.writeValueAsString(value);
+    }
+    catch (final JsonProcessingException e) {
+      throw new IllegalStateException("Permittable endpoints could not be serialized.", e);
+    }
+  }
+
+  private static String digest(final String content) {
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return Base64.getEncoder().encodeToString(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+    catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available.", e);
+    }
+  }
+}
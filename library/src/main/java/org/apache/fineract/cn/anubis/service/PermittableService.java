@@ -20,21 +20,21 @@ package org.apache.fineract.cn.anubis.service;
 
 import static org.apache.fineract.cn.anubis.config.AnubisConstants.LOGGER_NAME;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.lang.Assert;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import org.apache.fineract.cn.anubis.annotation.AcceptedTokenType;
 import org.apache.fineract.cn.anubis.annotation.Permittable;
-import org.apache.fineract.cn.anubis.api.v1.domain.AllowedOperation;
 import org.apache.fineract.cn.anubis.api.v1.domain.PermittableEndpoint;
 import org.apache.fineract.cn.anubis.config.AnubisProperties;
 import org.apache.fineract.cn.anubis.security.ApplicationPermission;
@@ -43,6 +43,8 @@ import org.slf4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.actuate.endpoint.mvc.EndpointHandlerMapping;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.RequestMethod;
@@ -51,24 +53,32 @@ import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 
 /**
+ * Collects the endpoints annotated with {@link Permittable} into an immutable registry.  The registry is built on
+ * first use, and rebuilt once the application context has been refreshed, so that the handler methods are not walked
+ * on every request.
+ *
  * @author Myrle Krantz
  */
 @Component
-public class PermittableService {
+public class PermittableService implements ApplicationListener<ContextRefreshedEvent> {
   private final RequestMappingHandlerMapping requestMappingHandlerMapping;
   private final EndpointHandlerMapping endpointHandlerMapping;
   private final ApplicationName applicationName;
   private final Permittable defaultPermittable;
+  private final ObjectMapper objectMapper;
+  private volatile PermittableEndpointRegistry registry;
 
   @Autowired
   public PermittableService(final RequestMappingHandlerMapping requestMappingHandlerMapping,
                             final EndpointHandlerMapping endpointHandlerMapping,
                             final ApplicationName applicationName,
                             final AnubisProperties anubisProperties,
+                            final ObjectMapper objectMapper,
                             final @Qualifier(LOGGER_NAME) Logger logger) {
     this.requestMappingHandlerMapping = requestMappingHandlerMapping;
     this.endpointHandlerMapping = endpointHandlerMapping;
     this.applicationName = applicationName;
+    this.objectMapper = objectMapper;
     if (anubisProperties.getAcceptGuestTokensForSystemEndpoints()) {
       logger.error("The service property anubis.tokenTypeRequiredForSystemEndpoints is set to GUEST. This " +
           "feature is intended for use only in test environments. Turning it on in a production environment " +
@@ -79,62 +89,70 @@ public class PermittableService {
     }
   }
 
-  public Set<ApplicationPermission> getPermittableEndpointsAsPermissions(
-      final AcceptedTokenType... acceptedTokenType) {
-    final Set<PermittableEndpoint> permittableEndpoints
-        = getPermittableEndpointsHelper(Arrays.asList(acceptedTokenType), false);
-
-    return Collections.unmodifiableSet(
-        permittableEndpoints.stream()
-            .map(x -> new ApplicationPermission(x.getPath(), mapHttpMethod(x.getMethod()), x.isAcceptTokenIntendedForForeignApplication()))
-            .collect(Collectors.toSet()));
+  @Override
+  public void onApplicationEvent(final ContextRefreshedEvent event) {
+    this.registry = buildRegistry();
   }
 
-  private static AllowedOperation mapHttpMethod(final String httpMethod) {
-    switch (httpMethod) {
-      case "GET":
-        return AllowedOperation.READ;
-      case "HEAD":
-        return AllowedOperation.READ;
-      case "POST":
-        return AllowedOperation.CHANGE;
-      case "PUT":
-        return AllowedOperation.CHANGE;
-      case "DELETE":
-        return AllowedOperation.DELETE;
-      default:
-        throw new IllegalArgumentException("Unsupported HTTP Method " + httpMethod);
-    }
+  public Set<ApplicationPermission> getPermittableEndpointsAsPermissions(
+      final AcceptedTokenType... acceptedTokenType) {
+    Assert.notEmpty(acceptedTokenType);
+    return getRegistry().getPermissions(Arrays.asList(acceptedTokenType));
   }
 
   public Set<PermittableEndpoint> getPermittableEndpoints(final Collection<AcceptedTokenType> acceptedTokenTypes) {
-    return getPermittableEndpointsHelper(acceptedTokenTypes, true);
+    Assert.notEmpty(acceptedTokenTypes);
+    return getRegistry().getPermittableEndpoints(acceptedTokenTypes);
   }
 
-  private Set<PermittableEndpoint> getPermittableEndpointsHelper(
-      final Collection<AcceptedTokenType> acceptedTokenTypes, boolean withAppName) {
-    Assert.notEmpty(acceptedTokenTypes);
+  public Set<PermittableEndpoint> getPermittableEndpoints(final AcceptedTokenType acceptedTokenType,
+                                                          final String groupId) {
+    return getRegistry().getPermittableEndpoints(acceptedTokenType, groupId);
+  }
 
-    final Set<PermittableEndpoint> permittableEndpoints = new LinkedHashSet<>();
+  /**
+   * @return The tenant permittable endpoints, already serialized as a JSON array.
+   */
+  public String getTenantPermittableEndpointsJson() {
+    return getRegistry().getTenantEndpointsJson();
+  }
 
-    fillPermittableEndpointsFromHandlerMethods(acceptedTokenTypes, withAppName, this.requestMappingHandlerMapping.getHandlerMethods(), permittableEndpoints);
-    fillPermittableEndpointsFromHandlerMethods(acceptedTokenTypes, withAppName, this.endpointHandlerMapping.getHandlerMethods(), permittableEndpoints);
+  /**
+   * @return A strong entity tag for the tenant permittable endpoints, including the surrounding quotes.
+   */
+  public String getTenantPermittableEndpointsETag() {
+    return getRegistry().getTenantEndpointsETag();
+  }
 
-    if (acceptedTokenTypes.contains(AcceptedTokenType.SYSTEM)) {
-      final PermittableEndpoint permittableEndpoint = new PermittableEndpoint();
-      if (withAppName)
-        permittableEndpoint.setPath(applicationName + "/initialize");
-      else
-        permittableEndpoint.setPath("/initialize");
+  private PermittableEndpointRegistry getRegistry() {
+    PermittableEndpointRegistry ret = registry;
+    if (ret == null) {
+      synchronized (this) {
+        ret = registry;
+        if (ret == null) {
+          ret = buildRegistry();
+          registry = ret;
+        }
+      }
+    }
+    return ret;
+  }
 
-      permittableEndpoint.setMethod("POST");
+  private PermittableEndpointRegistry buildRegistry() {
+    final Map<AcceptedTokenType, Set<PermittableEndpoint>> permittableEndpoints = new EnumMap<>(AcceptedTokenType.class);
+    for (final AcceptedTokenType acceptedTokenType : AcceptedTokenType.values())
+      permittableEndpoints.put(acceptedTokenType, new LinkedHashSet<>());
 
-      permittableEndpoint.setAcceptTokenIntendedForForeignApplication(false);
+    fillPermittableEndpointsFromHandlerMethods(this.requestMappingHandlerMapping.getHandlerMethods(), permittableEndpoints);
+    fillPermittableEndpointsFromHandlerMethods(this.endpointHandlerMapping.getHandlerMethods(), permittableEndpoints);
 
-      permittableEndpoints.add(permittableEndpoint);
-    }
+    final PermittableEndpoint permittableEndpoint = new PermittableEndpoint();
+    permittableEndpoint.setPath("/initialize");
+    permittableEndpoint.setMethod("POST");
+    permittableEndpoint.setAcceptTokenIntendedForForeignApplication(false);
+    permittableEndpoints.get(AcceptedTokenType.SYSTEM).add(permittableEndpoint);
 
-    return permittableEndpoints;
+    return new PermittableEndpointRegistry(applicationName.toString(), permittableEndpoints, objectMapper);
   }
 
   private static class WhatINeedToBuildAPermittableEndpoint
@@ -154,26 +172,20 @@ public class PermittableService {
   }
 
   private void fillPermittableEndpointsFromHandlerMethods(
-      final Collection<AcceptedTokenType> acceptedTokenTypes,
-      final boolean withAppName,
       final Map<RequestMappingInfo, HandlerMethod> handlerMethods,
-      final @Nonnull Set<PermittableEndpoint> permittableEndpoints) {
+      final @Nonnull Map<AcceptedTokenType, Set<PermittableEndpoint>> permittableEndpoints) {
     handlerMethods.entrySet()
         .stream().flatMap(handlerMethod -> PermittableService.whatINeedToBuildAPermittableEndpoint(handlerMethod, defaultPermittable))
-        .filter(whatINeedToBuildAPermittableEndpoint -> acceptedTokenTypes.contains(getAcceptedTokenType(whatINeedToBuildAPermittableEndpoint)))
         .forEachOrdered(whatINeedToBuildAPermittableEndpoint ->
             whatINeedToBuildAPermittableEndpoint.patterns
                 .forEach(pattern -> whatINeedToBuildAPermittableEndpoint.methods
                     .forEach(method -> {
                       final PermittableEndpoint permittableEndpoint = new PermittableEndpoint();
-                      permittableEndpoint.setPath(getPath(
-                          withAppName ? applicationName.toString() : "",
-                          pattern,
-                          whatINeedToBuildAPermittableEndpoint));
+                      permittableEndpoint.setPath(getPath(pattern, whatINeedToBuildAPermittableEndpoint));
                       permittableEndpoint.setMethod(method.name());
                       permittableEndpoint.setGroupId(whatINeedToBuildAPermittableEndpoint.annotation.groupId());
                       permittableEndpoint.setAcceptTokenIntendedForForeignApplication(whatINeedToBuildAPermittableEndpoint.annotation.acceptTokenIntendedForForeignApplication());
-                      permittableEndpoints.add(permittableEndpoint);
+                      permittableEndpoints.get(getAcceptedTokenType(whatINeedToBuildAPermittableEndpoint)).add(permittableEndpoint);
                     })
                 ));
   }
@@ -182,14 +194,13 @@ public class PermittableService {
     return whatINeedToBuildAPermittableEndpoint.annotation.value();
   }
 
-  static private String getPath(final @Nonnull String applicationName,
-                                final @Nonnull String pattern,
+  static private String getPath(final @Nonnull String pattern,
                                 final @Nonnull WhatINeedToBuildAPermittableEndpoint whatINeedToBuildAPermittableEndpoint) {
     final String programmerSpecifiedEndpoint = whatINeedToBuildAPermittableEndpoint.annotation.permittedEndpoint();
     if (!programmerSpecifiedEndpoint.isEmpty())
-      return applicationName + programmerSpecifiedEndpoint;
+      return programmerSpecifiedEndpoint;
 
-    final StringBuilder ret = new StringBuilder(applicationName);
+    final StringBuilder ret = new StringBuilder();
 
     PermissionSegmentMatcher.getServletPathSegmentMatchers(pattern).stream()   //parse the pattern into segments
             .map(x -> x.isParameterSegment() ? "*" : x.getPermissionSegment()) //replace the parameter segments with stars.
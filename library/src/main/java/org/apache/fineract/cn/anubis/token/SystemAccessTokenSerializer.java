@@ -26,8 +26,6 @@ import java.util.Date;
 import java.util.concurrent.TimeUnit;
 
 import io.jsonwebtoken.JwtBuilder;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 
 
 /**
@@ -36,10 +34,12 @@ import io.jsonwebtoken.SignatureAlgorithm;
 @SuppressWarnings({"WeakerAccess", "unused"})
 @Component
 public class SystemAccessTokenSerializer {
+  private final TokenSignerCache signerCache = new TokenSignerCache();
 
   public static class Specification {
     private String keyTimestamp;
     private PrivateKey privateKey;
+    private TokenSigner signer;
     private String tenant;
     private String role;
     private long secondsToLive;
@@ -55,6 +55,14 @@ public class SystemAccessTokenSerializer {
       return this;
     }
 
+    /**
+     * Use instead of a private key to sign with an initialised signer from a {@link TokenSignerCache}.
+     */
+    public Specification setSigner(final TokenSigner signer) {
+      this.signer = signer;
+      return this;
+    }
+
     public Specification setTenant(final String tenant) {
       this.tenant = tenant;
       return this;
@@ -81,22 +89,17 @@ public class SystemAccessTokenSerializer {
   {
     final long issued = System.currentTimeMillis();
 
-    if (specification.keyTimestamp == null) {
-      throw new IllegalArgumentException("token signature timestamp must not be null.");
-    }
-    if (specification.privateKey == null) {
-      throw new IllegalArgumentException("token signature privateKey must not be null.");
-    }
+    final TokenSigner signer = signerCache.resolve(
+        specification.keyTimestamp, specification.privateKey, specification.signer);
 
     final JwtBuilder jwtBuilder =
-        Jwts.builder()
+        signer.builder()
             .setAudience(specification.targetApplicationName)
             .setSubject(specification.tenant)
             .claim(TokenConstants.JWT_SIGNATURE_TIMESTAMP_CLAIM, specification.keyTimestamp)
             .claim(TokenConstants.JWT_CONTENT_CLAIM, specification.role)
             .setIssuer(TokenType.SYSTEM.getIssuer())
-            .setIssuedAt(new Date(issued))
-            .signWith(SignatureAlgorithm.RS512, specification.privateKey);
+            .setIssuedAt(new Date(issued));
     if (specification.secondsToLive <= 0) {
       throw new IllegalArgumentException("token secondsToLive must be positive.");
     }
@@ -20,8 +20,6 @@ package org.apache.fineract.cn.anubis.token;
 
 import com.google.gson.Gson;
 import io.jsonwebtoken.JwtBuilder;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import org.apache.fineract.cn.anubis.api.v1.TokenConstants;
 import org.apache.fineract.cn.anubis.api.v1.domain.TokenContent;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,6 +38,7 @@ import java.util.concurrent.TimeUnit;
 public class TenantAccessTokenSerializer {
 
   final private Gson gson;
+  final private TokenSignerCache signerCache = new TokenSignerCache();
 
   @Autowired
   public TenantAccessTokenSerializer(final @Qualifier("anubisGson") Gson gson) {
@@ -50,10 +49,12 @@ public class TenantAccessTokenSerializer {
   public static class Specification {
     private String keyTimestamp;
     private PrivateKey privateKey;
+    private TokenSigner signer;
     private String user;
     private TokenContent tokenContent;
     private long secondsToLive;
     private String sourceApplication;
+    private boolean compactTokenContent = false; //Optional
 
     public Specification setKeyTimestamp(final String keyTimestamp) {
       this.keyTimestamp = keyTimestamp;
@@ -65,6 +66,14 @@ public class TenantAccessTokenSerializer {
       return this;
     }
 
+    /**
+     * Use instead of a private key to sign with an initialised signer from a {@link TokenSignerCache}.
+     */
+    public Specification setSigner(final TokenSigner signer) {
+      this.signer = signer;
+      return this;
+    }
+
     public Specification setUser(final String user) {
       this.user = user;
       return this;
@@ -84,33 +93,39 @@ public class TenantAccessTokenSerializer {
       this.secondsToLive = secondsToLive;
       return this;
     }
+
+    /**
+     * Write the token content as a nested claim, as described in {@link TokenContentCodec}, rather than as a string.
+     * This makes tokens with many permissions smaller and cheaper to parse, but only services whose anubis
+     * understands compact token content can authenticate them.
+     */
+    public Specification setCompactTokenContent(final boolean compactTokenContent) {
+      this.compactTokenContent = compactTokenContent;
+      return this;
+    }
   }
 
   public TokenSerializationResult build(final Specification specification)
   {
     final long issued = System.currentTimeMillis();
 
-    final String serializedTokenContent = gson.toJson(specification.tokenContent);
-
-    if (specification.keyTimestamp == null) {
-      throw new IllegalArgumentException("token signature timestamp must not be null.");
-    }
-    if (specification.privateKey == null) {
-      throw new IllegalArgumentException("token signature privateKey must not be null.");
-    }
+    final TokenSigner signer = signerCache.resolve(
+        specification.keyTimestamp, specification.privateKey, specification.signer);
     if (specification.sourceApplication == null) {
       throw new IllegalArgumentException("token signature source application must not be null.");
     }
 
     final JwtBuilder jwtBuilder =
-        Jwts.builder()
+        signer.builder()
             .setSubject(specification.user)
             .claim(TokenConstants.JWT_SIGNATURE_TIMESTAMP_CLAIM, specification.keyTimestamp)
-            .claim(TokenConstants.JWT_CONTENT_CLAIM, serializedTokenContent)
             .claim(TokenConstants.JWT_SOURCE_APPLICATION_CLAIM, specification.sourceApplication)
             .setIssuer(TokenType.TENANT.getIssuer())
-            .setIssuedAt(new Date(issued))
-            .signWith(SignatureAlgorithm.RS512, specification.privateKey);
+            .setIssuedAt(new Date(issued));
+    if (specification.compactTokenContent)
+      jwtBuilder.claim(TokenConstants.JWT_COMPACT_CONTENT_CLAIM, TokenContentCodec.encode(specification.tokenContent));
+    else
+      jwtBuilder.claim(TokenConstants.JWT_CONTENT_CLAIM, gson.toJson(specification.tokenContent));
     if (specification.secondsToLive <= 0) {
       throw new IllegalArgumentException("token secondsToLive must be positive.");
     }
@@ -37,10 +37,13 @@ import java.util.concurrent.TimeUnit;
 @SuppressWarnings("WeakerAccess")
 @Component
 public class TenantRefreshTokenSerializer {
+  private final TokenSignerCache signerCache = new TokenSignerCache();
+
   @SuppressWarnings("WeakerAccess")
   public static class Specification {
     private String keyTimestamp;
     private PrivateKey privateKey;
+    private TokenSigner signer;
     private String user;
     private long secondsToLive;
     private String sourceApplication;
@@ -56,6 +59,14 @@ public class TenantRefreshTokenSerializer {
       return this;
     }
 
+    /**
+     * Use instead of a private key to sign with an initialised signer from a {@link TokenSignerCache}.
+     */
+    public Specification setSigner(final TokenSigner signer) {
+      this.signer = signer;
+      return this;
+    }
+
     public Specification setUser(final String user) {
       this.user = user;
       return this;
@@ -81,12 +92,8 @@ public class TenantRefreshTokenSerializer {
   {
     final long issued = System.currentTimeMillis();
 
-    if (specification.keyTimestamp == null) {
-      throw new IllegalArgumentException("token signature timestamp must not be null.");
-    }
-    if (specification.privateKey == null) {
-      throw new IllegalArgumentException("token signature privateKey must not be null.");
-    }
+    final TokenSigner signer = signerCache.resolve(
+        specification.keyTimestamp, specification.privateKey, specification.signer);
     if (specification.sourceApplication == null) {
       throw new IllegalArgumentException("token source application must not be null.");
     }
@@ -97,12 +104,11 @@ public class TenantRefreshTokenSerializer {
     final Date expiration = new Date(issued + TimeUnit.SECONDS.toMillis(specification.secondsToLive));
 
     final JwtBuilder jwtBuilder =
-            Jwts.builder()
+            signer.builder()
                     .setIssuer(specification.sourceApplication)
                     .setSubject(specification.user)
                     .claim(TokenConstants.JWT_SIGNATURE_TIMESTAMP_CLAIM, specification.keyTimestamp)
                     .setIssuedAt(new Date(issued))
-                    .signWith(SignatureAlgorithm.RS512, specification.privateKey)
                     .setExpiration(expiration);
     if (specification.endpointSet != null)
       jwtBuilder.claim(TokenConstants.JWT_ENDPOINT_SET_CLAIM, specification.endpointSet);
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.token;
+
+import org.apache.fineract.cn.anubis.api.v1.domain.AllowedOperation;
+import org.apache.fineract.cn.anubis.api.v1.domain.TokenContent;
+import org.apache.fineract.cn.anubis.api.v1.domain.TokenPermission;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Encodes token content as a nested claim rather than as a serialized string.  Permissions are grouped first by
+ * application, and then by allowed operations, so that the application name and the operations are written once per
+ * group rather than once per path, and so that a service need only look at its own permissions:
+ *
+ * <pre>{"v":2,"p":{"identity-v1":{"RCD":["/users/*","/roles/*"],"R":["/permittablegroups/*"]}}}</pre>
+ *
+ * Operations are abbreviated R(ead), C(hange), and D(elete).  Version 1 is the token content serialized as a string
+ * into {@link org.apache.fineract.cn.anubis.api.v1.TokenConstants#JWT_CONTENT_CLAIM}.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class TokenContentCodec {
+  public static final int VERSION = 2;
+
+  private static final String VERSION_KEY = "v";
+  private static final String PERMISSIONS_KEY = "p";
+
+  private TokenContentCodec() {
+  }
+
+  public static Map<String, Object> encode(final TokenContent tokenContent) {
+    final Map<String, Map<String, List<String>>> permissionsByApplication = new LinkedHashMap<>();
+    if (tokenContent != null && tokenContent.getTokenPermissions() != null) {
+      for (final TokenPermission tokenPermission : tokenContent.getTokenPermissions()) {
+        final String path = tokenPermission.getPath();
+        final int applicationEnd = path.indexOf('/') < 0 ? path.length() : path.indexOf('/');
+        permissionsByApplication
+            .computeIfAbsent(path.substring(0, applicationEnd), x -> new LinkedHashMap<>())
+            .computeIfAbsent(encodeAllowedOperations(tokenPermission.getAllowedOperations()), x -> new ArrayList<>())
+            .add(path.substring(applicationEnd));
+      }
+    }
+
+    final Map<String, Object> ret = new LinkedHashMap<>();
+    ret.put(VERSION_KEY, VERSION);
+    ret.put(PERMISSIONS_KEY, permissionsByApplication);
+    return ret;
+  }
+
+  /**
+   * @param compactContent The compact content claim, as parsed from the token.
+   * @return The part of the content belonging to the application, empty if the token grants it no permissions.  The
+   * returned map is suitable as a key when caching the permissions compiled from it.
+   * @throws IllegalArgumentException if the claim is not compact content of a supported version.
+   */
+  public static Map<?, ?> getApplicationContent(final Object compactContent, final String applicationName) {
+    if (!(compactContent instanceof Map))
+      throw new IllegalArgumentException("Compact token content is not an object.");
+
+    final Object version = ((Map<?, ?>) compactContent).get(VERSION_KEY);
+    if (!(version instanceof Number) || ((Number) version).intValue() != VERSION)
+      throw new IllegalArgumentException("Unsupported compact token content version " + version + ".");
+
+    final Object permissionsByApplication = ((Map<?, ?>) compactContent).get(PERMISSIONS_KEY);
+    if (!(permissionsByApplication instanceof Map))
+      throw new IllegalArgumentException("Compact token content contains no permissions.");
+
+    final Object ret = ((Map<?, ?>) permissionsByApplication).get(applicationName);
+    if (ret == null)
+      return Collections.emptyMap();
+    if (!(ret instanceof Map))
+      throw new IllegalArgumentException("Compact token content for " + applicationName + " is not an object.");
+    return (Map<?, ?>) ret;
+  }
+
+  /**
+   * @return The permissions in application content, with paths relative to the application.
+   * @throws IllegalArgumentException if the application content is malformed.
+   */
+  public static List<TokenPermission> decodeApplicationContent(final Map<?, ?> applicationContent) {
+    final List<TokenPermission> ret = new ArrayList<>();
+    for (final Map.Entry<?, ?> pathsByAllowedOperations : applicationContent.entrySet()) {
+      if (!(pathsByAllowedOperations.getValue() instanceof List))
+        throw new IllegalArgumentException("Compact token content paths are not an array.");
+
+      final Set<AllowedOperation> allowedOperations
+          = decodeAllowedOperations(String.valueOf(pathsByAllowedOperations.getKey()));
+      for (final Object path : (List<?>) pathsByAllowedOperations.getValue()) {
+        if (!(path instanceof String))
+          throw new IllegalArgumentException("Compact token content path is not a string.");
+        ret.add(new TokenPermission((String) path, allowedOperations));
+      }
+    }
+    return ret;
+  }
+
+  private static String encodeAllowedOperations(final Set<AllowedOperation> allowedOperations) {
+    if (allowedOperations == null)
+      return "";
+
+    final StringBuilder ret = new StringBuilder(3);
+    for (final AllowedOperation allowedOperation : AllowedOperation.values()) {
+      if (!allowedOperations.contains(allowedOperation))
+        continue;
+      switch (allowedOperation) {
+        case READ:
+          ret.append('R');
+          break;
+        case CHANGE:
+          ret.append('C');
+          break;
+        case DELETE:
+          ret.append('D');
+          break;
+      }
+    }
+    return ret.toString();
+  }
+
+  private static Set<AllowedOperation> decodeAllowedOperations(final String encodedAllowedOperations) {
+    final Set<AllowedOperation> ret = EnumSet.noneOf(AllowedOperation.class);
+    for (final char encodedAllowedOperation : encodedAllowedOperations.toCharArray()) {
+      switch (encodedAllowedOperation) {
+        case 'R':
+          ret.add(AllowedOperation.READ);
+          break;
+        case 'C':
+          ret.add(AllowedOperation.CHANGE);
+          break;
+        case 'D':
+          ret.add(AllowedOperation.DELETE);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown allowed operation " + encodedAllowedOperation + ".");
+      }
+    }
+    return Collections.unmodifiableSet(ret);
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.token;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.impl.DefaultJwtBuilder;
+import io.jsonwebtoken.impl.TextCodec;
+import io.jsonwebtoken.impl.crypto.JwtSigner;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.PrivateKey;
+import java.security.Signature;
+import java.security.interfaces.RSAPrivateKey;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Signs tokens with one private key.  Initialised {@link Signature}s are pooled in the signer and handed to one
+ * thread at a time, so that the provider lookup and key initialisation happen once per concurrent signing rather
+ * than once per token.  The pool goes away with the signer, so a dropped signer leaves no private key behind in the
+ * threads which used it.  Instances are thread-safe and are meant to be obtained from a {@link TokenSignerCache}.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class TokenSigner {
+  private final String keyTimestamp;
+  private final SignatureAlgorithm algorithm;
+  private final PrivateKey privateKey;
+  private final Queue<Signature> signatures = new ConcurrentLinkedQueue<>();
+
+  TokenSigner(final String keyTimestamp, final SignatureAlgorithm algorithm, final PrivateKey privateKey) {
+    if (keyTimestamp == null) {
+      throw new IllegalArgumentException("token signature timestamp must not be null.");
+    }
+    if (algorithm == null || !algorithm.isRsa()) {
+      throw new IllegalArgumentException("token signature algorithm must be an RSA algorithm.");
+    }
+    if (privateKey == null) {
+      throw new IllegalArgumentException("token signature privateKey must not be null.");
+    }
+    this.keyTimestamp = keyTimestamp;
+    this.algorithm = algorithm;
+    this.privateKey = privateKey;
+  }
+
+  public String getKeyTimestamp() {
+    return keyTimestamp;
+  }
+
+  public SignatureAlgorithm getAlgorithm() {
+    return algorithm;
+  }
+
+  /**
+   * Compares RSA keys by modulus and private exponent rather than by equals, which encodes both keys.
+   */
+  boolean hasKey(final PrivateKey privateKey) {
+    if (this.privateKey == privateKey)
+      return true;
+    if (this.privateKey instanceof RSAPrivateKey && privateKey instanceof RSAPrivateKey)
+      return ((RSAPrivateKey) this.privateKey).getModulus().equals(((RSAPrivateKey) privateKey).getModulus()) &&
+          ((RSAPrivateKey) this.privateKey).getPrivateExponent().equals(((RSAPrivateKey) privateKey).getPrivateExponent());
+    return this.privateKey.equals(privateKey);
+  }
+
+  /**
+   * @return a builder which signs with this signer once compact is called.  No further signing key need be set.
+   */
+  DefaultJwtBuilder builder() {
+    final DefaultJwtBuilder ret = new DefaultJwtBuilder() {
+      @Override
+      protected JwtSigner createSigner(final SignatureAlgorithm alg, final Key key) {
+        return TokenSigner.this::sign;
+      }
+    };
+    ret.signWith(algorithm, privateKey);
+    return ret;
+  }
+
+  private String sign(final String jwtWithoutSignature) {
+    final Signature pooled = signatures.poll();
+    final Signature signature = pooled != null ? pooled : createSignature();
+    try {
+      signature.update(jwtWithoutSignature.getBytes(StandardCharsets.US_ASCII));
+      final String ret = TextCodec.BASE64URL.encode(signature.sign());
+      signatures.offer(signature);
+      return ret;
+    }
+    catch (final java.security.SignatureException e) {
+      //Signature is reset by sign, but not necessarily by a failed update, so it isn't returned to the pool.
+      throw new SignatureException("Unable to calculate signature using " + algorithm.getJcaName() + ".", e);
+    }
+  }
+
+  private Signature createSignature() {
+    try {
+      final Signature ret = Signature.getInstance(algorithm.getJcaName());
+      ret.initSign(privateKey);
+      return ret;
+    }
+    catch (final GeneralSecurityException e) {
+      throw new SignatureException("Unable to initialise signature using " + algorithm.getJcaName() + ".", e);
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.token;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.apache.fineract.cn.lang.TenantContextHolder;
+
+import java.security.PrivateKey;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Holds one {@link TokenSigner} per tenant, key timestamp and signature algorithm.  Key timestamps are only unique
+ * within a tenant, so signers are kept per tenant, and a cached signer is only handed out if it was created for the
+ * same private key; otherwise it is replaced.  At most 256 signers are kept, the least recently used are dropped first.
+ */
+@SuppressWarnings("WeakerAccess")
+public final class TokenSignerCache {
+  private static final int MAX_SIGNERS = 256;
+
+  //Signing a token takes far longer than a lookup here, so one lock for the whole cache is enough.
+  private final Map<SignerKey, TokenSigner> signers = new LinkedHashMap<SignerKey, TokenSigner>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<SignerKey, TokenSigner> eldest) {
+      return size() > MAX_SIGNERS;
+    }
+  };
+
+  public TokenSigner getSigner(
+      final String keyTimestamp,
+      final SignatureAlgorithm algorithm,
+      final PrivateKey privateKey) {
+    final SignerKey signerKey = new SignerKey(TenantContextHolder.identifier().orElse(""), keyTimestamp, algorithm);
+    synchronized (signers) {
+      final TokenSigner cached = signers.get(signerKey);
+      if (cached != null && cached.hasKey(privateKey))
+        return cached;
+    }
+
+    final TokenSigner ret = new TokenSigner(keyTimestamp, algorithm, privateKey);
+    synchronized (signers) {
+      signers.put(signerKey, ret);
+    }
+    return ret;
+  }
+
+  /**
+   * @param signer The signer set on a specification, if any.  Otherwise a cached signer for the private key is used.
+   */
+  TokenSigner resolve(final String keyTimestamp, final PrivateKey privateKey, final TokenSigner signer) {
+    if (keyTimestamp == null) {
+      throw new IllegalArgumentException("token signature timestamp must not be null.");
+    }
+    if (signer != null) {
+      if (!signer.getKeyTimestamp().equals(keyTimestamp)) {
+        throw new IllegalArgumentException("token signature timestamp must match the signer's key timestamp.");
+      }
+      return signer;
+    }
+    if (privateKey == null) {
+      throw new IllegalArgumentException("token signature privateKey must not be null.");
+    }
+    return getSigner(keyTimestamp, SignatureAlgorithm.RS512, privateKey);
+  }
+
+  /**
+   * Drops the signers for the key timestamp in all tenants.
+   */
+  public void invalidate(final String keyTimestamp) {
+    synchronized (signers) {
+      signers.keySet().removeIf(x -> x.keyTimestamp.equals(keyTimestamp));
+    }
+  }
+
+  private static final class SignerKey {
+    private final String tenant;
+    private final String keyTimestamp;
+    private final SignatureAlgorithm algorithm;
+
+    private SignerKey(final String tenant, final String keyTimestamp, final SignatureAlgorithm algorithm) {
+      this.tenant = tenant;
+      this.keyTimestamp = keyTimestamp;
+      this.algorithm = algorithm;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      final SignerKey signerKey = (SignerKey) o;
+      return Objects.equals(tenant, signerKey.tenant) &&
+          Objects.equals(keyTimestamp, signerKey.keyTimestamp) &&
+          algorithm == signerKey.algorithm;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(tenant, keyTimestamp, algorithm);
+    }
+  }
+}
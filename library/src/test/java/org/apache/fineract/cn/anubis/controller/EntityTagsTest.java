@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.controller;
+
+import org.apache.fineract.cn.anubis.api.v1.domain.ApplicationSignatureSet;
+import org.apache.fineract.cn.anubis.api.v1.domain.Signature;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+public class EntityTagsTest {
+  private static final Signature IDENTITY_MANAGER_SIGNATURE = new Signature(BigInteger.valueOf(77), BigInteger.valueOf(3));
+  private static final Signature APPLICATION_SIGNATURE = new Signature(BigInteger.valueOf(91), BigInteger.valueOf(3));
+  private static final Signature REKEYED_APPLICATION_SIGNATURE = new Signature(BigInteger.valueOf(133), BigInteger.valueOf(3));
+
+  @Test
+  public void rekeyedSignatureSetChangesTag() {
+    final ApplicationSignatureSet original
+        = new ApplicationSignatureSet("2017-01-01T00_00_00", APPLICATION_SIGNATURE, IDENTITY_MANAGER_SIGNATURE);
+    final ApplicationSignatureSet rekeyed
+        = new ApplicationSignatureSet("2017-01-01T00_00_00", REKEYED_APPLICATION_SIGNATURE, IDENTITY_MANAGER_SIGNATURE);
+
+    Assert.assertEquals(EntityTags.ofSignatureSet(original), EntityTags.ofSignatureSet(
+        new ApplicationSignatureSet("2017-01-01T00_00_00", APPLICATION_SIGNATURE, IDENTITY_MANAGER_SIGNATURE)));
+    Assert.assertNotEquals(EntityTags.ofSignatureSet(original), EntityTags.ofSignatureSet(rekeyed));
+    Assert.assertNotEquals(
+        EntityTags.ofSignature(original.getTimestamp(), APPLICATION_SIGNATURE),
+        EntityTags.ofSignature(original.getTimestamp(), REKEYED_APPLICATION_SIGNATURE));
+    Assert.assertNotEquals(
+        EntityTags.ofSignatureSets(Arrays.asList(original)),
+        EntityTags.ofSignatureSets(Arrays.asList(rekeyed)));
+  }
+
+  @Test
+  public void signatureSetsTagDoesNotDependOnOrder() {
+    final ApplicationSignatureSet first
+        = new ApplicationSignatureSet("2017-01-01T00_00_00", APPLICATION_SIGNATURE, IDENTITY_MANAGER_SIGNATURE);
+    final ApplicationSignatureSet second
+        = new ApplicationSignatureSet("2017-02-01T00_00_00", REKEYED_APPLICATION_SIGNATURE, IDENTITY_MANAGER_SIGNATURE);
+
+    Assert.assertEquals(
+        EntityTags.ofSignatureSets(Arrays.asList(first, second)),
+        EntityTags.ofSignatureSets(Arrays.asList(second, first)));
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.provider;
+
+import com.google.gson.Gson;
+import org.apache.fineract.cn.anubis.config.AnubisConstants;
+import org.apache.fineract.cn.lang.security.RsaKeyPairFactory;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+public class FinKeycloakRsaKeyProviderTest {
+  private static RsaKeyPairFactory.KeyPairHolder firstKeyPair;
+  private static RsaKeyPairFactory.KeyPairHolder secondKeyPair;
+  private static RsaKeyPairFactory.KeyPairHolder propertyKeyPair;
+
+  @Rule
+  public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @BeforeClass
+  public static void initialize() {
+    firstKeyPair = RsaKeyPairFactory.createKeyPair();
+    secondKeyPair = RsaKeyPairFactory.createKeyPair();
+    propertyKeyPair = RsaKeyPairFactory.createKeyPair();
+  }
+
+  @Test
+  public void shouldFindKeysByKeyId() throws IOException {
+    final File jwksFile = temporaryFolder.newFile("realm.jwks");
+    writeJwks(jwksFile, "first", firstKeyPair);
+
+    final Map<String, Object> properties = new HashMap<>();
+    properties.put(AnubisConstants.KEYCLOAK_REALM_JWKS_FILE_PROPERTY, jwksFile.getPath());
+    properties.put(AnubisConstants.KEYCLOAK_REALM_PUBLIC_KEY_PROPERTY,
+        Base64.getEncoder().encodeToString(propertyKeyPair.publicKey().getEncoded()));
+    final FinKeycloakRsaKeyProvider testSubject = testSubject(properties);
+
+    Assert.assertEquals(Optional.of(firstKeyPair.publicKey()), testSubject.getPublicKey("first"));
+    Assert.assertEquals(Optional.of(propertyKeyPair.publicKey()), testSubject.getPublicKey((String) null));
+    Assert.assertEquals(Optional.of(propertyKeyPair.publicKey()), testSubject.getPublicKey("unknown"));
+    Assert.assertSame(testSubject.getPublicKey("first").get(), testSubject.getPublicKey("first").get());
+  }
+
+  @Test
+  public void reloadShouldPickUpRotatedKeys() throws IOException {
+    final File jwksFile = temporaryFolder.newFile("realm.jwks");
+    writeJwks(jwksFile, "first", firstKeyPair);
+
+    final Map<String, Object> properties = new HashMap<>();
+    properties.put(AnubisConstants.KEYCLOAK_REALM_JWKS_FILE_PROPERTY, jwksFile.getPath());
+    final FinKeycloakRsaKeyProvider testSubject = testSubject(properties);
+
+    Assert.assertEquals(Optional.of(firstKeyPair.publicKey()), testSubject.getPublicKey((String) null));
+    Assert.assertFalse(testSubject.getPublicKey("second").isPresent());
+
+    writeJwks(jwksFile, "second", secondKeyPair);
+    testSubject.reload();
+
+    Assert.assertEquals(Optional.of(secondKeyPair.publicKey()), testSubject.getPublicKey("second"));
+    Assert.assertFalse(testSubject.getPublicKey("first").isPresent());
+  }
+
+  @Test
+  public void failedReloadShouldKeepKeys() throws IOException {
+    final File jwksFile = temporaryFolder.newFile("realm.jwks");
+    writeJwks(jwksFile, "first", firstKeyPair);
+
+    final Map<String, Object> properties = new HashMap<>();
+    properties.put(AnubisConstants.KEYCLOAK_REALM_JWKS_FILE_PROPERTY, jwksFile.getPath());
+    final FinKeycloakRsaKeyProvider testSubject = testSubject(properties);
+
+    Files.write(jwksFile.toPath(), "{\"keys\":".getBytes(StandardCharsets.UTF_8));
+    testSubject.reload();
+
+    Assert.assertEquals(Optional.of(firstKeyPair.publicKey()), testSubject.getPublicKey("first"));
+  }
+
+  @Test
+  public void unknownKeyIdShouldCheckJwksFileForChangesAtMostEveryTenSeconds() throws IOException {
+    final File jwksFile = temporaryFolder.newFile("realm.jwks");
+    writeJwks(jwksFile, "first", firstKeyPair);
+
+    final Map<String, Object> properties = new HashMap<>();
+    properties.put(AnubisConstants.KEYCLOAK_REALM_JWKS_FILE_PROPERTY, jwksFile.getPath());
+    final FinKeycloakRsaKeyProvider testSubject = testSubject(properties);
+
+    //The file hasn't changed, so this lookup checks it without reloading it.
+    Assert.assertFalse(testSubject.getPublicKey("second").isPresent());
+
+    writeJwks(jwksFile, "second", secondKeyPair);
+    Assert.assertTrue(jwksFile.setLastModified(jwksFile.lastModified() + 60_000));
+
+    Assert.assertFalse(testSubject.getPublicKey("second").isPresent());
+  }
+
+  @Test
+  public void unknownKeyIdShouldPickUpRotatedKeysWithoutExplicitReload() throws IOException {
+    final File jwksFile = temporaryFolder.newFile("realm.jwks");
+    writeJwks(jwksFile, "first", firstKeyPair);
+
+    final Map<String, Object> properties = new HashMap<>();
+    properties.put(AnubisConstants.KEYCLOAK_REALM_JWKS_FILE_PROPERTY, jwksFile.getPath());
+    final FinKeycloakRsaKeyProvider testSubject = testSubject(properties);
+
+    writeJwks(jwksFile, "second", secondKeyPair);
+    Assert.assertTrue(jwksFile.setLastModified(jwksFile.lastModified() + 60_000));
+
+    Assert.assertEquals(Optional.of(secondKeyPair.publicKey()), testSubject.getPublicKey("second"));
+    Assert.assertFalse(testSubject.getPublicKey("first").isPresent());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void initShouldFailWithoutConfiguredKeys() {
+    testSubject(new HashMap<>());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void initShouldFailIfJwksFileCannotBeRead() throws IOException {
+    final File jwksFile = temporaryFolder.newFile("realm.jwks");
+    Files.write(jwksFile.toPath(), "{\"keys\":".getBytes(StandardCharsets.UTF_8));
+
+    final Map<String, Object> properties = new HashMap<>();
+    properties.put(AnubisConstants.KEYCLOAK_REALM_JWKS_FILE_PROPERTY, jwksFile.getPath());
+    testSubject(properties);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void initShouldFailIfJwksFileHasNoSigningKeys() throws IOException {
+    final File jwksFile = temporaryFolder.newFile("realm.jwks");
+    Files.write(jwksFile.toPath(), "{\"keys\":[]}".getBytes(StandardCharsets.UTF_8));
+
+    final Map<String, Object> properties = new HashMap<>();
+    properties.put(AnubisConstants.KEYCLOAK_REALM_JWKS_FILE_PROPERTY, jwksFile.getPath());
+    testSubject(properties);
+  }
+
+  private static FinKeycloakRsaKeyProvider testSubject(final Map<String, Object> properties) {
+    final StandardEnvironment environment = new StandardEnvironment();
+    environment.getPropertySources().addFirst(new MapPropertySource("test", properties));
+    final FinKeycloakRsaKeyProvider ret
+        = new FinKeycloakRsaKeyProvider(environment, new Gson(), Mockito.mock(Logger.class));
+    ret.init();
+    return ret;
+  }
+
+  private static void writeJwks(final File jwksFile, final String keyId, final RsaKeyPairFactory.KeyPairHolder keyPair)
+      throws IOException {
+    final String jwks = "{\"keys\":[{\"kid\":\"" + keyId + "\",\"kty\":\"RSA\",\"alg\":\"RS256\",\"use\":\"sig\","
+        + "\"n\":\"" + base64Url(keyPair.getPublicKeyMod()) + "\",\"e\":\"" + base64Url(keyPair.getPublicKeyExp()) + "\"}]}";
+    Files.write(jwksFile.toPath(), jwks.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String base64Url(final BigInteger value) {
+    final byte[] bytes = value.toByteArray();
+    final int start = (bytes.length > 1 && bytes[0] == 0) ? 1 : 0;
+    final byte[] unsigned = new byte[bytes.length - start];
+    System.arraycopy(bytes, start, unsigned, 0, unsigned.length);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(unsigned);
+  }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.provider;
+
+import org.apache.fineract.cn.anubis.api.v1.domain.Signature;
+import org.apache.fineract.cn.anubis.config.AnubisProperties;
+import org.apache.fineract.cn.anubis.config.TenantSignatureRepository;
+import org.apache.fineract.cn.anubis.security.AuthenticationCache;
+import org.apache.fineract.cn.lang.AutoTenantContext;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Optional;
+
+public class TenantRsaKeyProviderTest {
+  private static final Signature IDENTITY_MANAGER_SIGNATURE = identityManagerSignature();
+
+  private TenantSignatureRepository tenantSignatureRepository;
+  private AuthenticationCache authenticationCache;
+
+  @Before
+  public void setup() {
+    tenantSignatureRepository = Mockito.mock(TenantSignatureRepository.class);
+    Mockito.when(tenantSignatureRepository.getIdentityManagerSignature(Mockito.anyString()))
+        .thenReturn(Optional.of(IDENTITY_MANAGER_SIGNATURE));
+    authenticationCache = Mockito.mock(AuthenticationCache.class);
+  }
+
+  @Test
+  public void shouldReadKeyOnceWhileItHasNotExpired() throws InvalidKeyTimestampException {
+    final TenantRsaKeyProvider testSubject = provider(10, 60);
+
+    try (final AutoTenantContext ignored = new AutoTenantContext("ba")) {
+      testSubject.getPublicKey("x");
+      testSubject.getPublicKey("x");
+    }
+
+    Mockito.verify(tenantSignatureRepository, Mockito.times(1)).getIdentityManagerSignature("x");
+  }
+
+  @Test
+  public void shouldReadKeyAgainOnceItHasExpired() throws InvalidKeyTimestampException {
+    final TenantRsaKeyProvider testSubject = provider(10, 0);
+
+    try (final AutoTenantContext ignored = new AutoTenantContext("ba")) {
+      testSubject.getPublicKey("x");
+      testSubject.getPublicKey("x");
+    }
+
+    Mockito.verify(tenantSignatureRepository, Mockito.times(2)).getIdentityManagerSignature("x");
+  }
+
+  @Test
+  public void shouldNotKeepMoreThanMaximumSizeKeys() throws InvalidKeyTimestampException {
+    final TenantRsaKeyProvider testSubject = provider(1, 60);
+
+    try (final AutoTenantContext ignored = new AutoTenantContext("ba")) {
+      testSubject.getPublicKey("x");
+      testSubject.getPublicKey("y");
+      testSubject.getPublicKey("x");
+    }
+
+    Mockito.verify(tenantSignatureRepository, Mockito.times(2)).getIdentityManagerSignature("x");
+  }
+
+  @Test(expected = InvalidKeyTimestampException.class)
+  public void shouldNotReturnKeyWhichIsNoLongerValid() throws InvalidKeyTimestampException {
+    final TenantRsaKeyProvider testSubject = provider(10, 0);
+
+    try (final AutoTenantContext ignored = new AutoTenantContext("ba")) {
+      Assert.assertNotNull(testSubject.getPublicKey("x"));
+      Mockito.when(tenantSignatureRepository.getIdentityManagerSignature("x")).thenReturn(Optional.empty());
+      testSubject.getPublicKey("x");
+    }
+  }
+
+  @Test
+  public void shouldDropCachedAuthenticationsWithInvalidatedKey() throws InvalidKeyTimestampException {
+    final TenantRsaKeyProvider testSubject = provider(10, 60);
+
+    try (final AutoTenantContext ignored = new AutoTenantContext("ba")) {
+      testSubject.getPublicKey("x");
+      testSubject.invalidatePublicKey("x");
+      testSubject.getPublicKey("x");
+    }
+
+    Mockito.verify(authenticationCache).invalidate("ba", "x");
+    Mockito.verify(tenantSignatureRepository, Mockito.times(2)).getIdentityManagerSignature("x");
+  }
+
+  private TenantRsaKeyProvider provider(final int size, final int expirySeconds) {
+    final AnubisProperties anubisProperties = new AnubisProperties();
+    anubisProperties.setPublicKeyCacheSize(size);
+    anubisProperties.setPublicKeyCacheExpirySeconds(expirySeconds);
+    return new TenantRsaKeyProvider(tenantSignatureRepository, authenticationCache, anubisProperties);
+  }
+
+  private static Signature identityManagerSignature() {
+    try {
+      final KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+      keyPairGenerator.initialize(1024);
+      final RSAPublicKey publicKey = (RSAPublicKey) keyPairGenerator.generateKeyPair().getPublic();
+      return new Signature(publicKey.getModulus(), publicKey.getPublicExponent());
+    }
+    catch (final NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.repository;
+
+import org.apache.fineract.cn.anubis.config.AnubisProperties;
+import org.apache.fineract.cn.lang.security.RsaKeyPairFactory;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.util.function.BooleanSupplier;
+
+public class ApplicationKeyPairPoolTest {
+  @Test
+  public void disabledPoolGeneratesOnTheCallingThread() {
+    final ApplicationKeyPairPool testSubject = pool(0);
+    testSubject.fill();
+
+    Assert.assertNotNull(testSubject.take());
+    Assert.assertEquals(0, testSubject.getSize());
+    Assert.assertEquals(0, testSubject.getHitCount());
+    Assert.assertEquals(0, testSubject.getMissCount());
+  }
+
+  @Test
+  public void takenKeyPairsAreReplacedInTheBackground() throws InterruptedException {
+    final ApplicationKeyPairPool testSubject = pool(2);
+    try {
+      testSubject.fill();
+      awaitCondition(() -> testSubject.getSize() == 2);
+
+      final RsaKeyPairFactory.KeyPairHolder first = testSubject.take();
+      final RsaKeyPairFactory.KeyPairHolder second = testSubject.take();
+      Assert.assertNotEquals(first.getPublicKeyMod(), second.getPublicKeyMod());
+      Assert.assertEquals(2, testSubject.getHitCount());
+
+      awaitCondition(() -> testSubject.getSize() == 2);
+    }
+    finally {
+      testSubject.shutdown();
+    }
+  }
+
+  @Test
+  public void keyPairsKeepTheirCrtParameters() {
+    final RsaKeyPairFactory.KeyPairHolder keyPair = pool(0).take();
+
+    Assert.assertTrue(keyPair.privateKey() instanceof RSAPrivateCrtKey);
+    Assert.assertEquals(keyPair.getPublicKeyMod(), keyPair.getPrivateKeyMod());
+    Assert.assertEquals(keyPair.getPublicKeyExp(), ((RSAPrivateCrtKey) keyPair.privateKey()).getPublicExponent());
+  }
+
+  private static ApplicationKeyPairPool pool(final int size) {
+    final AnubisProperties anubisProperties = new AnubisProperties();
+    anubisProperties.setApplicationKeyPairPoolSize(size);
+    return new ApplicationKeyPairPool(anubisProperties, Mockito.mock(Logger.class));
+  }
+
+  private static void awaitCondition(final BooleanSupplier condition) throws InterruptedException {
+    for (int i = 0; i < 600 && !condition.getAsBoolean(); i++)
+      Thread.sleep(100);
+    Assert.assertTrue(condition.getAsBoolean());
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.security;
+
+import org.apache.fineract.cn.anubis.api.v1.domain.AccountAccess;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class AccountLevelAccessVerifierCustomTest {
+  private final AccountLevelAccessVerifierCustom testSubject = new AccountLevelAccessVerifierCustom("true");
+
+  @Before
+  public void setup() {
+    SecurityContextHolder.getContext().setAuthentication(new AnubisAuthentication(
+        "token", "user", "deposit-v1", "Keycloak", new HashSet<>(Arrays.asList(
+        new ApplicationPermission("ACCT_ACCESS_0815", "VIEW", false),
+        new ApplicationPermission("ACCT_ACCESS_0815", "TRANSFER", false),
+        new ApplicationPermission("ACCT_ACCESS_4711", "OWNER", false)))));
+  }
+
+  @After
+  public void cleanup() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  public void shouldValidateSingleAccounts() {
+    testSubject.validate("0815", "VIEW");
+    testSubject.validate("4711", "CLOSE");
+    Assert.assertFalse(testSubject.isPermitted("0815", "CLOSE"));
+    Assert.assertFalse(testSubject.isPermitted("0816", "VIEW"));
+  }
+
+  @Test(expected = AccountLevelAccessDeniedException.class)
+  public void shouldDenyUnknownAccount() {
+    testSubject.validate("0816", "VIEW");
+  }
+
+  @Test
+  public void shouldVerifyAccountsInBulk() {
+    final Map<String, Boolean> verdicts = testSubject.verify(Arrays.asList(
+        accountAccess("0815", "VIEW", "TRANSFER"),
+        accountAccess("4711", "CLOSE"),
+        accountAccess("0816", "VIEW"),
+        accountAccess("0815", "CLOSE")));
+
+    Assert.assertEquals(Arrays.asList("0815", "4711", "0816"), Arrays.asList(verdicts.keySet().toArray()));
+    Assert.assertFalse(verdicts.get("0815"));
+    Assert.assertTrue(verdicts.get("4711"));
+    Assert.assertFalse(verdicts.get("0816"));
+  }
+
+  @Test
+  public void shouldFilterPermittedAccounts() {
+    final List<AccountAccess> permitted = testSubject.filterPermitted(Arrays.asList(
+        accountAccess("0815", "VIEW"),
+        accountAccess("0816", "VIEW"),
+        accountAccess("4711", "TRANSFER")));
+
+    Assert.assertEquals(Arrays.asList("0815", "4711"),
+        permitted.stream().map(AccountAccess::getNumber).collect(Collectors.toList()));
+  }
+
+  @Test
+  public void shouldFilterStreams() {
+    final Stream<String> filtered = testSubject.filter(Stream.of("0815", "0816", "4711"), x -> x, "TRANSFER");
+    SecurityContextHolder.clearContext();
+
+    Assert.assertEquals(Arrays.asList("0815", "4711"), filtered.collect(Collectors.toList()));
+  }
+
+  @Test
+  public void shouldDenyAccountAccessWithoutOperations() {
+    final Map<String, Boolean> verdicts = testSubject.verify(Arrays.asList(
+        accountAccess("4711"),
+        new AccountAccess("0815", null)));
+
+    Assert.assertFalse(verdicts.get("4711"));
+    Assert.assertFalse(verdicts.get("0815"));
+    Assert.assertTrue(testSubject.filterPermitted(Collections.singletonList(accountAccess("4711"))).isEmpty());
+  }
+
+  @Test
+  public void shouldPermitEverythingWhenDisabled() {
+    final AccountLevelAccessVerifierCustom disabled = new AccountLevelAccessVerifierCustom("false");
+    disabled.validate("0816", "VIEW");
+    Assert.assertEquals(Collections.singletonMap("0816", true),
+        disabled.verify(Collections.singletonList(accountAccess("0816", "VIEW"))));
+  }
+
+  @Test
+  public void shouldPermitAccountAccessWithoutOperationsWhenDisabled() {
+    final AccountLevelAccessVerifierCustom disabled = new AccountLevelAccessVerifierCustom("false");
+    final List<AccountAccess> accountAccesses = Arrays.asList(accountAccess("0816"), new AccountAccess("0817", null));
+
+    final Map<String, Boolean> verdicts = disabled.verify(accountAccesses);
+    Assert.assertTrue(verdicts.get("0816"));
+    Assert.assertTrue(verdicts.get("0817"));
+    Assert.assertEquals(accountAccesses, disabled.filterPermitted(accountAccesses));
+  }
+
+  private static AccountAccess accountAccess(final String number, final String... operations) {
+    return new AccountAccess(number, new HashSet<>(Arrays.asList(operations)));
+  }
+}
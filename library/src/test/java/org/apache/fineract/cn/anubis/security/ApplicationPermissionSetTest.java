@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.security;
+
+import org.apache.fineract.cn.anubis.api.v1.domain.AllowedOperation;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+
+public class ApplicationPermissionSetTest {
+  private static final ApplicationPermission HEALTH = new ApplicationPermission("/health", AllowedOperation.READ, false);
+  private static final ApplicationPermission HEART = new ApplicationPermission("/heart", AllowedOperation.READ, false);
+  private static final ApplicationPermission LIVER = new ApplicationPermission("/liver", AllowedOperation.CHANGE, false);
+
+  @Test
+  public void layeredSetSharesLayerAndDropsDuplicates() {
+    final ApplicationPermissionSet shared = ApplicationPermissionSet.of(Arrays.asList(HEALTH, HEART));
+    final ApplicationPermissionSet testSubject = ApplicationPermissionSet.layered(shared, Arrays.asList(HEART, LIVER));
+
+    Assert.assertEquals(3, testSubject.size());
+    Assert.assertTrue(testSubject.contains(HEALTH));
+    Assert.assertTrue(testSubject.contains(LIVER));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(HEALTH, HEART, LIVER)), testSubject);
+    Assert.assertEquals(new HashSet<>(Arrays.asList(HEALTH, HEART, LIVER)), new HashSet<>(testSubject));
+  }
+
+  @Test
+  public void layeredSetWithoutOwnPermissionsIsTheSharedSet() {
+    final ApplicationPermissionSet shared = ApplicationPermissionSet.of(Arrays.asList(HEALTH, HEART));
+
+    Assert.assertSame(shared, ApplicationPermissionSet.layered(shared, Arrays.asList(HEART)));
+    Assert.assertSame(shared, ApplicationPermissionSet.of(shared));
+  }
+
+  @Test
+  public void accountOperationsAreIndexedByAccountNumber() {
+    final ApplicationPermissionSet shared = ApplicationPermissionSet.of(Arrays.asList(HEALTH,
+        new ApplicationPermission("ACCT_ACCESS_0815", "VIEW", false)));
+    final ApplicationPermissionSet testSubject = ApplicationPermissionSet.layered(shared, Arrays.asList(LIVER,
+        new ApplicationPermission("ACCT_ACCESS_0815", "TRANSFER", false),
+        new ApplicationPermission("ACCT_ACCESS_4711", "OWNER", false),
+        new ApplicationPermission("/ACCT_ACCESS_0816", AllowedOperation.READ, false)));
+
+    Assert.assertEquals(Collections.singleton("VIEW"), shared.getAccountOperations("0815"));
+    Assert.assertEquals(new HashSet<>(Arrays.asList("VIEW", "TRANSFER")), testSubject.getAccountOperations("0815"));
+    Assert.assertEquals(Collections.singleton("OWNER"), testSubject.getAccountOperations("4711"));
+    Assert.assertTrue(testSubject.getAccountOperations("0816").isEmpty());
+    Assert.assertTrue(ApplicationPermissionSet.empty().getAccountOperations("0815").isEmpty());
+  }
+
+  @Test
+  public void matchesRequestsAgainstSharedAndOwnLayersForAnyPrincipal() {
+    final ApplicationPermissionSet shared = ApplicationPermissionSet.of(Arrays.asList(HEALTH, HEART));
+    final List<ApplicationPermission> own = new ArrayList<>();
+    for (int i = 0; i < 20; i++)
+      own.add(new ApplicationPermission("/organs" + i + "/{useridentifier}/*", AllowedOperation.READ, false));
+    final ApplicationPermissionSet testSubject = ApplicationPermissionSet.layered(shared, own);
+    final AnubisPrincipal nebamun = new AnubisPrincipal("Nebamun", "graincounter-v1", "identity-v1");
+    final AnubisPrincipal menna = new AnubisPrincipal("Menna", "graincounter-v1", "identity-v1");
+
+    Assert.assertEquals(Optional.of(HEART), testSubject.findMatch("graincounter-v1", nebamun, "/heart", "GET"));
+    Assert.assertTrue(testSubject.findMatch("graincounter-v1", nebamun, "/organs7/Nebamun/liver", "GET").isPresent());
+    Assert.assertFalse(testSubject.findMatch("graincounter-v1", menna, "/organs7/Nebamun/liver", "GET").isPresent());
+    Assert.assertTrue(testSubject.findMatch("graincounter-v1", menna, "/organs7/Menna/liver", "GET").isPresent());
+    Assert.assertFalse(testSubject.findMatch("graincounter-v1", menna, "/organs7/Menna/liver", "PUT").isPresent());
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void setIsImmutable() {
+    ApplicationPermissionSet.of(Arrays.asList(HEALTH)).add(HEART);
+  }
+}
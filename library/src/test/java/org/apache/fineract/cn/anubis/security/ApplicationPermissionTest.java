@@ -30,6 +30,7 @@ import org.mockito.Mockito;
 import javax.servlet.http.HttpServletRequest;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 
 import static org.mockito.Mockito.when;
 
@@ -279,5 +280,12 @@ public class ApplicationPermissionTest {
         testCase.getAllowedOperation(), testSubject.getAllowedOperation());
     Assert.assertEquals("Testcase contains wrong authority: '" + testCase.toString() + "'",
         "maats_feather", testSubject.getAuthority());
+
+    final PermissionTrie permissionTrie = new PermissionTrie(
+        testCase.getCalledApplication().toString(), Collections.singleton(testSubject));
+    Assert.assertEquals("Permission trie gave wrong result: '" + testCase.toString() + "'",
+        testCase.getExpectedResult(),
+        permissionTrie.findMatch(testCase.getPrincipal(), testCase.getRequestedPath(), testCase.getRequestedOperation())
+            .isPresent());
   }
 }
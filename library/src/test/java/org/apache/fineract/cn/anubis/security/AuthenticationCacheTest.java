@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.apache.fineract.cn.anubis.config.AnubisProperties;
+import org.apache.fineract.cn.anubis.token.TokenType;
+import org.apache.fineract.cn.lang.AutoTenantContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Date;
+
+public class AuthenticationCacheTest {
+  private static final String USER = "Nebamun";
+  private static final String KEY_TIMESTAMP = "2017-01-01T00_00_00";
+
+  @Test
+  public void shouldReturnCachedAuthenticationForSameTenantUserAndToken() {
+    final AuthenticationCache testSubject = cache(10);
+    final AnubisAuthentication authentication = authentication();
+
+    try (final AutoTenantContext ignored = new AutoTenantContext("ba")) {
+      Assert.assertFalse(testSubject.get(USER, "token").isPresent());
+      testSubject.put(USER, "token", tokenInfo(60_000), authentication);
+      final AnubisAuthentication cached = testSubject.get(USER, "token").orElse(null);
+      Assert.assertNotNull(cached);
+      Assert.assertNotSame(authentication, cached);
+      Assert.assertEquals(authentication.getCredentials(), cached.getCredentials());
+      Assert.assertSame(authentication.getAuthorities(), cached.getAuthorities());
+      Assert.assertFalse(testSubject.get("Menna", "token").isPresent());
+      Assert.assertFalse(testSubject.get(USER, "other token").isPresent());
+    }
+
+    try (final AutoTenantContext ignored = new AutoTenantContext("ka")) {
+      Assert.assertFalse(testSubject.get(USER, "token").isPresent());
+    }
+
+    Assert.assertEquals(1, testSubject.getHitCount());
+    Assert.assertEquals(4, testSubject.getMissCount());
+  }
+
+  @Test
+  public void shouldNotReturnExpiredAuthentication() {
+    final AuthenticationCache testSubject = cache(10);
+
+    try (final AutoTenantContext ignored = new AutoTenantContext("ba")) {
+      testSubject.put(USER, "token", tokenInfo(-1), authentication());
+      Assert.assertFalse(testSubject.get(USER, "token").isPresent());
+      Assert.assertEquals(1, testSubject.getEvictionCount());
+      Assert.assertEquals(0, testSubject.getSize());
+    }
+  }
+
+  @Test
+  public void shouldDropAuthenticationsForInvalidatedKeyTimestamp() {
+    final AuthenticationCache testSubject = cache(10);
+
+    try (final AutoTenantContext ignored = new AutoTenantContext("ba")) {
+      testSubject.put(USER, "token", tokenInfo(60_000), authentication());
+      testSubject.invalidate("ka", KEY_TIMESTAMP);
+      Assert.assertTrue(testSubject.get(USER, "token").isPresent());
+      testSubject.invalidate("ba", KEY_TIMESTAMP);
+      Assert.assertFalse(testSubject.get(USER, "token").isPresent());
+    }
+  }
+
+  @Test
+  public void shouldNotReturnAuthenticationBeforeItsTokenIsValid() {
+    final AuthenticationCache testSubject = cache(10);
+
+    try (final AutoTenantContext ignored = new AutoTenantContext("ba")) {
+      final TokenInfo tokenInfo = tokenInfo(60_000);
+      tokenInfo.getClaims().setNotBefore(new Date(System.currentTimeMillis() + 30_000));
+      testSubject.put(USER, "token", tokenInfo, authentication());
+      Assert.assertFalse(testSubject.get(USER, "token").isPresent());
+      Assert.assertEquals(1, testSubject.getSize());
+    }
+  }
+
+  @Test
+  public void shouldNotKeepTenantTokensLongerThanTheirPublicKey() {
+    final AnubisProperties anubisProperties = new AnubisProperties();
+    anubisProperties.setAuthenticationCacheSize(10);
+    anubisProperties.setPublicKeyCacheExpirySeconds(0);
+    final AuthenticationCache testSubject = new AuthenticationCache(anubisProperties);
+
+    try (final AutoTenantContext ignored = new AutoTenantContext("ba")) {
+      testSubject.put(USER, "token", tokenInfo(60_000), authentication());
+      Assert.assertFalse(testSubject.get(USER, "token").isPresent());
+    }
+  }
+
+  @Test
+  public void shouldStayWithinMaximumSize() {
+    final AuthenticationCache testSubject = cache(2);
+
+    try (final AutoTenantContext ignored = new AutoTenantContext("ba")) {
+      testSubject.put(USER, "token1", tokenInfo(60_000), authentication());
+      testSubject.put(USER, "token2", tokenInfo(60_000), authentication());
+      testSubject.put(USER, "token3", tokenInfo(60_000), authentication());
+      Assert.assertEquals(2, testSubject.getSize());
+      Assert.assertEquals(1, testSubject.getEvictionCount());
+      Assert.assertFalse(testSubject.get(USER, "token1").isPresent());
+    }
+  }
+
+  @Test
+  public void shouldNotShareMutableAuthenticationsBetweenCallers() {
+    final AuthenticationCache testSubject = cache(10);
+
+    try (final AutoTenantContext ignored = new AutoTenantContext("ba")) {
+      testSubject.put(USER, "token", tokenInfo(60_000), authentication());
+      testSubject.get(USER, "token").ifPresent(x -> x.setAuthenticated(false));
+      Assert.assertTrue(testSubject.get(USER, "token").map(AnubisAuthentication::isAuthenticated).orElse(false));
+    }
+  }
+
+  @Test
+  public void shouldStayWithinMaximumSizeWhenSegmented() {
+    final AuthenticationCache testSubject = cache(1000);
+
+    try (final AutoTenantContext ignored = new AutoTenantContext("ba")) {
+      for (int i = 0; i < 5000; i++)
+        testSubject.put(USER, "token" + i, tokenInfo(60_000), authentication());
+      Assert.assertTrue(testSubject.getSize() <= 1000);
+      Assert.assertEquals(5000 - testSubject.getSize(), testSubject.getEvictionCount());
+      Assert.assertTrue(testSubject.get(USER, "token4999").isPresent());
+    }
+  }
+
+  @Test
+  public void shouldDoNothingWhenDisabled() {
+    final AuthenticationCache testSubject = cache(0);
+
+    try (final AutoTenantContext ignored = new AutoTenantContext("ba")) {
+      testSubject.put(USER, "token", tokenInfo(60_000), authentication());
+      Assert.assertFalse(testSubject.get(USER, "token").isPresent());
+      Assert.assertEquals(0, testSubject.getSize());
+    }
+  }
+
+  private static AuthenticationCache cache(final int size) {
+    final AnubisProperties anubisProperties = new AnubisProperties();
+    anubisProperties.setAuthenticationCacheSize(size);
+    return new AuthenticationCache(anubisProperties);
+  }
+
+  private static TokenInfo tokenInfo(final long millisToLive) {
+    final Claims claims = Jwts.claims().setExpiration(new Date(System.currentTimeMillis() + millisToLive));
+    return new TokenInfo(TokenType.TENANT, KEY_TIMESTAMP, claims);
+  }
+
+  private static AnubisAuthentication authentication() {
+    return new AnubisAuthentication("Bearer token", USER, "graincounter-v1", "identity-v1", Collections.emptySet());
+  }
+}
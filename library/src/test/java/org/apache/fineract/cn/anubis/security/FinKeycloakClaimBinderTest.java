@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.security;
+
+import com.google.gson.Gson;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+import org.apache.fineract.cn.anubis.api.v1.domain.AllowedOperation;
+import org.apache.fineract.cn.anubis.api.v1.domain.TokenContent;
+import org.apache.fineract.cn.anubis.api.v1.domain.TokenPermission;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class FinKeycloakClaimBinderTest {
+  private static final String APPLICATION_NAME = "deposit-v1";
+  private static final Gson GSON = new Gson();
+
+  @Test
+  public void shouldBindOwnTokenPermissionsAndAccountPermissions() {
+    final Claims claims = claims(new TokenContent(Arrays.asList(
+        new TokenPermission(APPLICATION_NAME + "/accounts/*", new HashSet<>(Arrays.asList(AllowedOperation.READ, AllowedOperation.CHANGE))),
+        new TokenPermission("office-v1/offices/*", AllowedOperation.ALL))));
+    final Map<String, Object> account = new HashMap<>();
+    account.put("number", "0815");
+    account.put("access", Arrays.asList("VIEW", "TRANSFER"));
+    claims.put(FinKeycloakClaimBinder.ACCOUNT_ACCESS_CLAIM, Collections.singletonMap("accounts", Collections.singletonList(account)));
+
+    final Set<ApplicationPermission> permissions = new FinKeycloakClaimBinder(APPLICATION_NAME).bind(claims);
+
+    Assert.assertEquals(4, permissions.size());
+    Assert.assertEquals(
+        new HashSet<>(Arrays.asList(AllowedOperation.READ, AllowedOperation.CHANGE)),
+        permissions.stream().filter(x -> x.getAccountOperation() == null)
+            .map(ApplicationPermission::getAllowedOperation).collect(Collectors.toSet()));
+    Assert.assertEquals(
+        new HashSet<>(Arrays.asList("VIEW", "TRANSFER")),
+        permissions.stream().map(ApplicationPermission::getAccountOperation).filter(x -> x != null)
+            .collect(Collectors.toSet()));
+    Assert.assertTrue(permissions.stream().anyMatch(x -> x.toString().contains("ACCT_ACCESS_0815")));
+  }
+
+  @Test
+  public void shouldBindWithoutAccountAccess() {
+    final Claims claims = claims(new TokenContent(Collections.singletonList(
+        new TokenPermission(APPLICATION_NAME + "/products", Collections.singleton(AllowedOperation.READ)))));
+
+    final Set<ApplicationPermission> permissions = new FinKeycloakClaimBinder(APPLICATION_NAME).bind(claims);
+
+    Assert.assertEquals(1, permissions.size());
+    Assert.assertEquals(
+        new ApplicationPermission("/products", AllowedOperation.READ, false).toString(),
+        permissions.iterator().next().toString());
+  }
+
+  @Test(expected = AmitAuthenticationException.class)
+  public void missingTokenPermissionsAreRejected() {
+    new FinKeycloakClaimBinder(APPLICATION_NAME).bind(new DefaultClaims());
+  }
+
+  @Test(expected = AmitAuthenticationException.class)
+  public void malformedTokenPermissionsAreRejected() {
+    final Claims claims = new DefaultClaims();
+    claims.put(FinKeycloakClaimBinder.TOKEN_PERMISSIONS_CLAIM, "{\"tokenPermissions\":[{\"path\":");
+    new FinKeycloakClaimBinder(APPLICATION_NAME).bind(claims);
+  }
+
+  private static Claims claims(final TokenContent tokenContent) {
+    final Claims claims = new DefaultClaims();
+    claims.put(FinKeycloakClaimBinder.TOKEN_PERMISSIONS_CLAIM, GSON.toJson(tokenContent));
+    return claims;
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.security;
+
+import org.apache.fineract.cn.anubis.api.v1.domain.AllowedOperation;
+import org.apache.fineract.cn.api.util.ApiConstants;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+public class PermissionTrieTest {
+  private static final String APPLICATION_NAME = "graincounter-v1";
+  private static final AnubisPrincipal USER = new AnubisPrincipal("Nebamun", APPLICATION_NAME, "identity-v1");
+  private static final AnubisPrincipal SU = new AnubisPrincipal(ApiConstants.SYSTEM_SU, APPLICATION_NAME, "identity-v1");
+
+  @Test
+  public void wildcardBranchIsTriedWhenLiteralBranchDoesNotMatch() {
+    final ApplicationPermission literal = new ApplicationPermission("/heart/left/beat", AllowedOperation.READ, false);
+    final ApplicationPermission wildcard = new ApplicationPermission("/heart/*/rest", AllowedOperation.READ, false);
+    final PermissionTrie testSubject = new PermissionTrie(APPLICATION_NAME, Arrays.asList(literal, wildcard));
+
+    Assert.assertEquals(Optional.of(literal), testSubject.findMatch(USER, "/heart/left/beat", "GET"));
+    Assert.assertEquals(Optional.of(wildcard), testSubject.findMatch(USER, "/heart/left/rest", "GET"));
+    Assert.assertFalse(testSubject.findMatch(USER, "/heart/left", "GET").isPresent());
+  }
+
+  @Test
+  public void operationIsCheckedPerPermission() {
+    final ApplicationPermission read = new ApplicationPermission("/heart", AllowedOperation.READ, false);
+    final ApplicationPermission change = new ApplicationPermission("/heart/*", AllowedOperation.CHANGE, false);
+    final PermissionTrie testSubject = new PermissionTrie(APPLICATION_NAME, Arrays.asList(read, change));
+
+    Assert.assertEquals(Optional.of(read), testSubject.findMatch(USER, "/heart", "GET"));
+    Assert.assertEquals(Optional.of(change), testSubject.findMatch(USER, "/heart", "PUT"));
+    Assert.assertEquals(Optional.of(change), testSubject.findMatch(USER, "/heart/left", "POST"));
+    Assert.assertFalse(testSubject.findMatch(USER, "/heart/left", "GET").isPresent());
+  }
+
+  @Test
+  public void parameterSegmentsOnlyMatchForSystemUser() {
+    final ApplicationPermission permission = new ApplicationPermission("/hearts/{heartid}", AllowedOperation.READ, false);
+
+    final PermissionTrie testSubject = new PermissionTrie(APPLICATION_NAME, Arrays.asList(permission));
+
+    Assert.assertFalse(testSubject.findMatch(USER, "/hearts/left", "GET").isPresent());
+    Assert.assertTrue(testSubject.findMatch(SU, "/hearts/left", "GET").isPresent());
+  }
+
+  @Test
+  public void permissionsForOtherApplicationsAreIgnored() {
+    final ApplicationPermission permission = new ApplicationPermission("/heart", AllowedOperation.READ, false);
+    final ApplicationPermission foreignPermission = new ApplicationPermission("/liver", AllowedOperation.READ, true);
+    final PermissionTrie testSubject
+        = new PermissionTrie("other-v1", Arrays.asList(permission, foreignPermission));
+
+    Assert.assertFalse(testSubject.findMatch(USER, "/heart", "GET").isPresent());
+    Assert.assertTrue(testSubject.findMatch(USER, "/liver", "GET").isPresent());
+  }
+
+  @Test
+  public void identifierSegmentsAreResolvedAgainstThePrincipalOfEachRequest() {
+    final ApplicationPermission user = new ApplicationPermission("/users/{useridentifier}/heart", AllowedOperation.READ, false);
+    final ApplicationPermission source = new ApplicationPermission("/applications/{applicationidentifier}", AllowedOperation.READ, false);
+    final ApplicationPermission literal = new ApplicationPermission("/users/Menna/heart", AllowedOperation.CHANGE, false);
+    final PermissionTrie testSubject = new PermissionTrie(APPLICATION_NAME, Arrays.asList(user, source, literal));
+    final AnubisPrincipal other = new AnubisPrincipal("Menna", APPLICATION_NAME, "office-v1");
+
+    Assert.assertEquals(Optional.of(user), testSubject.findMatch(USER, "/users/Nebamun/heart", "GET"));
+    Assert.assertFalse(testSubject.findMatch(USER, "/users/Menna/heart", "GET").isPresent());
+    Assert.assertEquals(Optional.of(user), testSubject.findMatch(other, "/users/Menna/heart", "GET"));
+    Assert.assertEquals(Optional.of(literal), testSubject.findMatch(other, "/users/Menna/heart", "PUT"));
+    Assert.assertTrue(testSubject.findMatch(USER, "/applications/identity-v1", "GET").isPresent());
+    Assert.assertFalse(testSubject.findMatch(other, "/applications/identity-v1", "GET").isPresent());
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.security;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SegmentedLruMapTest {
+  @Test
+  public void shouldEvictLeastRecentlyUsedEntry() {
+    final SegmentedLruMap<String, Integer> testSubject = new SegmentedLruMap<>(2);
+    testSubject.put("a", 1);
+    testSubject.put("b", 2);
+    Assert.assertEquals(Integer.valueOf(1), testSubject.get("a"));
+    testSubject.put("c", 3);
+
+    Assert.assertEquals(Integer.valueOf(1), testSubject.get("a"));
+    Assert.assertNull(testSubject.get("b"));
+    Assert.assertEquals(Integer.valueOf(3), testSubject.get("c"));
+    Assert.assertEquals(2, testSubject.size());
+    Assert.assertEquals(1, testSubject.getEvictionCount());
+  }
+
+  @Test
+  public void shouldBoundSizeOverAllSegments() {
+    final SegmentedLruMap<Integer, Integer> testSubject = new SegmentedLruMap<>(1000);
+    for (int i = 0; i < 5000; i++)
+      testSubject.put(i, i);
+
+    Assert.assertTrue(testSubject.size() <= 1000);
+    Assert.assertEquals(5000 - testSubject.size(), testSubject.getEvictionCount());
+  }
+
+  @Test
+  public void shouldRemoveMatchingEntries() {
+    final SegmentedLruMap<Integer, Integer> testSubject = new SegmentedLruMap<>(1000);
+    for (int i = 0; i < 100; i++)
+      testSubject.put(i, i);
+
+    testSubject.removeIf(x -> x % 2 == 0);
+    Assert.assertEquals(50, testSubject.size());
+    Assert.assertNull(testSubject.get(2));
+    Assert.assertEquals(Integer.valueOf(3), testSubject.get(3));
+
+    Assert.assertFalse(testSubject.remove(3, 4));
+    Assert.assertTrue(testSubject.remove(3, 3));
+    Assert.assertNull(testSubject.get(3));
+    Assert.assertEquals(51, testSubject.getEvictionCount());
+  }
+}
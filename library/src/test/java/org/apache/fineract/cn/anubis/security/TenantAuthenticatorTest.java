@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.security;
+
+import com.google.gson.Gson;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.impl.DefaultClaims;
+import org.apache.fineract.cn.anubis.annotation.AcceptedTokenType;
+import org.apache.fineract.cn.anubis.api.v1.TokenConstants;
+import org.apache.fineract.cn.anubis.api.v1.domain.AllowedOperation;
+import org.apache.fineract.cn.anubis.api.v1.domain.TokenContent;
+import org.apache.fineract.cn.anubis.api.v1.domain.TokenPermission;
+import org.apache.fineract.cn.anubis.config.AnubisProperties;
+import org.apache.fineract.cn.anubis.service.PermittableService;
+import org.apache.fineract.cn.anubis.token.TokenContentCodec;
+import org.apache.fineract.cn.anubis.token.TokenType;
+import org.apache.fineract.cn.lang.ApplicationName;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+
+import java.util.Collections;
+import java.util.Map;
+
+public class TenantAuthenticatorTest {
+  private static final String APPLICATION_NAME = "graincounter-v1";
+  private static final Gson GSON = new Gson();
+
+  @Test
+  public void tokensWithSameContentSharePermissions() {
+    final TenantAuthenticator testSubject = testSubject(10);
+
+    final AnubisAuthentication nebamun = testSubject.authenticate("Nebamun", "token1", "ts", claims("Nebamun", "/heart"));
+    final AnubisAuthentication nakht = testSubject.authenticate("Nakht", "token2", "ts", claims("Nakht", "/heart"));
+    final AnubisAuthentication other = testSubject.authenticate("Nakht", "token3", "ts", claims("Nakht", "/liver"));
+
+    Assert.assertSame(nebamun.getAuthorities(), nakht.getAuthorities());
+    Assert.assertNotSame(nebamun.getAuthorities(), other.getAuthorities());
+    Assert.assertEquals(1, nebamun.getAuthorities().size());
+    Assert.assertEquals(
+        new ApplicationPermission("/heart", AllowedOperation.READ, false).toString(),
+        nebamun.getAuthorities().iterator().next().toString());
+    Assert.assertEquals("Nakht", nakht.getPrincipal().getUser());
+  }
+
+  @Test
+  public void internedPermissionsCanBeTurnedOff() {
+    final TenantAuthenticator testSubject = testSubject(0);
+
+    final AnubisAuthentication nebamun = testSubject.authenticate("Nebamun", "token1", "ts", claims("Nebamun", "/heart"));
+    final AnubisAuthentication nakht = testSubject.authenticate("Nakht", "token2", "ts", claims("Nakht", "/heart"));
+
+    Assert.assertNotSame(nebamun.getAuthorities(), nakht.getAuthorities());
+    Assert.assertEquals(nebamun.getAuthorities().toString(), nakht.getAuthorities().toString());
+  }
+
+  @Test
+  public void compactTokenContentIsAccepted() {
+    final TenantAuthenticator testSubject = testSubject(10);
+
+    final AnubisAuthentication nebamun = testSubject.authenticate("Nebamun", "token1", "ts", compactClaims("Nebamun", "/heart"));
+    final AnubisAuthentication nakht = testSubject.authenticate("Nakht", "token2", "ts", compactClaims("Nakht", "/heart"));
+    final AnubisAuthentication legacy = testSubject.authenticate("Nakht", "token3", "ts", claims("Nakht", "/heart"));
+
+    Assert.assertSame(nebamun.getAuthorities(), nakht.getAuthorities());
+    Assert.assertEquals(legacy.getAuthorities().toString(), nebamun.getAuthorities().toString());
+  }
+
+  @Test
+  public void compactTokenContentWithOtherPermissionsIsNotShared() {
+    final TenantAuthenticator testSubject = testSubject(10);
+
+    final AnubisAuthentication nebamun = testSubject.authenticate("Nebamun", "token1", "ts", compactClaims("Nebamun", "/heart"));
+    final AnubisAuthentication nakht = testSubject.authenticate("Nakht", "token2", "ts", compactClaims("Nakht", "/liver"));
+
+    Assert.assertNotSame(nebamun.getAuthorities(), nakht.getAuthorities());
+    Assert.assertNotEquals(nebamun.getAuthorities().toString(), nakht.getAuthorities().toString());
+  }
+
+  @SuppressWarnings({"unchecked"})
+  @Test(expected = AmitAuthenticationException.class)
+  public void compactTokenContentOfUnknownVersionIsRejected() {
+    final Claims claims = compactClaims("Nebamun", "/heart");
+    claims.get(TokenConstants.JWT_COMPACT_CONTENT_CLAIM, Map.class).put("v", 3);
+    testSubject(10).authenticate("Nebamun", "token1", "ts", claims);
+  }
+
+  @Test(expected = AmitAuthenticationException.class)
+  public void missingTokenContentIsRejected() {
+    final Claims claims = claims("Nebamun", "/heart");
+    claims.remove(TokenConstants.JWT_CONTENT_CLAIM);
+    testSubject(10).authenticate("Nebamun", "token1", "ts", claims);
+  }
+
+  private static TenantAuthenticator testSubject(final int permissionSetCacheSize) {
+    final PermittableService permittableService = Mockito.mock(PermittableService.class);
+    Mockito.doReturn(Collections.emptySet())
+        .when(permittableService).getPermittableEndpointsAsPermissions(AcceptedTokenType.GUEST);
+    final AnubisProperties anubisProperties = new AnubisProperties();
+    anubisProperties.setPermissionSetCacheSize(permissionSetCacheSize);
+
+    return new TenantAuthenticator(
+        ApplicationName.fromSpringApplicationName(APPLICATION_NAME),
+        permittableService,
+        GSON,
+        anubisProperties,
+        Mockito.mock(Logger.class));
+  }
+
+  private static Claims claims(final String user, final String path) {
+    final TokenContent tokenContent = new TokenContent(Collections.singletonList(
+        new TokenPermission(APPLICATION_NAME + path, Collections.singleton(AllowedOperation.READ))));
+
+    final Claims claims = new DefaultClaims();
+    claims.setSubject(user);
+    claims.setIssuer(TokenType.TENANT.getIssuer());
+    claims.put(TokenConstants.JWT_CONTENT_CLAIM, GSON.toJson(tokenContent));
+    claims.put(TokenConstants.JWT_SOURCE_APPLICATION_CLAIM, "identity-v1");
+    return claims;
+  }
+
+  private static Claims compactClaims(final String user, final String path) {
+    final Claims claims = claims(user, path);
+    final TokenContent tokenContent = GSON.fromJson(claims.remove(TokenConstants.JWT_CONTENT_CLAIM).toString(), TokenContent.class);
+    claims.put(TokenConstants.JWT_COMPACT_CONTENT_CLAIM, TokenContentCodec.encode(tokenContent));
+    return claims;
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.service;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PermissionSegmentMatcherTest {
+  @Test
+  public void segmentsAreTheSameAsSplit() {
+    final List<String> paths = Arrays.asList(
+        "", "/", "//", "heart", "/heart", "/heart/", "/heart//", "/heart/beat", "heart//beat/", "/heart/beat/left");
+
+    paths.forEach(path -> {
+      final List<String> segments = new ArrayList<>();
+      final int segmentCount = PermissionSegmentMatcher.getSegmentCount(path);
+      final int segmentsEnd = PermissionSegmentMatcher.getSegmentsEnd(path);
+      int segmentStart = 0;
+      for (int i = 0; i < segmentCount; i++) {
+        final int segmentEnd = PermissionSegmentMatcher.getSegmentEnd(path, segmentStart, segmentsEnd);
+        segments.add(path.substring(segmentStart, segmentEnd));
+        segmentStart = segmentEnd + 1;
+      }
+
+      Assert.assertEquals("Segments of '" + path + "'", Arrays.asList(path.split("/")), segments);
+    });
+  }
+
+  @Test
+  public void kindsAreDeterminedOnce() {
+    final List<PermissionSegmentMatcher> matchers = PermissionSegmentMatcher.getServletPathSegmentMatchers(
+        "/users/{useridentifier}/applications/{applicationidentifier}/{id}/*");
+
+    Assert.assertEquals(PermissionSegmentMatcher.Kind.LITERAL, matchers.get(1).getKind());
+    Assert.assertEquals(PermissionSegmentMatcher.Kind.USER_IDENTIFIER, matchers.get(2).getKind());
+    Assert.assertEquals(PermissionSegmentMatcher.Kind.APPLICATION_IDENTIFIER, matchers.get(4).getKind());
+    Assert.assertEquals(PermissionSegmentMatcher.Kind.PARAMETER, matchers.get(5).getKind());
+    Assert.assertEquals(PermissionSegmentMatcher.Kind.STAR, matchers.get(6).getKind());
+    Assert.assertTrue(matchers.get(2).isParameterSegment());
+    Assert.assertFalse(matchers.get(6).isParameterSegment());
+  }
+}
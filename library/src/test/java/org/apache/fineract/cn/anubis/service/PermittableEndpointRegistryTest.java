@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.fineract.cn.anubis.annotation.AcceptedTokenType;
+import org.apache.fineract.cn.anubis.api.v1.domain.PermittableEndpoint;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class PermittableEndpointRegistryTest {
+  private static final String APPLICATION_NAME = "heart-v1";
+
+  @Test
+  public void endpointsAreIndexedByTokenTypeAndGroupId() {
+    final PermittableEndpointRegistry registry = registry();
+
+    Assert.assertEquals(
+        Arrays.asList(
+            new PermittableEndpoint(APPLICATION_NAME + "/beat", "GET", "x"),
+            new PermittableEndpoint(APPLICATION_NAME + "/beat", "PUT", "y"),
+            new PermittableEndpoint(APPLICATION_NAME + "/rate/*", "GET", "x")),
+        Arrays.asList(registry.getPermittableEndpoints(Collections.singleton(AcceptedTokenType.TENANT)).toArray()));
+    Assert.assertEquals(4,
+        registry.getPermittableEndpoints(Arrays.asList(AcceptedTokenType.TENANT, AcceptedTokenType.SYSTEM)).size());
+    Assert.assertEquals(2, registry.getPermittableEndpoints(AcceptedTokenType.TENANT, "x").size());
+    Assert.assertTrue(registry.getPermittableEndpoints(AcceptedTokenType.SYSTEM, "x").isEmpty());
+    Assert.assertTrue(registry.getPermittableEndpoints(Collections.singleton(AcceptedTokenType.GUEST)).isEmpty());
+    Assert.assertEquals(1, registry.getPermissions(Collections.singleton(AcceptedTokenType.SYSTEM)).size());
+  }
+
+  @Test
+  public void tenantEndpointsAreSerializedWithAStableETag() throws IOException {
+    final PermittableEndpointRegistry registry = registry();
+    final List<PermittableEndpoint> deserialized = new ObjectMapper().readValue(registry.getTenantEndpointsJson(),
+        new TypeReference<List<PermittableEndpoint>>(){});
+
+    Assert.assertEquals(
+        Arrays.asList(registry.getPermittableEndpoints(Collections.singleton(AcceptedTokenType.TENANT)).toArray()),
+        deserialized);
+    Assert.assertEquals(registry.getTenantEndpointsETag(), registry().getTenantEndpointsETag());
+    Assert.assertTrue(registry.getTenantEndpointsETag().startsWith("\""));
+    Assert.assertTrue(registry.getTenantEndpointsETag().endsWith("\""));
+
+    final Map<AcceptedTokenType, Set<PermittableEndpoint>> changedEndpoints = new EnumMap<>(AcceptedTokenType.class);
+    changedEndpoints.put(AcceptedTokenType.TENANT, Collections.singleton(new PermittableEndpoint("/beat", "GET", "x")));
+    Assert.assertNotEquals(registry.getTenantEndpointsETag(),
+        new PermittableEndpointRegistry(APPLICATION_NAME, changedEndpoints, new ObjectMapper()).getTenantEndpointsETag());
+  }
+
+  @Test
+  public void tenantEndpointsAreSerializedLikeOtherResponses() {
+    final Map<AcceptedTokenType, Set<PermittableEndpoint>> endpoints = new EnumMap<>(AcceptedTokenType.class);
+    endpoints.put(AcceptedTokenType.TENANT, Collections.singleton(new PermittableEndpoint("/<heart>", "GET", null)));
+    final String json = new PermittableEndpointRegistry(APPLICATION_NAME, endpoints, new ObjectMapper())
+        .getTenantEndpointsJson();
+
+    Assert.assertTrue(json, json.contains("\"groupId\":null"));
+    Assert.assertTrue(json, json.contains("\"path\":\"heart-v1/<heart>\""));
+  }
+
+  private static PermittableEndpointRegistry registry() {
+    final Map<AcceptedTokenType, List<PermittableEndpoint>> relativeEndpoints = new EnumMap<>(AcceptedTokenType.class);
+    relativeEndpoints.put(AcceptedTokenType.TENANT, Arrays.asList(
+        new PermittableEndpoint("/beat", "GET", "x"),
+        new PermittableEndpoint("/beat", "PUT", "y"),
+        new PermittableEndpoint("/rate/*", "GET", "x")));
+    relativeEndpoints.put(AcceptedTokenType.SYSTEM, Collections.singletonList(
+        new PermittableEndpoint("/initialize", "POST")));
+    return new PermittableEndpointRegistry(APPLICATION_NAME, relativeEndpoints, new ObjectMapper());
+  }
+}
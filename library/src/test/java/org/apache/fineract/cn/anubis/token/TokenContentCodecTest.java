@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.token;
+
+import com.google.gson.Gson;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.Jwt;
+import io.jsonwebtoken.Jwts;
+import org.apache.fineract.cn.anubis.api.v1.TokenConstants;
+import org.apache.fineract.cn.anubis.api.v1.domain.AllowedOperation;
+import org.apache.fineract.cn.anubis.api.v1.domain.TokenContent;
+import org.apache.fineract.cn.anubis.api.v1.domain.TokenPermission;
+import org.apache.fineract.cn.lang.security.RsaKeyPairFactory;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+public class TokenContentCodecTest {
+  private static final TokenContent TOKEN_CONTENT = new TokenContent(Arrays.asList(
+      new TokenPermission("office-v1/offices/*", AllowedOperation.ALL),
+      new TokenPermission("office-v1/employees/*", Collections.singleton(AllowedOperation.READ)),
+      new TokenPermission("office-v1/employees/*/contactdetails", new HashSet<>(Arrays.asList(AllowedOperation.DELETE, AllowedOperation.READ))),
+      new TokenPermission("identity-v1/users/{useridentifier}/password", Collections.singleton(AllowedOperation.CHANGE))));
+  private static RsaKeyPairFactory.KeyPairHolder keyPairHolder;
+
+  @BeforeClass
+  public static void initialize()
+  {
+    keyPairHolder = RsaKeyPairFactory.createKeyPair();
+  }
+
+  @Test
+  public void shouldDecodeOwnApplicationContentOnly() {
+    final Map<String, Object> encoded = TokenContentCodec.encode(TOKEN_CONTENT);
+
+    final List<TokenPermission> officePermissions = TokenContentCodec.decodeApplicationContent(
+        TokenContentCodec.getApplicationContent(encoded, "office-v1"));
+    Assert.assertEquals(new HashSet<>(Arrays.asList(
+        new TokenPermission("/offices/*", AllowedOperation.ALL),
+        new TokenPermission("/employees/*", Collections.singleton(AllowedOperation.READ)),
+        new TokenPermission("/employees/*/contactdetails", new HashSet<>(Arrays.asList(AllowedOperation.DELETE, AllowedOperation.READ))))),
+        new HashSet<>(officePermissions));
+
+    Assert.assertTrue(TokenContentCodec.getApplicationContent(encoded, "customer-v1").isEmpty());
+  }
+
+  @SuppressWarnings({"unchecked"})
+  @Test
+  public void compactTokensShouldBeSmallerAndDecodeAfterParsing() {
+    final TenantAccessTokenSerializer testSubject = new TenantAccessTokenSerializer(new Gson());
+    final List<TokenPermission> tokenPermissions = new ArrayList<>();
+    for (int i = 0; i < 100; i++)
+      tokenPermissions.add(new TokenPermission("office-v1/offices" + i + "/*", AllowedOperation.ALL));
+    final TokenContent tokenContent = new TokenContent(tokenPermissions);
+
+    final String token = testSubject.build(specification(tokenContent).setCompactTokenContent(true)).getToken();
+    final String legacyToken = testSubject.build(specification(tokenContent)).getToken();
+    Assert.assertTrue(token.length() < legacyToken.length());
+
+    final Jwt<Header, Claims> parsedToken = Jwts.parser()
+        .setSigningKey(keyPairHolder.publicKey())
+        .parse(token.substring(TokenConstants.PREFIX.length()).trim());
+    Assert.assertNull(parsedToken.getBody().get(TokenConstants.JWT_CONTENT_CLAIM));
+
+    final List<TokenPermission> decoded = TokenContentCodec.decodeApplicationContent(
+        TokenContentCodec.getApplicationContent(
+            parsedToken.getBody().get(TokenConstants.JWT_COMPACT_CONTENT_CLAIM), "office-v1"));
+    Assert.assertEquals(100, decoded.size());
+    Assert.assertEquals(new TokenPermission("/offices0/*", AllowedOperation.ALL), decoded.get(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unknownVersionCausesException() {
+    final Map<String, Object> encoded = TokenContentCodec.encode(TOKEN_CONTENT);
+    encoded.put("v", TokenContentCodec.VERSION + 1);
+    TokenContentCodec.getApplicationContent(encoded, "office-v1");
+  }
+
+  private static TenantAccessTokenSerializer.Specification specification(final TokenContent tokenContent) {
+    return new TenantAccessTokenSerializer.Specification()
+        .setKeyTimestamp("1234567")
+        .setUser("who")
+        .setSourceApplication("identity-v1")
+        .setTokenContent(tokenContent)
+        .setPrivateKey(keyPairHolder.privateKey())
+        .setSecondsToLive(15);
+  }
+}
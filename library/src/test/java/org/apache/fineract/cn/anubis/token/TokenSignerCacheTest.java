@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.fineract.cn.anubis.token;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.Jwt;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.apache.fineract.cn.anubis.api.v1.TokenConstants;
+import org.apache.fineract.cn.lang.AutoTenantContext;
+import org.apache.fineract.cn.lang.security.RsaKeyPairFactory;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class TokenSignerCacheTest {
+  private static final String KEY_TIMESTAMP = "2017_01_01T00_00_00";
+  private static RsaKeyPairFactory.KeyPairHolder keyPairHolder;
+  private static RsaKeyPairFactory.KeyPairHolder otherKeyPairHolder;
+
+  @BeforeClass
+  public static void initialize()
+  {
+    keyPairHolder = RsaKeyPairFactory.createKeyPair();
+    otherKeyPairHolder = RsaKeyPairFactory.createKeyPair();
+  }
+
+  @Test
+  public void shouldReuseSignerForSameKey() {
+    final TokenSignerCache testSubject = new TokenSignerCache();
+    final TokenSigner signer = testSubject.getSigner(KEY_TIMESTAMP, SignatureAlgorithm.RS512, keyPairHolder.privateKey());
+
+    Assert.assertSame(signer, testSubject.getSigner(KEY_TIMESTAMP, SignatureAlgorithm.RS512, keyPairHolder.privateKey()));
+    Assert.assertNotSame(signer, testSubject.getSigner(KEY_TIMESTAMP, SignatureAlgorithm.RS256, keyPairHolder.privateKey()));
+
+    final TokenSigner otherSigner
+        = testSubject.getSigner(KEY_TIMESTAMP, SignatureAlgorithm.RS512, otherKeyPairHolder.privateKey());
+    Assert.assertNotSame(signer, otherSigner);
+    Assert.assertSame(otherSigner, testSubject.getSigner(KEY_TIMESTAMP, SignatureAlgorithm.RS512, otherKeyPairHolder.privateKey()));
+
+    testSubject.invalidate(KEY_TIMESTAMP);
+    Assert.assertNotSame(otherSigner, testSubject.getSigner(KEY_TIMESTAMP, SignatureAlgorithm.RS512, otherKeyPairHolder.privateKey()));
+  }
+
+  @Test
+  public void shouldKeepSignersOfTenantsWithSameKeyTimestamp() {
+    final TokenSignerCache testSubject = new TokenSignerCache();
+    final TokenSigner signer;
+    final TokenSigner otherSigner;
+    try (final AutoTenantContext ignored = new AutoTenantContext("ba")) {
+      signer = testSubject.getSigner(KEY_TIMESTAMP, SignatureAlgorithm.RS512, keyPairHolder.privateKey());
+    }
+    try (final AutoTenantContext ignored = new AutoTenantContext("ka")) {
+      otherSigner = testSubject.getSigner(KEY_TIMESTAMP, SignatureAlgorithm.RS512, otherKeyPairHolder.privateKey());
+    }
+
+    try (final AutoTenantContext ignored = new AutoTenantContext("ba")) {
+      Assert.assertSame(signer, testSubject.getSigner(KEY_TIMESTAMP, SignatureAlgorithm.RS512, keyPairHolder.privateKey()));
+    }
+    try (final AutoTenantContext ignored = new AutoTenantContext("ka")) {
+      Assert.assertSame(otherSigner, testSubject.getSigner(KEY_TIMESTAMP, SignatureAlgorithm.RS512, otherKeyPairHolder.privateKey()));
+    }
+  }
+
+  @Test
+  public void shouldDropLeastRecentlyUsedSigner() {
+    final TokenSignerCache testSubject = new TokenSignerCache();
+    final TokenSigner signer = testSubject.getSigner(KEY_TIMESTAMP, SignatureAlgorithm.RS512, keyPairHolder.privateKey());
+    final TokenSigner otherSigner = testSubject.getSigner("2017_01_02T00_00_00", SignatureAlgorithm.RS512, keyPairHolder.privateKey());
+    for (int i = 0; i < 300; i++) {
+      Assert.assertSame(signer, testSubject.getSigner(KEY_TIMESTAMP, SignatureAlgorithm.RS512, keyPairHolder.privateKey()));
+      try (final AutoTenantContext ignored = new AutoTenantContext("tenant" + i)) {
+        testSubject.getSigner(KEY_TIMESTAMP, SignatureAlgorithm.RS512, keyPairHolder.privateKey());
+      }
+    }
+
+    Assert.assertSame(signer, testSubject.getSigner(KEY_TIMESTAMP, SignatureAlgorithm.RS512, keyPairHolder.privateKey()));
+    Assert.assertNotSame(otherSigner, testSubject.getSigner("2017_01_02T00_00_00", SignatureAlgorithm.RS512, keyPairHolder.privateKey()));
+  }
+
+  @SuppressWarnings({"unchecked"})
+  @Test
+  public void signerShouldCreateValidTokensFromSeveralThreads() throws Exception {
+    final TokenSigner signer = new TokenSignerCache()
+        .getSigner(KEY_TIMESTAMP, SignatureAlgorithm.RS512, keyPairHolder.privateKey());
+    final SystemAccessTokenSerializer testSubject = new SystemAccessTokenSerializer();
+
+    final ExecutorService executorService = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<String>> tokens = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        final String tenant = "tenant" + i;
+        tokens.add(executorService.submit(() -> testSubject.build(new SystemAccessTokenSerializer.Specification()
+            .setKeyTimestamp(KEY_TIMESTAMP)
+            .setSigner(signer)
+            .setTargetApplicationName("fineract-cn-core")
+            .setRole("y")
+            .setSecondsToLive(15)
+            .setTenant(tenant)).getToken()));
+      }
+
+      for (int i = 0; i < tokens.size(); i++) {
+        final Jwt<Header, Claims> parsedToken = Jwts.parser()
+            .setSigningKey(keyPairHolder.publicKey())
+            .parse(tokens.get(i).get().substring(TokenConstants.PREFIX.length()).trim());
+        Assert.assertEquals("RS512", parsedToken.getHeader().get("alg"));
+        Assert.assertEquals("tenant" + i, parsedToken.getBody().getSubject());
+        Assert.assertEquals(KEY_TIMESTAMP, parsedToken.getBody().get(TokenConstants.JWT_SIGNATURE_TIMESTAMP_CLAIM, String.class));
+      }
+    }
+    finally {
+      executorService.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void signerWithOtherKeyTimestampCausesException() {
+    final TokenSigner signer = new TokenSignerCache()
+        .getSigner(KEY_TIMESTAMP, SignatureAlgorithm.RS512, keyPairHolder.privateKey());
+
+    new SystemAccessTokenSerializer().build(new SystemAccessTokenSerializer.Specification()
+        .setKeyTimestamp("2018_01_01T00_00_00")
+        .setSigner(signer)
+        .setTargetApplicationName("fineract-cn-core")
+        .setRole("y")
+        .setSecondsToLive(15)
+        .setTenant("tenant"));
+  }
+}